@@ -180,6 +180,7 @@ $script:PRINTER_SETTINGS="txtPrinter.properties"
 $script:SMS_SETTINGS="sms.properties"
 $script:TELEMETRY_SETTINGS="telemetry.properties"
 $script:XMPP_SETTINGS="xmpp.properties"
+$script:REPORTSCHEDULER_SETTINGS="reportscheduler.properties"
 $script:API_SETTINGS="application.properties"
 $script:CRED_SETTINGS="default_credentials.properties"
 $script:DEMO_CRED_SETTINGS="default_demo_credentials.properties"
@@ -1073,6 +1074,7 @@ function write_config_files {
 	copy_config_file $SMS_SETTINGS;
 	copy_config_file $TELEMETRY_SETTINGS;
 	copy_config_file $XMPP_SETTINGS;
+	copy_config_file $REPORTSCHEDULER_SETTINGS;
 
 	######## DEFAULT_CREDENTIALS_SETTINGS setup
 	if ($OH_MODE -eq "PORTABLE") {
@@ -1117,6 +1119,8 @@ function clean_conf_files {
 	$filetodel="$OH_PATH/$OH_DIR/rsc/$TELEMETRY_SETTINGS.old"; if (Test-Path $filetodel -PathType leaf) { Remove-Item $filetodel -Recurse -Confirm:$false -ErrorAction Ignore }
 	$filetodel="$OH_PATH/$OH_DIR/rsc/$XMPP_SETTINGS"; if (Test-Path $filetodel -PathType leaf) { Remove-Item $filetodel -Recurse -Confirm:$false -ErrorAction Ignore }
 	$filetodel="$OH_PATH/$OH_DIR/rsc/$XMPP_SETTINGS.old"; if (Test-Path $filetodel -PathType leaf) { Remove-Item $filetodel -Recurse -Confirm:$false -ErrorAction Ignore }
+	$filetodel="$OH_PATH/$OH_DIR/rsc/$REPORTSCHEDULER_SETTINGS"; if (Test-Path $filetodel -PathType leaf) { Remove-Item $filetodel -Recurse -Confirm:$false -ErrorAction Ignore }
+	$filetodel="$OH_PATH/$OH_DIR/rsc/$REPORTSCHEDULER_SETTINGS.old"; if (Test-Path $filetodel -PathType leaf) { Remove-Item $filetodel -Recurse -Confirm:$false -ErrorAction Ignore }
 	$filetodel="$OH_PATH/$OH_DIR/rsc/$API_SETTINGS"; if (Test-Path $filetodel -PathType leaf) { Remove-Item $filetodel -Recurse -Confirm:$false -ErrorAction Ignore }
 	$filetodel="$OH_PATH/$OH_DIR/rsc/$API_SETTINGS.old"; if (Test-Path $filetodel -PathType leaf) { Remove-Item $filetodel -Recurse -Confirm:$false -ErrorAction Ignore }
 	$filetodel="$OH_PATH/$OH_DIR/rsc/$CRED_SETTINGS"; if (Test-Path $filetodel -PathType leaf) { Remove-Item $filetodel -Recurse -Confirm:$false -ErrorAction Ignore }
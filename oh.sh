@@ -121,6 +121,7 @@ PRINTER_SETTINGS="txtPrinter.properties"
 SMS_SETTINGS="sms.properties"
 TELEMETRY_SETTINGS="telemetry.properties"
 XMPP_SETTINGS="xmpp.properties"
+REPORTSCHEDULER_SETTINGS="reportscheduler.properties"
 API_SETTINGS="application.properties"
 CRED_SETTINGS="default_credentials.properties"
 DEMO_CRED_SETTINGS="default_demo_credentials.properties"
@@ -938,6 +939,7 @@ function write_config_files {
 	copy_config_file $SMS_SETTINGS;
 	copy_config_file $TELEMETRY_SETTINGS;
 	copy_config_file $XMPP_SETTINGS;
+	copy_config_file $REPORTSCHEDULER_SETTINGS;
 
 	######## DEFAULT_CREDENTIALS_SETTINGS setup
 	if [ "$OH_MODE" == "PORTABLE" ]; then
@@ -982,6 +984,8 @@ function clean_conf_files {
 	rm -f ./$OH_DIR/rsc/$TELEMETRY_SETTINGS.old
 	rm -f ./$OH_DIR/rsc/$XMPP_SETTINGS
 	rm -f ./$OH_DIR/rsc/$XMPP_SETTINGS.old
+	rm -f ./$OH_DIR/rsc/$REPORTSCHEDULER_SETTINGS
+	rm -f ./$OH_DIR/rsc/$REPORTSCHEDULER_SETTINGS.old
 	rm -f ./$OH_DIR/rsc/$API_SETTINGS
 	rm -f ./$OH_DIR/rsc/$API_SETTINGS.old
 	rm -f ./$OH_DIR/rsc/$CRED_SETTINGS
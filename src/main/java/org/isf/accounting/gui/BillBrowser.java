@@ -84,6 +84,7 @@ import org.isf.stat.gui.report.GenericReportFromDateToDate;
 import org.isf.stat.gui.report.GenericReportPatient;
 import org.isf.stat.gui.report.GenericReportUserInDate;
 import org.isf.utils.exception.OHServiceException;
+import org.isf.utils.jobjects.EntityTableModel;
 import org.isf.utils.jobjects.GoodDateChooser;
 import org.isf.utils.jobjects.JMonthChooser;
 import org.isf.utils.jobjects.JYearChooser;
@@ -123,13 +124,11 @@ public class BillBrowser extends ModalJFrame implements PatientBillListener {
 		if (event != null) {
 			Bill billInserted = (Bill) event.getSource();
 			if (billInserted != null) {
-				int insertedId = billInserted.getId();
-				IntStream.range(0, jTableBills.getRowCount()).forEach(i -> {
-					Bill aBill = (Bill) jTableBills.getModel().getValueAt(i, -1);
-					if (aBill.getId() == insertedId) {
-						jTableBills.getSelectionModel().setSelectionInterval(i, i);
-					}
-				});
+				int row = ((BillTableModel) jTableBills.getModel()).indexOf(billInserted.getId());
+				if (row >= 0) {
+					int viewRow = jTableBills.convertRowIndexToView(row);
+					jTableBills.getSelectionModel().setSelectionInterval(viewRow, viewRow);
+				}
 			}
 			if (!isSingleUser && MainMenu.checkUserGrants("cashiersfilter")) {
 				if (!users.contains(user)) {
@@ -865,9 +864,7 @@ public class BillBrowser extends ModalJFrame implements PatientBillListener {
 				jTableUser.setValueAt("<html><b>" + user + ' ' + MessageBundle.getMessage("angal.billbrowser.todaycolon.txt") + "</b></html>", 0, 0);
 				jTableUser.setValueAt("<html><b>" + user + ' ' + MessageBundle.getMessage("angal.billbrowser.periodcolon.txt") + "</b></html>", 0, 2);
 				updateTotals();
-				jTableBills.setModel(new BillTableModel("ALL", user)); //$NON-NLS-1$
-				jTablePending.setModel(new BillTableModel("O", user)); //$NON-NLS-1$
-				jTableClosed.setModel(new BillTableModel("C", user)); //$NON-NLS-1$
+				updateTables(user);
 			});
 		}
 		return jComboUsers;
@@ -1137,9 +1134,17 @@ public class BillBrowser extends ModalJFrame implements PatientBillListener {
 	}
 
 	private void updateTables() {
-		jTableBills.setModel(new BillTableModel("ALL", NO_USERNAME)); //$NON-NLS-1$
-		jTablePending.setModel(new BillTableModel("O", NO_USERNAME)); //$NON-NLS-1$
-		jTableClosed.setModel(new BillTableModel("C", NO_USERNAME)); //$NON-NLS-1$
+		updateTables(NO_USERNAME);
+	}
+
+	/*
+	 * the bills are loaded again in the same models, so that the tables keep their columns, sort and selection
+	 */
+	private void updateTables(String username) {
+		for (JTable table : new JTable[] { jTableBills, jTablePending, jTableClosed }) {
+			BillTableModel model = (BillTableModel) table.getModel();
+			model.setEntities(model.loadBills(username), table);
+		}
 	}
 
 	private void updateDataSet() {
@@ -1226,26 +1231,34 @@ public class BillBrowser extends ModalJFrame implements PatientBillListener {
 		}
 	}
 
-	public class BillTableModel extends DefaultTableModel {
+	public class BillTableModel extends EntityTableModel<Bill> {
 
 		private static final long serialVersionUID = 1L;
-		private List<Bill> tableArray = new ArrayList<>();
+
+		private final String status;
 
 		/*
 		 * All Bills
 		 */
 		public BillTableModel(String status, String username) {
-			loadData(status, username);
+			this.status = status;
+			setEntities(loadBills(username));
 		}
 
-		private void loadData(String status, String username) {
+		List<Bill> loadBills(String username) {
 			try {
-				tableArray = new BillDataLoader(billPeriod, billFromPayments, patientParent, billBrowserManager).loadBills(status, username);
+				return new BillDataLoader(billPeriod, billFromPayments, patientParent, billBrowserManager).loadBills(status, username);
 			} catch (OHServiceException ohServiceException) {
 				LOGGER.error("BillDataLoader error: ", ohServiceException);
+				return new ArrayList<>();
 			}
 		}
 
+		@Override
+		protected Object getId(Bill bill) {
+			return bill.getId();
+		}
+
 		@Override
 		public Class< ? > getColumnClass(int columnIndex) {
 			return columnsClasses[columnIndex];
@@ -1262,20 +1275,8 @@ public class BillBrowser extends ModalJFrame implements PatientBillListener {
 		}
 
 		@Override
-		public int getRowCount() {
-			if (tableArray == null) {
-				return 0;
-			}
-			return tableArray.size();
-		}
-
-		@Override
-		public Object getValueAt(int r, int c) {
+		protected Object getValueAt(Bill thisBill, int c) {
 			int index = -1;
-			Bill thisBill = tableArray.get(r);
-			if (c == index) {
-				return thisBill;
-			}
 			if (c == ++index) {
 				return thisBill.getUser();
 			}
@@ -1310,11 +1311,6 @@ public class BillBrowser extends ModalJFrame implements PatientBillListener {
 			return null;
 		}
 
-		@Override
-		public boolean isCellEditable(int rowIndex, int columnIndex) {
-			return false;
-		}
-
 	}
 
 	private void formatCellByBillStatus(JTable table, int row, Component cell) {
@@ -98,6 +98,8 @@ import org.isf.patient.gui.PatientSummary;
 import org.isf.patient.model.Patient;
 import org.isf.pregtreattype.manager.PregnantTreatmentTypeBrowserManager;
 import org.isf.pregtreattype.model.PregnantTreatmentType;
+import org.isf.utils.event.EntityEvent;
+import org.isf.utils.event.GuiEventBus;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.gui.OHServiceExceptionUtil;
 import org.isf.utils.exception.model.OHExceptionMessage;
@@ -156,6 +158,7 @@ public class AdmissionBrowser extends ModalJFrame {
 		for (EventListener listener : listeners) {
 			((AdmissionListener) listener).admissionInserted(event);
 		}
+		GuiEventBus.getInstance().publish(EntityEvent.inserted(Admission.class, anAdmission.getId(), anAdmission));
 	}
 
 	private void fireAdmissionUpdated(Admission anAdmission) {
@@ -168,6 +171,7 @@ public class AdmissionBrowser extends ModalJFrame {
 		for (EventListener listener : listeners) {
 			((AdmissionListener) listener).admissionUpdated(event);
 		}
+		GuiEventBus.getInstance().publish(EntityEvent.updated(Admission.class, anAdmission.getId(), anAdmission));
 	}
 
 	private PregnantTreatmentTypeBrowserManager pregnantTreatmentTypeBrowserManager = Context.getApplicationContext()
@@ -362,7 +366,9 @@ public class AdmissionBrowser extends ModalJFrame {
 		super();
 		setTitle(editing ? MessageBundle.getMessage("angal.admission.editadmissionrecord.title")
 						: MessageBundle.getMessage("angal.admission.newadmission.title"));
-		addAdmissionListener((AdmissionListener) parentFrame);
+		if (parentFrame instanceof AdmissionListener) {
+			addAdmissionListener((AdmissionListener) parentFrame);
+		}
 		this.editing = editing;
 		patient = admPatient.getPatient();
 		if (Character.toUpperCase(patient.getSex()) == 'F') {
@@ -420,8 +426,12 @@ public class AdmissionBrowser extends ModalJFrame {
 	public AdmissionBrowser(JFrame parentFrame, JFrame parentParentFrame, Patient aPatient, Admission anAdmission) {
 		super();
 		setTitle(MessageBundle.getMessage("angal.admission.editadmissionrecord.title"));
-		addAdmissionListener((AdmissionListener) parentParentFrame);
-		addAdmissionListener((AdmissionListener) parentFrame);
+		if (parentParentFrame instanceof AdmissionListener) {
+			addAdmissionListener((AdmissionListener) parentParentFrame);
+		}
+		if (parentFrame instanceof AdmissionListener) {
+			addAdmissionListener((AdmissionListener) parentFrame);
+		}
 		editing = true;
 		patient = aPatient;
 		if (Character.toUpperCase(patient.getSex()) == 'F') {
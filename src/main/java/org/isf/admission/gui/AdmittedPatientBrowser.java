@@ -21,7 +21,6 @@
  */
 package org.isf.admission.gui;
 
-import java.awt.AWTEvent;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Component;
@@ -61,11 +60,8 @@ import javax.swing.Timer;
 import javax.swing.WindowConstants;
 import javax.swing.border.Border;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 
 import org.isf.accounting.gui.PatientBillEdit;
-import org.isf.admission.gui.AdmissionBrowser.AdmissionListener;
-import org.isf.admission.gui.PatientDataBrowser.DeleteAdmissionListener;
 import org.isf.admission.manager.AdmissionBrowserManager;
 import org.isf.admission.model.Admission;
 import org.isf.admission.model.AdmittedPatient;
@@ -93,13 +89,15 @@ import org.isf.opd.gui.OpdEditExtended;
 import org.isf.opd.model.Opd;
 import org.isf.patient.gui.PatientInsert;
 import org.isf.patient.gui.PatientInsertExtended;
-import org.isf.patient.gui.PatientInsertExtended.PatientListener;
 import org.isf.patient.manager.PatientBrowserManager;
 import org.isf.patient.model.Patient;
 import org.isf.therapy.gui.TherapyEdit;
 import org.isf.utils.db.NormalizeString;
+import org.isf.utils.event.EntityEvent;
+import org.isf.utils.event.GuiEventBus;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.gui.OHServiceExceptionUtil;
+import org.isf.utils.jobjects.EntityTableModel;
 import org.isf.utils.jobjects.GoodDateChooser;
 import org.isf.utils.jobjects.MessageDialog;
 import org.isf.utils.jobjects.ModalJFrame;
@@ -119,8 +117,7 @@ import com.github.lgooddatepicker.zinternaltools.WrapLayout;
  * view extended data of a selected patient
  * add an admission record (or modify existing admission record, or set a discharge) of a selected patient
  */
-public class AdmittedPatientBrowser extends ModalJFrame implements PatientInsert.PatientListener, PatientListener,
-				AdmissionListener, DeleteAdmissionListener {
+public class AdmittedPatientBrowser extends ModalJFrame {
 
 	private static final long serialVersionUID = 1L;
 
@@ -166,169 +163,76 @@ public class AdmittedPatientBrowser extends ModalJFrame implements PatientInsert
 	protected Timer ageTimer = new Timer(1000, e -> filterPatient(null));
 
 	public void fireMyDeletedPatient(Patient p) {
-
-		int cc = 0;
-		boolean found = false;
-		for (AdmittedPatient elem : pPatient) {
-			if (elem.getPatient().getCode().equals(p.getCode())) {
-				found = true;
-				break;
-			}
-			cc++;
-		}
-		if (found) {
-			pPatient.remove(cc);
-			lastKey = "";
-			filterPatient(searchString.getText());
-		}
-	}
-
-	@Override
-	public void deleteAdmissionUpdated(AWTEvent e) {
-		Admission adm = (Admission) e.getSource();
-
-		// remember selected row
-		int row = table.getSelectedRow();
-
-		for (AdmittedPatient elem : pPatient) {
-			if (elem.getPatient().getCode().equals(adm.getPatient().getCode())) {
-				// found same patient in the list
-				Admission elemAdm = elem.getAdmission();
-				if (elemAdm != null) {
-					// the patient is admitted
-					if (elemAdm.getId() == adm.getId()) {
-						// same admission --> delete
-						elem.setAdmission(null);
-					}
-				}
-				break;
-			}
-		}
-		lastKey = "";
-		filterPatient(searchString.getText());
-		try {
-			if (table.getRowCount() > 0) {
-				table.setRowSelectionInterval(row, row);
-			}
-		} catch (Exception e1) {
-		}
-	}
-
-	/*
-	 * manage AdmissionBrowser messages
-	 */
-	@Override
-	public void admissionInserted(AWTEvent e) {
-		Admission adm = (Admission) e.getSource();
-
-		// remember selected row
-		int row = table.getSelectedRow();
-		int patId = adm.getPatient().getCode();
-
-		for (AdmittedPatient elem : pPatient) {
-			if (elem.getPatient().getCode() == patId) {
-				// found same patient in the list
-				elem.setAdmission(adm);
-				break;
-			}
-		}
-		lastKey = "";
-		filterPatient(searchString.getText());
-		try {
-			if (table.getRowCount() > 0) {
-				table.setRowSelectionInterval(row, row);
-			}
-		} catch (Exception e1) {
-		}
+		GuiEventBus.getInstance().publish(EntityEvent.deleted(Patient.class, p.getCode(), p));
 	}
 
 	/*
-	 * param contains info about patient admission, ward can varying or patient may be discharged
+	 * manage the patients inserted, updated or deleted by any frame: only their rows are changed
 	 */
-	@Override
-	public void admissionUpdated(AWTEvent e) {
-		Admission adm = (Admission) e.getSource();
-
-		// remember selected row
-		int row = table.getSelectedRow();
-		int admId = adm.getId();
-		int patId = adm.getPatient().getCode();
-
-		for (AdmittedPatient elem : pPatient) {
-			if (elem.getPatient().getCode() == patId) {
-				// found same patient in the list
-				Admission elemAdm = elem.getAdmission();
-				if (adm.getDisDate() != null) {
-					// is a discharge
-					if (elemAdm != null) {
-						// the patient is not discharged
-						if (elemAdm.getId() == admId) {
-							// same admission --> discharge
-							elem.setAdmission(null);
-						}
-					}
-				} else {
-					// is not a discharge --> patient admitted
-					elem.setAdmission(adm);
+	private void patientsChanged(List<EntityEvent<Patient>> events) {
+		AdmittedPatientBrowserModel model = (AdmittedPatientBrowserModel) table.getModel();
+		boolean inserted = false;
+		for (EntityEvent<Patient> event : events) {
+			Patient changed = event.getEntity();
+			int index = indexOf(changed.getCode());
+			if (event.getKind() == EntityEvent.Kind.DELETED) {
+				if (index >= 0) {
+					pPatient.remove(index);
+					model.remove(changed.getCode());
 				}
-				break;
+			} else if (index >= 0) {
+				AdmittedPatient admittedPatient = new AdmittedPatient(changed, pPatient.get(index).getAdmission());
+				pPatient.set(index, admittedPatient);
+				model.patientChanged(admittedPatient);
+			} else if (event.getKind() == EntityEvent.Kind.INSERTED) {
+				AdmittedPatient admittedPatient = new AdmittedPatient(changed, null);
+				pPatient.add(0, admittedPatient);
+				model.patientChanged(admittedPatient);
+				inserted = true;
 			}
 		}
-		lastKey = "";
-		filterPatient(searchString.getText());
-		try {
-			if (table.getRowCount() > 0) {
-				table.setRowSelectionInterval(row, row);
-			}
-		} catch (Exception e1) {
+		if (inserted && table.getRowCount() > 0) {
+			table.setRowSelectionInterval(0, 0);
 		}
+		rowCounter.setText(MessageBundle.formatMessage("angal.admission.count.fmt.txt", table.getRowCount()));
+		searchString.requestFocus();
 	}
 
 	/*
-	 * manage PatientEdit messages
-	 * 
-	 * mind PatientEdit return a patient patientInserted create a new AdmittedPatient for table
+	 * manage the admissions inserted, updated (ward changed or discharge) or deleted by any frame
 	 */
-	@Override
-	public void patientInserted(AWTEvent e) {
-		Patient u = (Patient) e.getSource();
-		pPatient.add(0, new AdmittedPatient(u, null));
-		lastKey = "";
-		filterPatient(searchString.getText());
-		try {
-			if (table.getRowCount() > 0) {
-				table.setRowSelectionInterval(0, 0);
+	private void admissionsChanged(List<EntityEvent<Admission>> events) {
+		AdmittedPatientBrowserModel model = (AdmittedPatientBrowserModel) table.getModel();
+		for (EntityEvent<Admission> event : events) {
+			Admission adm = event.getEntity();
+			int index = indexOf(adm.getPatient().getCode());
+			if (index < 0) {
+				continue;
 			}
-		} catch (Exception e1) {
+			// found same patient in the list
+			AdmittedPatient elem = pPatient.get(index);
+			Admission elemAdm = elem.getAdmission();
+			if (event.getKind() == EntityEvent.Kind.DELETED || adm.getDisDate() != null) {
+				// deleted or discharged: only the current admission of the patient is removed
+				if (elemAdm != null && elemAdm.getId() == adm.getId()) {
+					elem.setAdmission(null);
+				}
+			} else {
+				// patient admitted or moved to another ward
+				elem.setAdmission(adm);
+			}
+			model.patientChanged(elem);
 		}
-		searchString.requestFocus();
-		rowCounter.setText(MessageBundle.formatMessage("angal.admission.count.fmt.txt", pPatient.size()));
+		rowCounter.setText(MessageBundle.formatMessage("angal.admission.count.fmt.txt", table.getRowCount()));
 	}
 
-	@Override
-	public void patientUpdated(AWTEvent e) {
-
-		Patient u = (Patient) e.getSource();
-
-		// remember selected row
-		int row = table.getSelectedRow();
-
+	private int indexOf(Integer code) {
 		for (int i = 0; i < pPatient.size(); i++) {
-			if (pPatient.get(i).getPatient().getCode().equals(u.getCode())) {
-				Admission admission = pPatient.get(i).getAdmission();
-				pPatient.remove(i);
-				pPatient.add(i, new AdmittedPatient(u, admission));
-				break;
+			if (pPatient.get(i).getPatient().getCode().equals(code)) {
+				return i;
 			}
 		}
-		lastKey = "";
-		filterPatient(searchString.getText());
-		try {
-			table.setRowSelectionInterval(row, row);
-		} catch (Exception e1) {
-		}
-		searchString.requestFocus();
-		rowCounter.setText(MessageBundle.formatMessage("angal.admission.count.fmt.txt", pPatient.size()));
+		return -1;
 	}
 
 	public AdmittedPatientBrowser() {
@@ -346,6 +250,8 @@ public class AdmittedPatientBrowser extends ModalJFrame implements PatientInsert
 		}
 
 		initComponents();
+		GuiEventBus.getInstance().subscribe(this, Patient.class, this::patientsChanged);
+		GuiEventBus.getInstance().subscribe(this, Admission.class, this::admissionsChanged);
 		setMinimumSize(new Dimension(1270, 570));
 		pack();
 		setLocationRelativeTo(null);
@@ -644,7 +550,7 @@ public class AdmittedPatientBrowser extends ModalJFrame implements PatientInsert
 	}
 
 	private JScrollPane getScrollPane() {
-		table = new JTable(new AdmittedPatientBrowserModel(null));
+		table = new JTable(new AdmittedPatientBrowserModel());
 		table.setAutoCreateColumnsFromModel(false);
 
 		for (int i = 0; i < pColumns.length; i++) {
@@ -785,11 +691,9 @@ public class AdmittedPatientBrowser extends ModalJFrame implements PatientInsert
 			Patient newPatient = new Patient();
 			if (GeneralData.PATIENTEXTENDED) {
 				PatientInsertExtended newrecord = new PatientInsertExtended(this, newPatient, true);
-				newrecord.addPatientListener(this);
 				newrecord.setVisible(true);
 			} else {
 				PatientInsert newrecord = new PatientInsert(this, newPatient, true);
-				newrecord.addPatientListener(this);
 				newrecord.setVisible(true);
 			}
 
@@ -809,11 +713,9 @@ public class AdmittedPatientBrowser extends ModalJFrame implements PatientInsert
 			if (GeneralData.PATIENTEXTENDED) {
 
 				PatientInsertExtended editrecord = new PatientInsertExtended(this, patient.getPatient(), false);
-				editrecord.addPatientListener(this);
 				editrecord.setVisible(true);
 			} else {
 				PatientInsert editrecord = new PatientInsert(this, patient.getPatient(), false);
-				editrecord.addPatientListener(this);
 				editrecord.setVisible(true);
 			}
 		});
@@ -961,7 +863,6 @@ public class AdmittedPatientBrowser extends ModalJFrame implements PatientInsert
 			patient = reloadSelectedPatient(table.getSelectedRow());
 
 			PatientDataBrowser pdb = new PatientDataBrowser(myFrame, patient.getPatient());
-			pdb.addDeleteAdmissionListener(myFrame);
 			pdb.showAsModal(this);
 		});
 		return buttonData;
@@ -1088,7 +989,7 @@ public class AdmittedPatientBrowser extends ModalJFrame implements PatientInsert
 	}
 
 	private void filterPatient(String key) {
-		table.setModel(new AdmittedPatientBrowserModel(key));
+		((AdmittedPatientBrowserModel) table.getModel()).filter(key);
 		rowCounter.setText(MessageBundle.formatMessage("angal.admission.count.fmt.txt", table.getRowCount()));
 		searchString.requestFocus();
 	}
@@ -1151,103 +1052,119 @@ public class AdmittedPatientBrowser extends ModalJFrame implements PatientInsert
 		return c;
 	}
 
-	class AdmittedPatientBrowserModel extends DefaultTableModel {
+	class AdmittedPatientBrowserModel extends EntityTableModel<AdmittedPatient> {
 
 		private static final long serialVersionUID = 1L;
 
-		List<AdmittedPatient> patientList = new ArrayList<>();
+		private String[] tokens = new String[0];
+
+		public AdmittedPatientBrowserModel() {
+			setEntities(pPatient.stream().filter(this::accept).toList());
+		}
+
+		/**
+		 * Shows the patients of {@code pPatient} matching the filters, keeping the selection
+		 *
+		 * @param key the text searched, {@code null} for the last one
+		 */
+		void filter(String key) {
+			String s = key != null ? (key + lastKey).trim() : "";
+			tokens = s.isEmpty() ? new String[0] : s.split(" ");
+			setEntities(pPatient.stream().filter(this::accept).toList(), table);
+		}
 
-		public AdmittedPatientBrowserModel(String key) {
-			for (AdmittedPatient ap : pPatient) {
-				Admission adm = ap.getAdmission();
-				// if not admitted stripes admitted
-				if (patientClassBox.getSelectedItem().equals(patientClassItems[2])) {
-					if (adm != null) {
-						continue;
+		/**
+		 * Updates the row of a patient of {@code pPatient}, added or removed if it now matches the filters or not
+		 */
+		void patientChanged(AdmittedPatient ap) {
+			Integer code = ap.getPatient().getCode();
+			if (!accept(ap)) {
+				remove(code);
+			} else if (update(ap) < 0) {
+				// the rows follow the order of pPatient
+				int position = 0;
+				for (AdmittedPatient elem : pPatient) {
+					if (elem == ap) {
+						break;
 					}
-				}
-				// if admitted stripes not admitted
-				else if (patientClassBox.getSelectedItem().equals(patientClassItems[1])) {
-					if (adm == null) {
-						continue;
+					if (position < getRowCount() && getEntity(position) == elem) {
+						position++;
 					}
 				}
+				insert(position, ap);
+			}
+		}
 
-				// if all or admitted filters not matching ward
-				if (!patientClassBox.getSelectedItem().equals(patientClassItems[2])) {
-					if (adm != null) {
-						int cc = -1;
-						for (int j = 0; j < wardList.size(); j++) {
-							if (adm.getWard().getCode().equalsIgnoreCase(wardList.get(j).getCode())) {
-								cc = j;
-								break;
-							}
-						}
-						if (!wardCheck[cc].isSelected()) {
-							continue;
-						}
-					}
-				}
+		@Override
+		protected Object getId(AdmittedPatient ap) {
+			return ap.getPatient().getCode();
+		}
 
-				// lower age limit
-				String ageLimit = patientAgeFromTextField.getText();
-				if (DIGIT_PATTERN.matcher(ageLimit).matches()) {
-					if (!(ap.getPatient().getAge() >= Integer.parseInt(ageLimit))) {
-						continue;
-					}
+		private boolean accept(AdmittedPatient ap) {
+			Admission adm = ap.getAdmission();
+			// if not admitted stripes admitted
+			if (patientClassBox.getSelectedItem().equals(patientClassItems[2])) {
+				if (adm != null) {
+					return false;
+				}
+			}
+			// if admitted stripes not admitted
+			else if (patientClassBox.getSelectedItem().equals(patientClassItems[1])) {
+				if (adm == null) {
+					return false;
 				}
+			}
 
-				// upper age limit
-				ageLimit = patientAgeToTextField.getText();
-				if (DIGIT_PATTERN.matcher(ageLimit).matches()) {
-					if (!(ap.getPatient().getAge() <= Integer.parseInt(ageLimit))) {
-						continue;
+			// if all or admitted filters not matching ward
+			if (!patientClassBox.getSelectedItem().equals(patientClassItems[2])) {
+				if (adm != null) {
+					int cc = -1;
+					for (int j = 0; j < wardList.size(); j++) {
+						if (adm.getWard().getCode().equalsIgnoreCase(wardList.get(j).getCode())) {
+							cc = j;
+							break;
+						}
+					}
+					if (!wardCheck[cc].isSelected()) {
+						return false;
 					}
 				}
+			}
 
-				// sex patient type
-				Character sex = switch (patientSexBox.getSelectedIndex()) {
-					case 1 -> 'M';
-					case 2 -> 'F';
-					default -> null;
-				};
-
-				if (sex != null && !sex.equals(ap.getPatient().getSex())) {
-					continue;
+			// lower age limit
+			String ageLimit = patientAgeFromTextField.getText();
+			if (DIGIT_PATTERN.matcher(ageLimit).matches()) {
+				if (!(ap.getPatient().getAge() >= Integer.parseInt(ageLimit))) {
+					return false;
 				}
+			}
 
-				if (key != null) {
-					String s = key + lastKey;
-					s = s.trim();
-					String[] tokens = s.split(" ");
-
-					if (!s.isEmpty()) {
-						String name = ap.getPatient().getSearchString();
-						int a = 0;
-						for (String value : tokens) {
-							String token = value.toLowerCase();
-							if (NormalizeString.normalizeContains(name, token)) {
-								a++;
-							}
-						}
-						if (a == tokens.length) {
-							patientList.add(ap);
-						}
-					} else {
-						patientList.add(ap);
-					}
-				} else {
-					patientList.add(ap);
+			// upper age limit
+			ageLimit = patientAgeToTextField.getText();
+			if (DIGIT_PATTERN.matcher(ageLimit).matches()) {
+				if (!(ap.getPatient().getAge() <= Integer.parseInt(ageLimit))) {
+					return false;
 				}
 			}
-		}
 
-		@Override
-		public int getRowCount() {
-			if (patientList == null) {
-				return 0;
+			// sex patient type
+			Character sex = switch (patientSexBox.getSelectedIndex()) {
+				case 1 -> 'M';
+				case 2 -> 'F';
+				default -> null;
+			};
+
+			if (sex != null && !sex.equals(ap.getPatient().getSex())) {
+				return false;
 			}
-			return patientList.size();
+
+			String name = ap.getPatient().getSearchString();
+			for (String value : tokens) {
+				if (!NormalizeString.normalizeContains(name, value.toLowerCase())) {
+					return false;
+				}
+			}
+			return true;
 		}
 
 		@Override
@@ -1261,13 +1178,10 @@ public class AdmittedPatientBrowser extends ModalJFrame implements PatientInsert
 		}
 
 		@Override
-		public Object getValueAt(int r, int c) {
-			AdmittedPatient admPat = patientList.get(r);
+		protected Object getValueAt(AdmittedPatient admPat, int c) {
 			Patient patient = admPat.getPatient();
 			Admission admission = admPat.getAdmission();
-			if (c == -1) {
-				return admPat;
-			} else if (c == 0) {
+			if (c == 0) {
 				return patient.getCode();
 			} else if (c == 1) {
 				return patient.getName();
@@ -1292,11 +1206,6 @@ public class AdmittedPatientBrowser extends ModalJFrame implements PatientInsert
 
 			return null;
 		}
-
-		@Override
-		public boolean isCellEditable(int arg0, int arg1) {
-			return false;
-		}
 	}
 
 	class CenterTableCellRenderer extends DefaultTableCellRenderer {
@@ -65,6 +65,8 @@ import org.isf.patient.gui.PatientInsert;
 import org.isf.patient.gui.PatientInsertExtended.PatientListener;
 import org.isf.patient.gui.PatientSummary;
 import org.isf.patient.model.Patient;
+import org.isf.utils.event.EntityEvent;
+import org.isf.utils.event.GuiEventBus;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.gui.OHServiceExceptionUtil;
 import org.isf.utils.jobjects.MessageDialog;
@@ -102,6 +104,7 @@ public class PatientDataBrowser extends ModalJFrame implements
 		for (EventListener listener : listeners) {
 			((DeleteAdmissionListener) listener).deleteAdmissionUpdated(event);
 		}
+		GuiEventBus.getInstance().publish(EntityEvent.deleted(Admission.class, admission.getId(), admission));
 	}
 	
 	//---------------------------------------------------------------------
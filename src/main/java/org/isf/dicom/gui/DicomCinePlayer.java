@@ -0,0 +1,238 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.dicom.gui;
+
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.Timer;
+
+import org.isf.generaldata.ConfigurationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cine (loop) playback of a multi-frame series.
+ * <p>
+ * Frames are decoded ahead on a background thread into a bounded ring buffer,
+ * while a Swing {@link Timer} presents them on the EDT at the target frame rate.
+ * When decoding falls behind the playhead, late frames are dropped instead of
+ * stalling the presentation.
+ */
+class DicomCinePlayer {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DicomCinePlayer.class);
+
+	private static final String FILE_PROPERTIES = "dicom.properties";
+	private static final String PROPERTY_FPS = "dicom.cine.fps";
+	private static final String PROPERTY_BUFFER = "dicom.cine.buffer";
+	private static final int DEFAULT_FPS = 15;
+	private static final int DEFAULT_BUFFER = 8;
+	private static final int MAX_FPS = 60;
+
+	/**
+	 * Decodes a single frame of the series, called from the decoder thread.
+	 */
+	interface FrameDecoder {
+
+		DicomViewGui.DecodedFrame decode(int index) throws Exception;
+	}
+
+	/**
+	 * Receives the frames to be shown, always called on the EDT.
+	 */
+	interface FrameSink {
+
+		void showFrame(DicomViewGui.DecodedFrame frame);
+
+		void playbackStatus(double achievedFps, long droppedFrames);
+	}
+
+	private final int frameCount;
+	private final int targetFps;
+	private final FrameDecoder decoder;
+	private final FrameSink sink;
+	private final BlockingQueue<Slot> ringBuffer;
+	private final Timer presentationTimer;
+
+	private volatile boolean playing;
+	private volatile long playhead;
+	private volatile Thread decoderThread;
+
+	private long startSequence;
+	private long startNanos;
+	private long lastShownSequence;
+	private long droppedFrames;
+	private int shownInWindow;
+	private long windowStartNanos;
+	private double achievedFps;
+
+	DicomCinePlayer(int frameCount, FrameDecoder decoder, FrameSink sink) {
+		Properties props = ConfigurationProperties.loadPropertiesFile(FILE_PROPERTIES, LOGGER);
+		this.frameCount = frameCount;
+		this.targetFps = Math.min(MAX_FPS, readInt(props, PROPERTY_FPS, DEFAULT_FPS));
+		this.decoder = decoder;
+		this.sink = sink;
+		this.ringBuffer = new ArrayBlockingQueue<>(readInt(props, PROPERTY_BUFFER, DEFAULT_BUFFER));
+		this.presentationTimer = new Timer(1000 / targetFps, e -> presentNextFrame());
+		this.presentationTimer.setCoalesce(true);
+	}
+
+	int getTargetFps() {
+		return targetFps;
+	}
+
+	boolean isPlaying() {
+		return playing;
+	}
+
+	/**
+	 * Start looping from the given frame
+	 *
+	 * @param fromIndex the first frame to show
+	 */
+	void start(int fromIndex) {
+		if (playing || frameCount < 2) {
+			return;
+		}
+		playing = true;
+		ringBuffer.clear();
+		startSequence = fromIndex;
+		playhead = fromIndex;
+		lastShownSequence = fromIndex - 1L;
+		droppedFrames = 0;
+		shownInWindow = 0;
+		achievedFps = 0;
+		startNanos = System.nanoTime();
+		windowStartNanos = startNanos;
+
+		decoderThread = new Thread(this::decodeAhead, "DicomCineDecoder");
+		decoderThread.setDaemon(true);
+		decoderThread.setPriority(Thread.NORM_PRIORITY - 1);
+		decoderThread.start();
+		presentationTimer.start();
+	}
+
+	/**
+	 * Stop playback, returns the index of the last frame shown
+	 */
+	int stop() {
+		if (!playing) {
+			return (int) (Math.max(lastShownSequence, 0) % frameCount);
+		}
+		playing = false;
+		presentationTimer.stop();
+		if (decoderThread != null) {
+			decoderThread.interrupt();
+			decoderThread = null;
+		}
+		ringBuffer.clear();
+		return (int) (Math.max(lastShownSequence, 0) % frameCount);
+	}
+
+	/**
+	 * Decoder loop: stays at most one buffer ahead of the playhead and skips
+	 * frames the playhead has already passed.
+	 */
+	private void decodeAhead() {
+		Thread self = Thread.currentThread();
+		long sequence = startSequence;
+		while (playing && decoderThread == self) {
+			long current = playhead;
+			if (sequence < current) {
+				sequence = current;
+			}
+			try {
+				DicomViewGui.DecodedFrame frame = decoder.decode((int) (sequence % frameCount));
+				while (playing && decoderThread == self && !ringBuffer.offer(new Slot(sequence, frame), 100, TimeUnit.MILLISECONDS)) {
+					// buffer full: wait for the presentation side
+				}
+			} catch (InterruptedException interruptedException) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (Exception exception) {
+				LOGGER.error(exception.getMessage(), exception);
+			}
+			sequence++;
+		}
+	}
+
+	/**
+	 * Presentation tick on the EDT: advance the playhead with wall-clock time,
+	 * drop frames that are already late and show the most recent one available.
+	 */
+	private void presentNextFrame() {
+		if (!playing) {
+			return;
+		}
+		long now = System.nanoTime();
+		long target = startSequence + (now - startNanos) * targetFps / 1_000_000_000L;
+		playhead = target;
+
+		Slot toShow = null;
+		Slot head;
+		while ((head = ringBuffer.peek()) != null && head.sequence <= target) {
+			ringBuffer.poll();
+			toShow = head;
+		}
+		if (toShow != null) {
+			droppedFrames += Math.max(0, toShow.sequence - lastShownSequence - 1);
+			lastShownSequence = toShow.sequence;
+			shownInWindow++;
+			sink.showFrame(toShow.frame);
+		}
+
+		long elapsed = now - windowStartNanos;
+		if (elapsed >= 1_000_000_000L) {
+			achievedFps = shownInWindow * 1_000_000_000d / elapsed;
+			shownInWindow = 0;
+			windowStartNanos = now;
+			sink.playbackStatus(achievedFps, droppedFrames);
+		}
+	}
+
+	private static int readInt(Properties props, String key, int defaultValue) {
+		if (props == null || props.getProperty(key) == null) {
+			return defaultValue;
+		}
+		try {
+			int value = Integer.parseInt(props.getProperty(key).trim());
+			return value > 0 ? value : defaultValue;
+		} catch (NumberFormatException numberFormatException) {
+			LOGGER.warn("Invalid value for {} in {}, using {}", key, FILE_PROPERTIES, defaultValue);
+			return defaultValue;
+		}
+	}
+
+	private static final class Slot {
+
+		private final long sequence;
+		private final DicomViewGui.DecodedFrame frame;
+
+		private Slot(long sequence, DicomViewGui.DecodedFrame frame) {
+			this.sequence = sequence;
+			this.frame = frame;
+		}
+	}
+}
@@ -375,6 +375,7 @@ public class DicomGui extends ModalJFrame implements WindowListener {
 	 */
 	@Override
 	public void windowClosed(WindowEvent e) {
+		((DicomViewGui) jPanelDetail).stopCine();
 		this.setVisible(false);
 		this.dispose();
 	}
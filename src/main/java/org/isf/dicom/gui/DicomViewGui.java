@@ -48,6 +48,7 @@ import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JSlider;
+import javax.swing.JToggleButton;
 import javax.swing.border.TitledBorder;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
@@ -97,6 +98,9 @@ public class DicomViewGui extends JPanel {
 	private JPanel jPanelCenter;
 	private JSlider jSliderZoom;
 	private JSlider jSliderFrame;
+	private JToggleButton jToggleCine;
+	private JLabel jLabelCineFps;
+	private DicomCinePlayer cinePlayer;
 	
 	// GUI parameters
 	private int x = -1;
@@ -143,6 +147,7 @@ public class DicomViewGui extends JPanel {
 
 	public void notifyChanges(Patient patient, String serieNumber) {
 
+		stopCine();
 		this.patID = patient.getCode();
 		this.ohPatient = patient;
 		this.serieNumber = serieNumber;
@@ -181,6 +186,15 @@ public class DicomViewGui extends JPanel {
 		jSliderZoom = new JSlider(50, 300, 100);
 		jSliderFrame.addChangeListener(new FrameListener());
 		jSliderZoom.addChangeListener(new ZoomListener());
+		jToggleCine = new JToggleButton(MessageBundle.getMessage("angal.dicomview.cine.btn"));
+		jToggleCine.addActionListener(actionEvent -> {
+			if (jToggleCine.isSelected()) {
+				startCine();
+			} else {
+				stopCine();
+			}
+		});
+		jLabelCineFps = new JLabel(" ");
 		jPanelHeader.setBackground(Color.BLACK);
 
 		if (patID <= 0) {
@@ -188,6 +202,7 @@ public class DicomViewGui extends JPanel {
 			jPanelCenter = new JPanel();
 			jSliderFrame.setEnabled(false);
 			jSliderZoom.setEnabled(false);
+			jToggleCine.setEnabled(false);
 		} else {
 			jSliderZoom.setEnabled(true);
 			jSliderZoom.setPaintTicks(true);
@@ -198,8 +213,10 @@ public class DicomViewGui extends JPanel {
 				jSliderFrame.setEnabled(true);
 				jSliderFrame.setPaintTicks(true);
 				jSliderFrame.setMajorTickSpacing(1);
+				jToggleCine.setEnabled(true);
 			} else {
 				jSliderFrame.setEnabled(false);
+				jToggleCine.setEnabled(false);
 			}
 
 			jPanelCenter = new JPanel();
@@ -222,6 +239,13 @@ public class DicomViewGui extends JPanel {
 		fp2.add(Box.createRigidArea(new Dimension(5, 5)));
 		fp2.add(jSliderFrame);
 		fp2.add(Box.createRigidArea(new Dimension(5, 5)));
+		JPanel cinePanel = new JPanel();
+		cinePanel.setLayout(new BoxLayout(cinePanel, BoxLayout.X_AXIS));
+		cinePanel.add(jToggleCine);
+		cinePanel.add(Box.createRigidArea(new Dimension(10, 5)));
+		cinePanel.add(jLabelCineFps);
+		fp2.add(cinePanel);
+		fp2.add(Box.createRigidArea(new Dimension(5, 5)));
 		jPanelFooter.add(fp1);
 		jPanelFooter.add(fp2);
 		setLayout(new BorderLayout());
@@ -235,6 +259,7 @@ public class DicomViewGui extends JPanel {
 			jPanelCenter = new JPanel();
 			jSliderFrame.setEnabled(false);
 			jSliderZoom.setEnabled(false);
+			jToggleCine.setEnabled(false);
 		} else {
 			// reset mouse relative position
 			resetMouseRelativePosition();
@@ -248,8 +273,10 @@ public class DicomViewGui extends JPanel {
 				jSliderFrame.setEnabled(true);
 				jSliderFrame.setPaintTicks(true);
 				jSliderFrame.setMajorTickSpacing(1);
+				jToggleCine.setEnabled(true);
 			} else {
 				jSliderFrame.setEnabled(false);
+				jToggleCine.setEnabled(false);
 			}
 
 			jPanelCenter.removeAll();
@@ -452,37 +479,57 @@ public class DicomViewGui extends JPanel {
 	 * Load actual frame from storage
 	 */
 	private void refreshFrame() {
-		Long id = frames[frameIndex];
 		try {
-			tmpDbFile = DicomManagerFactory.getManager().loadDetails(id, patID, serieNumber);
-			String fileType = tmpDbFile.getFileName().substring(tmpDbFile.getFileName().lastIndexOf('.')+1);
-			if (fileType.equalsIgnoreCase("jpg") || fileType.equalsIgnoreCase("jpeg")) {
-				getImageFromJPG(tmpDbFile);
-			} else if (fileType.equalsIgnoreCase("dcm")) {
-				getImageFromDicom(tmpDbFile);
-			}
+			applyFrame(decodeFrame(frameIndex));
 		} catch(OHServiceException ohServiceException) {
 			MessageDialog.showExceptions(ohServiceException);
 		}
 	}
+
+	/**
+	 * Load and decode a frame from storage without touching the current view state,
+	 * so that it can also be called from the cine decoder thread.
+	 *
+	 * @param index the frame index in the series
+	 * @return the decoded frame
+	 * @throws OHServiceException
+	 */
+	DecodedFrame decodeFrame(int index) throws OHServiceException {
+		FileDicom dbFile = DicomManagerFactory.getManager().loadDetails(frames[index], patID, serieNumber);
+		String fileType = dbFile.getFileName().substring(dbFile.getFileName().lastIndexOf('.')+1);
+		DecodedFrame frame = new DecodedFrame(index, dbFile);
+		if (fileType.equalsIgnoreCase("jpg") || fileType.equalsIgnoreCase("jpeg")) {
+			getImageFromJPG(frame);
+		} else if (fileType.equalsIgnoreCase("dcm")) {
+			getImageFromDicom(frame);
+		}
+		return frame;
+	}
+
+	private void applyFrame(DecodedFrame frame) {
+		frameIndex = frame.index;
+		tmpDbFile = frame.dbFile;
+		tmpImg = frame.image;
+		attributes = frame.attributes;
+	}
 	
 	/**
 	 * Get the BufferedImage from JPG/JPEG object
 	 * 
-	 * @param dett
+	 * @param frame
 	 */
-	private void getImageFromJPG(FileDicom dett) {
+	private void getImageFromJPG(DecodedFrame frame) {
+		FileDicom dett = frame.dbFile;
 		try {
-			tmpImg = null;
 			ImageInputStream imageInputStream = ImageIO.createImageInputStream(dett.getDicomData().getData().getBinaryStream());
 			try {
-				tmpImg = ImageIO.read(imageInputStream);
+				frame.image = ImageIO.read(imageInputStream);
 			} catch (IOException ioException) {
 				throw new OHDicomException(
 						new OHExceptionMessage(MessageBundle.formatMessage("angal.dicom.thefileisnotindicomformat.fmt.msg", dett.getFileName())));
 			}
 			//imageInputStream.close();
-			this.attributes = null;
+			frame.attributes = null;
 		} catch (Exception exception) {
 			LOGGER.error(exception.getMessage(), exception);
 		}
@@ -491,13 +538,13 @@ public class DicomViewGui extends JPanel {
 	/**
 	 * Get the BufferedImage from DICOM object
 	 * 
-	 * @param dett
+	 * @param frame
 	 */
-	private void getImageFromDicom(FileDicom dett) {
+	private void getImageFromDicom(DecodedFrame frame) {
+		FileDicom dett = frame.dbFile;
 		ImageInputStream imageInputStream = null;
 		DicomInputStream dicomInputStream = null;
 		try {
-			tmpImg = null;
 			Iterator<?> iter = ImageIO.getImageReadersByFormatName("DICOM");
 			ImageReader reader = (ImageReader) iter.next();
 			DicomImageReadParam param = (DicomImageReadParam) reader.getDefaultReadParam();
@@ -505,13 +552,13 @@ public class DicomViewGui extends JPanel {
 			reader.setInput(imageInputStream, false);
 
 			try {
-				tmpImg = reader.read(0, param);
+				frame.image = reader.read(0, param);
 			} catch (IOException ioException) {
 				throw new OHDicomException(
 						new OHExceptionMessage(MessageBundle.formatMessage("angal.dicom.thefileisnotindicomformat.fmt.msg", dett.getFileName())));
 			}
 			dicomInputStream = new DicomInputStream(dett.getDicomData().getData().getBinaryStream());
-			this.attributes = dicomInputStream.readDataset();
+			frame.attributes = dicomInputStream.readDataset();
 		} catch (Exception exception) {
 			LOGGER.error(exception.getMessage(), exception);
 		} finally {
@@ -550,6 +597,68 @@ public class DicomViewGui extends JPanel {
 		validate();
 	}
 
+	private void startCine() {
+		if (frames.length < 2) {
+			jToggleCine.setSelected(false);
+			return;
+		}
+		cinePlayer = new DicomCinePlayer(frames.length, this::decodeFrame, new CineSink());
+		jSliderFrame.setEnabled(false);
+		jLabelCineFps.setText(MessageBundle.formatMessage("angal.dicomview.cinefps.fmt.txt", 0, cinePlayer.getTargetFps()));
+		cinePlayer.start((frameIndex + 1) % frames.length);
+	}
+
+	void stopCine() {
+		if (cinePlayer == null) {
+			return;
+		}
+		cinePlayer.stop();
+		cinePlayer = null;
+		jToggleCine.setSelected(false);
+		jSliderFrame.setEnabled(frames.length > 1);
+		jSliderFrame.setValue(frameIndex);
+		jLabelCineFps.setText(" ");
+	}
+
+	/**
+	 * Decoded frame of the series with its storage details and DICOM attributes
+	 */
+	static final class DecodedFrame {
+
+		private final int index;
+		private final FileDicom dbFile;
+		private BufferedImage image;
+		private Attributes attributes;
+
+		private DecodedFrame(int index, FileDicom dbFile) {
+			this.index = index;
+			this.dbFile = dbFile;
+		}
+	}
+
+	class CineSink implements DicomCinePlayer.FrameSink {
+
+		@Override
+		public void showFrame(DecodedFrame frame) {
+			if (cinePlayer == null || frame.image == null) {
+				return;
+			}
+			applyFrame(frame);
+			jPanelCenter.removeAll();
+			jPanelCenter.add(composeCenter(jPanelCenter.getWidth(), jPanelCenter.getHeight(), false));
+			validate();
+		}
+
+		@Override
+		public void playbackStatus(double achievedFps, long droppedFrames) {
+			if (cinePlayer == null) {
+				return;
+			}
+			jLabelCineFps.setText(MessageBundle.formatMessage("angal.dicomview.cinefps.fmt.txt", Math.round(achievedFps), cinePlayer.getTargetFps()));
+			jLabelCineFps.setToolTipText(MessageBundle.formatMessage("angal.dicomview.cinedropped.fmt.txt", droppedFrames));
+		}
+	}
+
 	class ZoomListener implements ChangeListener {
 
 		public ZoomListener() {
@@ -693,6 +802,7 @@ public class DicomViewGui extends JPanel {
 	}
 
 	public void clear() {
+		stopCine();
 		jPanelCenter.removeAll();
 		jPanelCenter.repaint();
 		
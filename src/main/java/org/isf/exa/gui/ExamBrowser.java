@@ -81,6 +81,7 @@ public class ExamBrowser extends ModalJFrame implements ExamListener {
 	private JPanel jContentPanel;
 	private JPanel buttonPanel;
 	private ExamBrowsingManager examBrowsingManager = Context.getApplicationContext().getBean(ExamBrowsingManager.class);
+	private ExamCatalogue examCatalogue = Context.getApplicationContext().getBean(ExamCatalogue.class);
 
 	public ExamBrowser() {
 		myFrame = this;
@@ -176,6 +177,7 @@ public class ExamBrowser extends ModalJFrame implements ExamListener {
 				boolean deleted = false;
 				try {
 					examBrowsingManager.deleteExam(examToDelete);
+					examCatalogue.invalidate();
 					deleted = true;
 				} catch (OHServiceException e1) {
 					OHServiceExceptionUtil.showMessages(e1);
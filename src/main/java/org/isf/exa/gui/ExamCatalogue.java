@@ -0,0 +1,111 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.exa.gui;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.isf.exa.manager.ExamBrowsingManager;
+import org.isf.exa.manager.ExamRowBrowsingManager;
+import org.isf.exa.model.Exam;
+import org.isf.exa.model.ExamRow;
+import org.isf.utils.exception.OHServiceException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exams and their possible results, shared by the laboratory entry screens.
+ * <p>
+ * The whole catalogue is read in one go (all the exams and all the exam rows) the first time it is needed and then
+ * served from memory, with the rows indexed by exam code. The exam editing dialogs must call {@link #invalidate()}
+ * after any change, so that the next request reads the catalogue again.
+ */
+@Component
+public class ExamCatalogue {
+
+	private final ExamBrowsingManager examBrowsingManager;
+	private final ExamRowBrowsingManager examRowBrowsingManager;
+
+	private volatile Snapshot snapshot;
+
+	public ExamCatalogue(ExamBrowsingManager examBrowsingManager, ExamRowBrowsingManager examRowBrowsingManager) {
+		this.examBrowsingManager = examBrowsingManager;
+		this.examRowBrowsingManager = examRowBrowsingManager;
+	}
+
+	/**
+	 * @return all the exams, as {@link ExamBrowsingManager#getExams()}
+	 * @throws OHServiceException
+	 */
+	public List<Exam> getExams() throws OHServiceException {
+		return new ArrayList<>(getSnapshot().exams);
+	}
+
+	/**
+	 * @param examCode the exam code
+	 * @return the possible results of the exam, as {@link ExamRowBrowsingManager#getExamRowByExamCode(String)}
+	 * @throws OHServiceException
+	 */
+	public List<ExamRow> getExamRowByExamCode(String examCode) throws OHServiceException {
+		List<ExamRow> rows = getSnapshot().rowsByExam.get(examCode);
+		return rows == null ? new ArrayList<>() : new ArrayList<>(rows);
+	}
+
+	/**
+	 * Drops the catalogue, to be called after an exam or an exam row is added, changed or deleted
+	 */
+	public synchronized void invalidate() {
+		snapshot = null;
+	}
+
+	private Snapshot getSnapshot() throws OHServiceException {
+		Snapshot current = snapshot;
+		if (current == null) {
+			synchronized (this) {
+				current = snapshot;
+				if (current == null) {
+					current = new Snapshot(examBrowsingManager.getExams(), examRowBrowsingManager.getExamRow());
+					snapshot = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	private static final class Snapshot {
+
+		private final List<Exam> exams;
+		private final Map<String, List<ExamRow>> rowsByExam = new HashMap<>();
+
+		private Snapshot(List<Exam> exams, List<ExamRow> examRows) {
+			this.exams = exams != null ? exams : new ArrayList<>();
+			if (examRows != null) {
+				for (ExamRow examRow : examRows) {
+					if (examRow.getExamCode() != null) {
+						rowsByExam.computeIfAbsent(examRow.getExamCode().getCode(), code -> new ArrayList<>()).add(examRow);
+					}
+				}
+			}
+		}
+	}
+}
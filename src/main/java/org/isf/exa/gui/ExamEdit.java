@@ -110,6 +110,7 @@ public class ExamEdit extends JDialog {
 	private boolean insert;
 	
 	private ExamBrowsingManager examBrowsingManager = Context.getApplicationContext().getBean(ExamBrowsingManager.class);
+	private ExamCatalogue examCatalogue = Context.getApplicationContext().getBean(ExamCatalogue.class);
     
 	/**
 	 * This is the default constructor; we pass the arraylist and the selectedrow
@@ -249,6 +250,7 @@ public class ExamEdit extends JDialog {
 						}
 						try {
 							examBrowsingManager.newExam(exam);
+							examCatalogue.invalidate();
 							fireExamInserted();
 						} catch (OHServiceException e1) {
 							OHServiceExceptionUtil.showMessages(e1);
@@ -257,6 +259,7 @@ public class ExamEdit extends JDialog {
 					} else {
 						try {
 							examBrowsingManager.updateExam(exam);
+							examCatalogue.invalidate();
 							fireExamUpdated();
 						} catch (OHServiceException e1) {
 							OHServiceExceptionUtil.showMessages(e1);
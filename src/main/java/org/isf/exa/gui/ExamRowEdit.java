@@ -78,6 +78,7 @@ public class ExamRowEdit extends JDialog {
 	}
 
 	private ExamRowBrowsingManager examRowBrowsingManager = Context.getApplicationContext().getBean(ExamRowBrowsingManager.class);
+	private ExamCatalogue examCatalogue = Context.getApplicationContext().getBean(ExamCatalogue.class);
 
 	private JPanel jContentPane;
 	private JPanel dataPanel;
@@ -189,6 +190,7 @@ public class ExamRowEdit extends JDialog {
 
 				try {
 					ExamRow insertedExamRow = examRowBrowsingManager.newExamRow(examRow);
+					examCatalogue.invalidate();
 					if (insertedExamRow != null) {
 						fireExamRowInserted();
 						dispose();
@@ -55,6 +55,7 @@ public class ExamShow extends JDialog implements ExamRowListener {
 	private static final long serialVersionUID = 1L;
 
 	private ExamRowBrowsingManager examRowBrowsingManager = Context.getApplicationContext().getBean(ExamRowBrowsingManager.class);
+	private ExamCatalogue examCatalogue = Context.getApplicationContext().getBean(ExamCatalogue.class);
 
 	private JPanel jContentPane;
 	private JPanel dataPanel;
@@ -164,6 +165,7 @@ public class ExamShow extends JDialog implements ExamRowListener {
 					if (answer == JOptionPane.YES_OPTION) {
 						try {
 							examRowBrowsingManager.deleteExamRow(row);
+							examCatalogue.invalidate();
 							examRowDeleted();
 						} catch (OHServiceException e1) {
 							OHServiceExceptionUtil.showMessages(e1);
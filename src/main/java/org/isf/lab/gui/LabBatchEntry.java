@@ -0,0 +1,476 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.lab.gui;
+
+import static org.isf.utils.Constants.DATE_TIME_FORMATTER;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EventListener;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import javax.swing.DefaultCellEditor;
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.WindowConstants;
+import javax.swing.event.EventListenerList;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.DefaultTableModel;
+
+import org.isf.exa.gui.ExamCatalogue;
+import org.isf.exa.model.Exam;
+import org.isf.exa.model.ExamRow;
+import org.isf.generaldata.MessageBundle;
+import org.isf.lab.gui.LabEdit.LabEditListener;
+import org.isf.lab.manager.LabManager;
+import org.isf.lab.model.Laboratory;
+import org.isf.lab.model.LaboratoryStatus;
+import org.isf.menu.manager.Context;
+import org.isf.utils.exception.OHServiceException;
+import org.isf.utils.exception.gui.OHServiceExceptionUtil;
+import org.isf.utils.jobjects.MessageDialog;
+import org.isf.utils.jobjects.ModalJFrame;
+
+/**
+ * LabBatchEntry - worklist of the pending samples of an exam, to enter many results in a row from the keyboard.
+ * <p>
+ * Typing a result and pressing Enter moves to the next sample. Each result is validated in background against the
+ * exam possible results and then queued to a {@link LabResultBatchWriter}, which saves them in batches while the
+ * technician goes on. The status bar shows the results saved per minute.
+ */
+public class LabBatchEntry extends ModalJFrame implements LabResultBatchWriter.Listener {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int THROUGHPUT_WINDOW_MS = 5 * 60 * 1000;
+	private static final int STATUS_REFRESH_MS = 1000;
+
+	private static final int COLUMN_DATE = 0;
+	private static final int COLUMN_PATIENT = 1;
+	private static final int COLUMN_RESULT = 2;
+	private static final int COLUMN_STATUS = 3;
+
+	enum RowState {
+		PENDING, QUEUED, SAVED, INVALID, ERROR
+	}
+
+	private final LabManager labManager = Context.getApplicationContext().getBean(LabManager.class);
+	private final ExamCatalogue examCatalogue = Context.getApplicationContext().getBean(ExamCatalogue.class);
+
+	private final Exam exam;
+	private final List<Laboratory> labs = new ArrayList<>();
+	// the results shown, the exams being changed by the writer only
+	private final List<String> results = new ArrayList<>();
+	private final List<RowState> states = new ArrayList<>();
+	// the results entered and not validated yet, by exam
+	private final Map<Laboratory, String> validating = new IdentityHashMap<>();
+	private final LabResultBatchWriter writer = new LabResultBatchWriter(labManager, this);
+	private final Deque<Long> savedTimes = new ArrayDeque<>();
+	private final long openedAt = System.currentTimeMillis();
+	private final Timer statusTimer;
+	private final EventListenerList labEditListener = new EventListenerList();
+
+	private final String[] columns = {
+			MessageBundle.getMessage("angal.common.date.txt").toUpperCase(),
+			MessageBundle.getMessage("angal.common.patient.txt").toUpperCase(),
+			MessageBundle.getMessage("angal.common.result.txt").toUpperCase(),
+			MessageBundle.getMessage("angal.lab.batchentry.status.txt").toUpperCase()
+	};
+
+	private JTable table;
+	private BatchTableModel model;
+	private JLabel statusLabel;
+	private CompletableFuture<Set<String>> allowedResults;
+	private int saved;
+	private int errors;
+
+	/**
+	 * @param exam the exam of the samples, with a single result (procedure 1 or 3)
+	 * @param dateFrom first day of the samples
+	 * @param dateTo last day of the samples
+	 */
+	public LabBatchEntry(Exam exam, LocalDate dateFrom, LocalDate dateTo) {
+		super();
+		this.exam = exam;
+		setTitle(MessageBundle.formatMessage("angal.lab.batchentry.title.fmt", exam.getDescription()));
+		setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+		addWindowListener(new WindowAdapter() {
+
+			@Override
+			public void windowClosing(WindowEvent e) {
+				close();
+			}
+		});
+
+		allowedResults = CompletableFuture.supplyAsync(this::loadAllowedResults);
+
+		getContentPane().setLayout(new BorderLayout());
+		getContentPane().add(new JScrollPane(getTable()), BorderLayout.CENTER);
+		getContentPane().add(getSouthPanel(), BorderLayout.SOUTH);
+		setSize(new Dimension(900, 600));
+		setLocationRelativeTo(null);
+
+		statusTimer = new Timer(STATUS_REFRESH_MS, actionEvent -> updateStatus());
+		statusTimer.start();
+
+		loadPendingSamples(dateFrom, dateTo);
+	}
+
+	/**
+	 * @param l notified with {@link LabEditListener#labUpdated()} when the worklist is closed
+	 */
+	public void addLabEditListener(LabEditListener l) {
+		labEditListener.add(LabEditListener.class, l);
+	}
+
+	/**
+	 * @param exam the exam
+	 * @return {@code true} if the results of the exam can be entered in batch
+	 */
+	public static boolean isBatchable(Exam exam) {
+		return exam != null && exam.getCode() != null && !exam.getCode().isEmpty() && (exam.getProcedure() == 1 || exam.getProcedure() == 3);
+	}
+
+	private void loadPendingSamples(LocalDate dateFrom, LocalDate dateTo) {
+		CompletableFuture.<List<Laboratory>> supplyAsync(() -> {
+			try {
+				return labManager.getLaboratory(exam.toString(), dateFrom.atStartOfDay(), dateTo.atStartOfDay());
+			} catch (OHServiceException e) {
+				throw new CompletionException(e);
+			}
+		}).whenComplete((found, throwable) -> SwingUtilities.invokeLater(() -> {
+			if (throwable != null) {
+				if (throwable.getCause() instanceof OHServiceException) {
+					OHServiceExceptionUtil.showMessages((OHServiceException) throwable.getCause(), this);
+				}
+				return;
+			}
+			for (Laboratory lab : found) {
+				if (isPending(lab)) {
+					labs.add(lab);
+					results.add(lab.getResult());
+					states.add(RowState.PENDING);
+				}
+			}
+			model.fireTableDataChanged();
+			if (labs.isEmpty()) {
+				MessageDialog.info(this, "angal.lab.batchentry.nopendingsamples.msg");
+			} else {
+				editResult(0);
+			}
+		}));
+	}
+
+	private boolean isPending(Laboratory lab) {
+		if (lab.getExam() == null || !exam.getCode().equals(lab.getExam().getCode())) {
+			return false;
+		}
+		if (LaboratoryStatus.done.toString().equals(lab.getStatus()) || LaboratoryStatus.deleted.toString().equals(lab.getStatus())) {
+			return false;
+		}
+		return lab.getResult() == null || lab.getResult().isBlank() || lab.getResult().equals(exam.getDefaultResult());
+	}
+
+	private Set<String> loadAllowedResults() {
+		Set<String> allowed = new HashSet<>();
+		if (exam.getProcedure() == 1) {
+			try {
+				for (ExamRow examRow : examCatalogue.getExamRowByExamCode(exam.getCode())) {
+					allowed.add(examRow.getDescription());
+				}
+			} catch (OHServiceException e) {
+				throw new CompletionException(e);
+			}
+			if (exam.getDefaultResult() != null && !exam.getDefaultResult().isEmpty()) {
+				allowed.add(exam.getDefaultResult());
+			}
+		}
+		return allowed;
+	}
+
+	private JTable getTable() {
+		if (table == null) {
+			model = new BatchTableModel();
+			table = new JTable(model);
+			table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+			table.setSurrendersFocusOnKeystroke(true);
+			table.putClientProperty("terminateEditOnFocusLost", Boolean.TRUE);
+			table.getColumnModel().getColumn(COLUMN_DATE).setMaxWidth(150);
+			table.getColumnModel().getColumn(COLUMN_STATUS).setMaxWidth(120);
+			table.getColumnModel().getColumn(COLUMN_STATUS).setCellRenderer(new StatusRenderer());
+			if (exam.getProcedure() == 1) {
+				JComboBox<String> resultBox = new JComboBox<>();
+				allowedResults.thenAccept(allowed -> SwingUtilities.invokeLater(() -> allowed.stream().sorted().forEach(resultBox::addItem)));
+				table.getColumnModel().getColumn(COLUMN_RESULT).setCellEditor(new DefaultCellEditor(resultBox));
+			} else {
+				table.getColumnModel().getColumn(COLUMN_RESULT).setCellEditor(new DefaultCellEditor(new JTextField()));
+			}
+		}
+		return table;
+	}
+
+	private JPanel getSouthPanel() {
+		JPanel southPanel = new JPanel(new BorderLayout());
+		statusLabel = new JLabel(" ");
+		southPanel.add(statusLabel, BorderLayout.CENTER);
+		JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+		JButton closeButton = new JButton(MessageBundle.getMessage("angal.common.close.btn"));
+		closeButton.setMnemonic(MessageBundle.getMnemonic("angal.common.close.btn.key"));
+		closeButton.addActionListener(actionEvent -> close());
+		buttonPanel.add(closeButton);
+		southPanel.add(buttonPanel, BorderLayout.EAST);
+		return southPanel;
+	}
+
+	private void editResult(int row) {
+		if (row < 0 || row >= labs.size()) {
+			return;
+		}
+		table.setRowSelectionInterval(row, row);
+		table.scrollRectToVisible(table.getCellRect(row, COLUMN_RESULT, true));
+		if (table.editCellAt(row, COLUMN_RESULT)) {
+			Component editor = table.getEditorComponent();
+			if (editor != null) {
+				editor.requestFocusInWindow();
+			}
+		}
+	}
+
+	/*
+	 * Validation waits in background while the possible results are still loading, and is immediate afterwards
+	 */
+	private void resultEntered(int row, String result) {
+		Laboratory lab = labs.get(row);
+		validating.put(lab, result);
+		if (allowedResults.isDone()) {
+			validated(lab, result, isValid(result, getAllowedResults()));
+			return;
+		}
+		allowedResults.thenApply(allowed -> isValid(result, allowed))
+						.exceptionally(throwable -> Boolean.FALSE)
+						.thenAccept(valid -> SwingUtilities.invokeLater(() -> {
+							if (!result.equals(validating.get(lab))) {
+								// changed again meanwhile, or already validated by close()
+								return;
+							}
+							validated(lab, result, valid);
+						}));
+	}
+
+	private void validated(Laboratory lab, String result, boolean valid) {
+		validating.remove(lab);
+		if (valid) {
+			setState(lab, RowState.QUEUED);
+			writer.submit(lab, result);
+		} else {
+			setState(lab, RowState.INVALID);
+		}
+	}
+
+	/*
+	 * @return the possible results once loaded, none if they could not be loaded
+	 */
+	private Set<String> getAllowedResults() {
+		return allowedResults.exceptionally(throwable -> new HashSet<>()).join();
+	}
+
+	private boolean isValid(String result, Set<String> allowed) {
+		if (result == null || result.isBlank()) {
+			return false;
+		}
+		return exam.getProcedure() != 1 || allowed.contains(result);
+	}
+
+	private void setState(Laboratory lab, RowState state) {
+		for (int row = 0; row < labs.size(); row++) {
+			if (labs.get(row) == lab) {
+				states.set(row, state);
+				model.fireTableCellUpdated(row, COLUMN_STATUS);
+				return;
+			}
+		}
+	}
+
+	@Override
+	public void resultSaved(Laboratory lab) {
+		saved++;
+		savedTimes.addLast(System.currentTimeMillis());
+		setState(lab, RowState.SAVED);
+		updateStatus();
+	}
+
+	@Override
+	public void resultFailed(Laboratory lab, OHServiceException exception) {
+		errors++;
+		setState(lab, RowState.ERROR);
+		OHServiceExceptionUtil.showMessages(exception, this);
+		updateStatus();
+	}
+
+	private void updateStatus() {
+		long now = System.currentTimeMillis();
+		while (!savedTimes.isEmpty() && now - savedTimes.peekFirst() > THROUGHPUT_WINDOW_MS) {
+			savedTimes.removeFirst();
+		}
+		long window = Math.max(1, Math.min(THROUGHPUT_WINDOW_MS, now - openedAt));
+		double perMinute = savedTimes.size() * 60_000d / window;
+		statusLabel.setText(MessageBundle.formatMessage("angal.lab.batchentry.throughput.fmt.txt",
+						saved, writer.getQueued(), errors, String.format("%.1f", perMinute)));
+	}
+
+	private void close() {
+		if (!isDisplayable()) {
+			// closed meanwhile
+			return;
+		}
+		if (table.isEditing()) {
+			table.getCellEditor().stopCellEditing();
+		}
+		if (!validating.isEmpty()) {
+			if (!allowedResults.isDone()) {
+				// the results just entered are counted once they can be validated
+				allowedResults.handle((allowed, throwable) -> null).thenRun(() -> SwingUtilities.invokeLater(this::close));
+				return;
+			}
+			Set<String> allowed = getAllowedResults();
+			for (Map.Entry<Laboratory, String> entry : new ArrayList<>(validating.entrySet())) {
+				validated(entry.getKey(), entry.getValue(), isValid(entry.getValue(), allowed));
+			}
+		}
+		if (writer.getQueued() > 0) {
+			int answer = MessageDialog.yesNo(this, "angal.lab.batchentry.savequeuedresults.fmt.msg", writer.getQueued());
+			if (answer != JOptionPane.YES_OPTION) {
+				return;
+			}
+		}
+		statusTimer.stop();
+		// the listeners reload the exams: notified once the queued results are written
+		writer.close(() -> {
+			for (EventListener listener : labEditListener.getListeners(LabEditListener.class)) {
+				((LabEditListener) listener).labUpdated();
+			}
+		});
+		dispose();
+	}
+
+	class BatchTableModel extends DefaultTableModel {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public int getRowCount() {
+			return labs == null ? 0 : labs.size();
+		}
+
+		@Override
+		public int getColumnCount() {
+			return columns.length;
+		}
+
+		@Override
+		public String getColumnName(int c) {
+			return columns[c];
+		}
+
+		@Override
+		public Object getValueAt(int r, int c) {
+			Laboratory lab = labs.get(r);
+			if (c == -1) {
+				return lab;
+			} else if (c == COLUMN_DATE) {
+				return lab.getLabDate().format(DATE_TIME_FORMATTER);
+			} else if (c == COLUMN_PATIENT) {
+				return lab.getPatName();
+			} else if (c == COLUMN_RESULT) {
+				return results.get(r);
+			} else if (c == COLUMN_STATUS) {
+				return MessageBundle.getMessage("angal.lab.batchentry." + states.get(r).name().toLowerCase() + ".txt");
+			}
+			return null;
+		}
+
+		@Override
+		public boolean isCellEditable(int r, int c) {
+			return c == COLUMN_RESULT;
+		}
+
+		@Override
+		public void setValueAt(Object value, int r, int c) {
+			if (c != COLUMN_RESULT || value == null) {
+				return;
+			}
+			String result = value.toString().trim();
+			if (result.equals(results.get(r)) && states.get(r) != RowState.PENDING && states.get(r) != RowState.INVALID) {
+				SwingUtilities.invokeLater(() -> editResult(r + 1));
+				return;
+			}
+			results.set(r, result);
+			fireTableCellUpdated(r, c);
+			resultEntered(r, result);
+			SwingUtilities.invokeLater(() -> editResult(r + 1));
+		}
+	}
+
+	private class StatusRenderer extends DefaultTableCellRenderer {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+			Component cell = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+			RowState state = states.get(row);
+			if (state == RowState.INVALID || state == RowState.ERROR) {
+				cell.setForeground(Color.RED);
+			} else if (state == RowState.SAVED) {
+				cell.setForeground(new Color(0, 128, 0));
+			} else {
+				cell.setForeground(Color.BLACK);
+			}
+			return cell;
+		}
+	}
+}
@@ -42,7 +42,7 @@ import javax.swing.SpringLayout;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableColumnModel;
 
-import org.isf.exa.manager.ExamBrowsingManager;
+import org.isf.exa.gui.ExamCatalogue;
 import org.isf.exa.model.Exam;
 import org.isf.exatype.model.ExamType;
 import org.isf.generaldata.GeneralData;
@@ -88,6 +88,7 @@ public class LabBrowser extends ModalJFrame implements LabListener, LabEditListe
 	private JPanel jButtonPanel;
 	private JButton buttonEdit;
 	private JButton buttonNew;
+	private JButton buttonBatchEntry;
 	private JButton buttonDelete;
 	private JButton buttonClose;
 	private JButton printTableButton;
@@ -109,7 +110,7 @@ public class LabBrowser extends ModalJFrame implements LabListener, LabEditListe
 	private boolean[] columnsVisible = { true, GeneralData.LABEXTENDED, true, true};
 	private LabManager labManager = Context.getApplicationContext().getBean(LabManager.class);
 	private PrintManager printManager = Context.getApplicationContext().getBean(PrintManager.class);
-	private ExamBrowsingManager examBrowsingManager = Context.getApplicationContext().getBean(ExamBrowsingManager.class);
+	private ExamCatalogue examCatalogue = Context.getApplicationContext().getBean(ExamCatalogue.class);
 	private LabBrowsingModel model;
 	private Laboratory laboratory;
 	private int selectedrow;
@@ -165,6 +166,7 @@ public class LabBrowser extends ModalJFrame implements LabListener, LabEditListe
 			}
 			if (MainMenu.checkUserGrants("btnlaboratoryedit")) {
 				jButtonPanel.add(getButtonEdit(), null);
+				jButtonPanel.add(getButtonBatchEntry(), null);
 			}
 			if (MainMenu.checkUserGrants("btnlaboratorydel")) {
 				jButtonPanel.add(getButtonDelete(), null);
@@ -265,6 +267,33 @@ public class LabBrowser extends ModalJFrame implements LabListener, LabEditListe
 		return buttonEdit;
 	}
 
+	/**
+	 * This method initializes buttonBatchEntry, that opens the results worklist of the selected exam
+	 *
+	 * @return buttonBatchEntry (JButton)
+	 */
+	private JButton getButtonBatchEntry() {
+		if (buttonBatchEntry == null) {
+			buttonBatchEntry = new JButton(MessageBundle.getMessage("angal.lab.batchentry.btn"));
+			buttonBatchEntry.setMnemonic(MessageBundle.getMnemonic("angal.lab.batchentry.btn.key"));
+			buttonBatchEntry.addActionListener(actionEvent -> {
+				Exam exam = (Exam) comboExams.getSelectedItem();
+				if (exam == null || exam.getCode() == null || exam.getCode().isEmpty()) {
+					MessageDialog.error(this, "angal.lab.pleaseselectanexam.msg");
+					return;
+				}
+				if (!LabBatchEntry.isBatchable(exam)) {
+					MessageDialog.error(this, "angal.lab.batchentry.multipleresultsnotsupported.msg");
+					return;
+				}
+				LabBatchEntry batchEntry = new LabBatchEntry(exam, dateFrom.getDate(), dateTo.getDate());
+				batchEntry.addLabEditListener(this);
+				batchEntry.showAsModal(this);
+			});
+		}
+		return buttonBatchEntry;
+	}
+
 	/**
 	 * This method initializes buttonNew, that loads LabEdit Mask
 	 *
@@ -405,7 +434,7 @@ public class LabBrowser extends ModalJFrame implements LabListener, LabEditListe
 			comboExams.addItem(new Exam("", MessageBundle.getMessage("angal.common.all.txt"), new ExamType("", ""), 0, ""));
 			List<Exam> type;
 			try {
-				type = examBrowsingManager.getExams();
+				type = examCatalogue.getExams();
 			} catch (OHServiceException e1) {
 				type = null;
 				OHServiceExceptionUtil.showMessages(e1);
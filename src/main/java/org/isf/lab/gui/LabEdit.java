@@ -51,8 +51,7 @@ import javax.swing.event.EventListenerList;
 
 import org.isf.admission.manager.AdmissionBrowserManager;
 import org.isf.admission.model.Admission;
-import org.isf.exa.manager.ExamBrowsingManager;
-import org.isf.exa.manager.ExamRowBrowsingManager;
+import org.isf.exa.gui.ExamCatalogue;
 import org.isf.exa.model.Exam;
 import org.isf.exa.model.ExamRow;
 import org.isf.generaldata.MessageBundle;
@@ -114,10 +113,9 @@ public class LabEdit extends ModalJFrame {
 
 	private PatientBrowserManager patientBrowserManager = Context.getApplicationContext().getBean(PatientBrowserManager.class);
 	private AdmissionBrowserManager admissionBrowserManager = Context.getApplicationContext().getBean(AdmissionBrowserManager.class);
-	private ExamBrowsingManager examBrowsingManager = Context.getApplicationContext().getBean(ExamBrowsingManager.class);
+	private ExamCatalogue examCatalogue = Context.getApplicationContext().getBean(ExamCatalogue.class);
 	private LabManager labManager = Context.getApplicationContext().getBean(LabManager.class);
 	private LabRowManager labRowManager = Context.getApplicationContext().getBean(LabRowManager.class);
-	private ExamRowBrowsingManager examRowBrowsingManager = Context.getApplicationContext().getBean(ExamRowBrowsingManager.class);
 	private PrintManager printManager = Context.getApplicationContext().getBean(PrintManager.class);
 
 	private boolean insert;
@@ -362,7 +360,7 @@ public class LabEdit extends ModalJFrame {
 		if (examComboBox == null) {
 			List<Exam> exams;
 			try {
-				exams = examBrowsingManager.getExams();
+				exams = examCatalogue.getExams();
 			} catch (OHServiceException e) {
 				exams = null;
 				OHServiceExceptionUtil.showMessages(e);
@@ -570,7 +568,7 @@ public class LabEdit extends ModalJFrame {
 
 		List<ExamRow> rows;
 		try {
-			rows = examRowBrowsingManager.getExamRowByExamCode(examSelected.getCode());
+			rows = examCatalogue.getExamRowByExamCode(examSelected.getCode());
 		} catch (OHServiceException e) {
 			rows = null;
 			OHServiceExceptionUtil.showMessages(e);
@@ -595,7 +593,7 @@ public class LabEdit extends ModalJFrame {
 		String examId = examSelected.getCode();
 		eRows = null;
 		try {
-			eRows = examRowBrowsingManager.getExamRowByExamCode(examId);
+			eRows = examCatalogue.getExamRowByExamCode(examId);
 		} catch (OHServiceException e1) {
 			OHServiceExceptionUtil.showMessages(e1);
 		}
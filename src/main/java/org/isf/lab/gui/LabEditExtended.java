@@ -51,8 +51,7 @@ import javax.swing.event.EventListenerList;
 
 import org.isf.admission.manager.AdmissionBrowserManager;
 import org.isf.admission.model.Admission;
-import org.isf.exa.manager.ExamBrowsingManager;
-import org.isf.exa.manager.ExamRowBrowsingManager;
+import org.isf.exa.gui.ExamCatalogue;
 import org.isf.exa.model.Exam;
 import org.isf.exa.model.ExamRow;
 import org.isf.generaldata.MessageBundle;
@@ -158,9 +157,8 @@ public class LabEditExtended extends ModalJFrame {
 	private PrintManager printManager = Context.getApplicationContext().getBean(PrintManager.class);
 	private LabRowManager labRowManager = Context.getApplicationContext().getBean(LabRowManager.class);
 	private AdmissionBrowserManager admissionBrowserManager = Context.getApplicationContext().getBean(AdmissionBrowserManager.class);
-	private ExamRowBrowsingManager examRowBrowsingManager = Context.getApplicationContext().getBean(ExamRowBrowsingManager.class);
+	private ExamCatalogue examCatalogue = Context.getApplicationContext().getBean(ExamCatalogue.class);
 	private PatientBrowserManager patientBrowserManager = Context.getApplicationContext().getBean(PatientBrowserManager.class);
-	private ExamBrowsingManager examBrowsingManager = Context.getApplicationContext().getBean(ExamBrowsingManager.class);
 
 	private JTextField examTextField;
 
@@ -465,7 +463,7 @@ public class LabEditExtended extends ModalJFrame {
 
 			List<Exam> exams;
 			try {
-				exams = examBrowsingManager.getExams();
+				exams = examCatalogue.getExams();
 			} catch (OHServiceException e) {
 				exams = null;
 				OHServiceExceptionUtil.showMessages(e);
@@ -673,7 +671,7 @@ public class LabEditExtended extends ModalJFrame {
 
 		List<ExamRow> rows;
 		try {
-			rows = examRowBrowsingManager.getExamRowByExamCode(examSelected.getCode());
+			rows = examCatalogue.getExamRowByExamCode(examSelected.getCode());
 		} catch (OHServiceException e) {
 			rows = null;
 			OHServiceExceptionUtil.showMessages(e);
@@ -693,7 +691,7 @@ public class LabEditExtended extends ModalJFrame {
 		String examId = examSelected.getCode();
 		eRows = null;
 		try {
-			eRows = examRowBrowsingManager.getExamRowByExamCode(examId);
+			eRows = examCatalogue.getExamRowByExamCode(examId);
 		} catch (OHServiceException e1) {
 			OHServiceExceptionUtil.showMessages(e1);
 		}
@@ -61,8 +61,7 @@ import javax.swing.table.DefaultTableModel;
 
 import org.isf.admission.manager.AdmissionBrowserManager;
 import org.isf.admission.model.Admission;
-import org.isf.exa.manager.ExamBrowsingManager;
-import org.isf.exa.manager.ExamRowBrowsingManager;
+import org.isf.exa.gui.ExamCatalogue;
 import org.isf.exa.model.Exam;
 import org.isf.exa.model.ExamRow;
 import org.isf.generaldata.MessageBundle;
@@ -188,13 +187,10 @@ public class LabNew extends ModalJFrame implements SelectionListener {
 	private LabManager labManager = Context.getApplicationContext().getBean(LabManager.class);
 	private List<String> matList = labManager.getMaterialList();
 
-	// Exams (ALL)
-	private ExamBrowsingManager examBrowsingManager = Context.getApplicationContext().getBean(ExamBrowsingManager.class);
+	// Exams and Results (ALL)
+	private ExamCatalogue examCatalogue = Context.getApplicationContext().getBean(ExamCatalogue.class);
 	private List<Exam> exaArray;
 
-	// Results (ALL)
-	private ExamRowBrowsingManager examRowBrowsingManager = Context.getApplicationContext().getBean(ExamRowBrowsingManager.class);
-
 	// Arrays for this Patient
 	private List<List<LaboratoryRow>> examResults = new ArrayList<>();
 	private List<Laboratory> examItems = new ArrayList<>();
@@ -203,7 +199,7 @@ public class LabNew extends ModalJFrame implements SelectionListener {
 
 	public LabNew(JFrame owner) {
 		try {
-			exaArray = examBrowsingManager.getExams();
+			exaArray = examCatalogue.getExams();
 		} catch (OHServiceException e) {
 			exaArray = null;
 			OHServiceExceptionUtil.showMessages(e);
@@ -220,7 +216,7 @@ public class LabNew extends ModalJFrame implements SelectionListener {
 		patientSelected = patient;
 
 		try {
-			exaArray = examBrowsingManager.getExams();
+			exaArray = examCatalogue.getExams();
 		} catch (OHServiceException e) {
 			exaArray = null;
 			OHServiceExceptionUtil.showMessages(e);
@@ -377,7 +373,7 @@ public class LabNew extends ModalJFrame implements SelectionListener {
 				txtResultValue.setPreferredSize(new Dimension(EAST_WIDTH, COMPONENT_HEIGHT));
 				List<ExamRow> exaRowArray;
 				try {
-					exaRowArray = examRowBrowsingManager.getExamRowByExamCode(selectedExam.getCode());
+					exaRowArray = examCatalogue.getExamRowByExamCode(selectedExam.getCode());
 				} catch (OHServiceException ex) {
 					exaRowArray = null;
 					LOGGER.error(ex.getMessage(), ex);
@@ -421,7 +417,7 @@ public class LabNew extends ModalJFrame implements SelectionListener {
 				jPanelResults.add(resultsContainerScroll);
 				List<ExamRow> exaRowArray;
 				try {
-					exaRowArray = examRowBrowsingManager.getExamRowByExamCode(selectedExam.getCode());
+					exaRowArray = examCatalogue.getExamRowByExamCode(selectedExam.getCode());
 				} catch (OHServiceException ex) {
 					exaRowArray = null;
 					LOGGER.error(ex.getMessage(), ex);
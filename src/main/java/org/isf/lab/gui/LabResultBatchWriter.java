@@ -0,0 +1,173 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.lab.gui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+import org.isf.lab.manager.LabManager;
+import org.isf.lab.model.Laboratory;
+import org.isf.lab.model.LaboratoryStatus;
+import org.isf.utils.exception.OHServiceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Saves the results entered in {@link LabBatchEntry} in background.
+ * <p>
+ * Results are queued and written in batches: a batch is flushed as soon as it holds {@link #BATCH_SIZE} results or
+ * {@link #FLUSH_DELAY_MS} ms after the first result was queued, whichever comes first. A result changed again while
+ * still queued is written once, with its last value. Only the result text is handed over: it is set on the exam by the
+ * writer thread just before saving, so that the EDT never shares a half-edited exam with the writer.
+ */
+class LabResultBatchWriter {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(LabResultBatchWriter.class);
+
+	static final int BATCH_SIZE = 20;
+	static final long FLUSH_DELAY_MS = 2000;
+
+	/**
+	 * Outcome of each write, always called on the EDT
+	 */
+	interface Listener {
+
+		void resultSaved(Laboratory lab);
+
+		void resultFailed(Laboratory lab, OHServiceException exception);
+	}
+
+	private final LabManager labManager;
+	private final Listener listener;
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "LabResultBatchWriter");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final List<QueuedResult> queue = new ArrayList<>();
+	private ScheduledFuture<?> scheduledFlush;
+
+	LabResultBatchWriter(LabManager labManager, Listener listener) {
+		this.labManager = labManager;
+		this.listener = listener;
+	}
+
+	/**
+	 * Queues a result to be saved; from now on the exam must not be changed but by this writer
+	 *
+	 * @param lab the laboratory exam
+	 * @param result the result to save, the exam being set as done
+	 */
+	synchronized void submit(Laboratory lab, String result) {
+		QueuedResult queuedResult = new QueuedResult(lab, result);
+		int index = indexOf(lab);
+		if (index >= 0) {
+			queue.set(index, queuedResult);
+		} else {
+			queue.add(queuedResult);
+		}
+		if (queue.size() >= BATCH_SIZE) {
+			if (scheduledFlush != null) {
+				scheduledFlush.cancel(false);
+			}
+			scheduledFlush = null;
+			executor.execute(this::flush);
+		} else if (scheduledFlush == null) {
+			scheduledFlush = executor.schedule(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * @return the number of results not written yet
+	 */
+	synchronized int getQueued() {
+		return queue.size();
+	}
+
+	/**
+	 * Writes the queued results and then stops the writer thread
+	 *
+	 * @param onClosed called on the EDT once all the results are written, after their outcomes
+	 */
+	synchronized void close(Runnable onClosed) {
+		if (scheduledFlush != null) {
+			scheduledFlush.cancel(false);
+			scheduledFlush = null;
+		}
+		executor.execute(() -> {
+			flush();
+			SwingUtilities.invokeLater(onClosed);
+		});
+		executor.shutdown();
+	}
+
+	private int indexOf(Laboratory lab) {
+		for (int i = 0; i < queue.size(); i++) {
+			if (queue.get(i).lab == lab) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void flush() {
+		List<QueuedResult> batch;
+		synchronized (this) {
+			batch = new ArrayList<>(queue);
+			queue.clear();
+			scheduledFlush = null;
+		}
+		long start = System.currentTimeMillis();
+		for (QueuedResult queuedResult : batch) {
+			Laboratory lab = queuedResult.lab;
+			lab.setResult(queuedResult.result);
+			lab.setStatus(LaboratoryStatus.done.toString());
+			try {
+				labManager.updateLaboratory(lab, new ArrayList<>());
+				SwingUtilities.invokeLater(() -> listener.resultSaved(lab));
+			} catch (OHServiceException exception) {
+				SwingUtilities.invokeLater(() -> listener.resultFailed(lab, exception));
+			}
+		}
+		if (!batch.isEmpty()) {
+			LOGGER.debug("{} lab results written in {} ms", batch.size(), System.currentTimeMillis() - start);
+		}
+	}
+
+	private static final class QueuedResult {
+
+		private final Laboratory lab;
+		private final String result;
+
+		private QueuedResult(Laboratory lab, String result) {
+			this.lab = lab;
+			this.result = result;
+		}
+	}
+}
@@ -40,6 +40,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
@@ -51,6 +53,7 @@ import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.SpringLayout;
+import javax.swing.Timer;
 import javax.swing.WindowConstants;
 
 import org.isf.generaldata.GeneralData;
@@ -65,7 +68,8 @@ import org.isf.menu.model.UserMenuItem;
 import org.isf.session.RestartUserSession;
 import org.isf.sessionaudit.manager.SessionAuditManager;
 import org.isf.sessionaudit.model.SessionAudit;
-import org.isf.sms.service.SmsSender;
+import org.isf.sms.gui.SmsDispatcher;
+import org.isf.stat.reportlauncher.gui.ReportScheduler;
 import org.isf.telemetry.constants.TelemetryConstants;
 import org.isf.telemetry.daemon.TelemetryDaemon;
 import org.isf.telemetry.gui.TelemetryEdit;
@@ -96,6 +100,10 @@ public class MainMenu extends JFrame implements ActionListener, LoginListener, C
 	private SessionAuditManager sessionAuditManager = Context.getApplicationContext().getBean(SessionAuditManager.class);
 	private static final Logger LOGGER = LoggerFactory.getLogger(MainMenu.class);
 	private Integer sessionAuditId;
+	private WarmUpScheduler warmUpScheduler;
+	private MainPanel mainPanel;
+	// internalPharmacies=false : no internalPharmacies
+	private boolean internalPharmacies;
 
 	@Override
 	public void loginInserted(AWTEvent e) {
@@ -150,13 +158,11 @@ public class MainMenu extends JFrame implements ActionListener, LoginListener, C
 		setTitle(OH_TITLE);
 		myUser = myUserIn;
 		MainMenu myFrame = this;
-		GeneralData.initialize();
+		StartupOrchestrator startup = new StartupOrchestrator("Main menu");
 		this.activableModules = retrieveActivatedModulesMap();
 		Locale.setDefault(new Locale(GeneralData.LANGUAGE)); // for all fixed options YES_NO_CANCEL in dialogs
 		singleUser = GeneralData.getGeneralData().getSINGLEUSER();
 		MessageBundle.getBundle();
-		// internalPharmacies=false : no internalPharmacies
-		boolean internalPharmacies;
 		// debug mode
 		boolean debug;
 		try {
@@ -167,10 +173,9 @@ public class MainMenu extends JFrame implements ActionListener, LoginListener, C
 			}
 			flag_Xmpp = GeneralData.XMPPMODULEENABLED;
 			flag_Sms = GeneralData.SMSENABLED;
-			// start connection with SMS service
+			// start sending the scheduled SMS
 			if (flag_Sms) {
-				Thread thread = new Thread(new SmsSender());
-				thread.start();
+				SmsDispatcher.getInstance().start();
 			}
 		} catch (Exception e) {
 			singleUser = true; // default for property not found
@@ -210,56 +215,92 @@ public class MainMenu extends JFrame implements ActionListener, LoginListener, C
 			}
 		}
 
+		MDC.put("OHUser", myUser.getUserName());
+		MDC.put("OHUserGroup", myUser.getUserGroupName().getCode());
+
+		// session audit, menu items and xmpp login do not depend on each other
+		final User loggedUser = myUser;
+		CompletableFuture<Integer> sessionAudit = startup.submit("session audit",
+						() -> sessionAuditManager.newSessionAudit(new SessionAudit(loggedUser.getUserName(), LocalDateTime.now(), null)));
+		CompletableFuture<List<UserMenuItem>> userMenu = startup.submit("user menu", () -> userBrowsingManager.getMenu(loggedUser));
+		CompletableFuture<Boolean> xmppLogin = flag_Xmpp ? startup.submit("xmpp login", () -> loginXmpp(loggedUser))
+						: CompletableFuture.completedFuture(Boolean.FALSE);
+
 		flag_Telemetry = GeneralData.TELEMETRYENABLED;
 		if (flag_Telemetry) {
-			runTelemetry();
+			startup.time("telemetry", this::runTelemetry);
 		}
 
-		MDC.put("OHUser", myUser.getUserName());
-		MDC.put("OHUserGroup", myUser.getUserGroupName().getCode());
 		try {
-			this.sessionAuditId = sessionAuditManager.newSessionAudit(new SessionAudit(myUser.getUserName(), LocalDateTime.now(), null));
-		} catch (OHServiceException e1) {
+			this.sessionAuditId = sessionAudit.join();
+		} catch (CompletionException e1) {
 			LOGGER.error("Unable to log user login in the session_audit table.");
 		}
 		// get menu items
 		try {
-			myMenu = userBrowsingManager.getMenu(myUser);
-		} catch (OHServiceException e) {
-			OHServiceExceptionUtil.showMessages(e);
+			myMenu = userMenu.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof OHServiceException) {
+				OHServiceExceptionUtil.showMessages((OHServiceException) e.getCause());
+			} else {
+				LOGGER.error(e.getMessage(), e);
+			}
 		}
 
-		// start connection with xmpp server if is enabled
+		// connection with xmpp server if is enabled
 		if (flag_Xmpp) {
-			try {
-				Server.getInstance().login(myUser.getUserName(), myUser.getPasswd());
-				try {
-					Thread.sleep(500);
-				} catch (InterruptedException interruptedException) {
-					LOGGER.error(interruptedException.getMessage(), interruptedException);
-				}
-				new CommunicationFrame();
-				/*
-				 * Interaction communication = new Interaction(); communication.incomingChat(); communication.receiveFile();
-				 */
-			} catch (XMPPException e) {
-				String message = e.getMessage();
-				if (message.contains("SASL authentication DIGEST-MD5 failed")) {
-					if (ADMIN_STR.equals(myUser.getUserName())) {
-						LOGGER.error("Cannot use \"admin\" user, please consider creating another user under the admin group.");
-					} else {
-						LOGGER.error("Passwords do not match, please drop the XMPP user and login to OH again with the same user.");
-					}
-				} else if (message.contains("XMPPError connecting")) {
-					LOGGER.error("No XMPP Server seems to be running: set XMPPMODULEENABLED = false");
-				} else {
-					LOGGER.error("An error occurs: {}", e.getMessage());
-				}
+			if (xmppLogin.join()) {
+				// give the roster some time to arrive without blocking the EDT
+				Timer communicationTimer = new Timer(500, actionEvent -> new CommunicationFrame());
+				communicationTimer.setRepeats(false);
+				communicationTimer.start();
+			} else {
 				flag_Xmpp = GeneralData.XMPPMODULEENABLED = false;
 			}
-
 		}
 
+		removeHiddenMenuItems();
+
+		ImageIcon img = new ImageIcon("./rsc/icons/oh.png");
+		setIconImage(img.getImage());
+		// add panel with buttons to frame
+		mainPanel = new MainPanel(this);
+		add(mainPanel);
+		setResizable(false);
+		pack();
+		locateMenu();
+
+		myFrame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+		myFrame.setAlwaysOnTop(GeneralData.MAINMENUALWAYSONTOP);
+		myFrame.addWindowListener(new WindowAdapter() {
+
+			@Override
+			public void windowClosing(WindowEvent e) {
+				actionExit(0);
+			}
+
+			@Override
+			public void windowClosed(WindowEvent e) {
+				warmUpScheduler.cancel();
+				ReportScheduler.getInstance().stop();
+			}
+		});
+
+		setVisible(true);
+		startup.finish();
+
+		// prepare the frames this user can open while they are idle
+		warmUpScheduler = new WarmUpScheduler(myMenu);
+		warmUpScheduler.start();
+
+		// generate off hours the monthly reports of the month just closed
+		ReportScheduler.getInstance().start();
+	}
+
+	/**
+	 * Remove from the user menu the items of the modules that are not enabled
+	 */
+	private void removeHiddenMenuItems() {
 		// if in singleUser mode remove "users" and "communication" menu
 		if (singleUser) {
 			List<UserMenuItem> junkMenu = new ArrayList<>();
@@ -339,33 +380,103 @@ public class MainMenu extends JFrame implements ActionListener, LoginListener, C
 		for (UserMenuItem umi : junkMenu) {
 			myMenu.remove(umi);
 		}
+	}
 
-		ImageIcon img = new ImageIcon("./rsc/icons/oh.png");
-		setIconImage(img.getImage());
-		// add panel with buttons to frame
-		MainPanel panel = new MainPanel(this);
-		add(panel);
-		setResizable(false);
-		pack();
-
-		// compute menu position
+	private void locateMenu() {
 		Toolkit kit = Toolkit.getDefaultToolkit();
 		Dimension screenSize = kit.getScreenSize();
 		int screenHeight = screenSize.height;
 		int frameHeight = getSize().height;
 		setLocation(menuXPosition, screenHeight - frameHeight - menuYDisplacement);
+	}
 
-		myFrame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
-		myFrame.setAlwaysOnTop(GeneralData.MAINMENUALWAYSONTOP);
-		myFrame.addWindowListener(new WindowAdapter() {
+	/**
+	 * @return {@code true} if the user can change with {@link #startSession()}, keeping this menu
+	 */
+	public boolean canSwitchUser() {
+		// the xmpp connection belongs to the logged user
+		return !singleUser && !flag_Xmpp;
+	}
 
-			@Override
-			public void windowClosing(WindowEvent e) {
-				actionExit(0);
+	/**
+	 * Ends the session of the logged user, keeping the menu hidden for the next one
+	 */
+	public void endSession() {
+		updateSessionAudit();
+		warmUpScheduler.cancel();
+		setVisible(false);
+		myUser = null;
+		MDC.remove("OHUser");
+		MDC.remove("OHUserGroup");
+	}
+
+	/**
+	 * Starts the session of the user logged after {@link #endSession()}: only the user scoped state (menu rights, audit
+	 * and log context) is read again and only the buttons panel is rebuilt. Application settings, the reference data
+	 * already read and the frame classes already warmed up are kept.
+	 */
+	public void startSession() {
+		StartupOrchestrator startup = new StartupOrchestrator("User switch");
+		final User loggedUser = myUser;
+		CompletableFuture<Integer> sessionAudit = startup.submit("session audit",
+						() -> sessionAuditManager.newSessionAudit(new SessionAudit(loggedUser.getUserName(), LocalDateTime.now(), null)));
+		CompletableFuture<List<UserMenuItem>> userMenu = startup.submit("user menu", () -> userBrowsingManager.getMenu(loggedUser));
+		try {
+			this.sessionAuditId = sessionAudit.join();
+		} catch (CompletionException e1) {
+			LOGGER.error("Unable to log user login in the session_audit table.");
+		}
+		try {
+			myMenu = userMenu.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof OHServiceException) {
+				OHServiceExceptionUtil.showMessages((OHServiceException) e.getCause());
+			} else {
+				LOGGER.error(e.getMessage(), e);
 			}
+			myMenu = new ArrayList<>();
+		}
+		removeHiddenMenuItems();
+
+		startup.time("buttons panel", () -> {
+			remove(mainPanel);
+			mainPanel = new MainPanel(this);
+			add(mainPanel);
+			pack();
+			locateMenu();
 		});
-
 		setVisible(true);
+		startup.finish();
+
+		warmUpScheduler = new WarmUpScheduler(myMenu);
+		warmUpScheduler.start();
+	}
+
+	/**
+	 * Login to the xmpp server
+	 *
+	 * @param user the logged user
+	 * @return {@code true} if the login succeeded
+	 */
+	private static boolean loginXmpp(User user) {
+		try {
+			Server.getInstance().login(user.getUserName(), user.getPasswd());
+			return true;
+		} catch (XMPPException e) {
+			String message = e.getMessage();
+			if (message.contains("SASL authentication DIGEST-MD5 failed")) {
+				if (ADMIN_STR.equals(user.getUserName())) {
+					LOGGER.error("Cannot use \"admin\" user, please consider creating another user under the admin group.");
+				} else {
+					LOGGER.error("Passwords do not match, please drop the XMPP user and login to OH again with the same user.");
+				}
+			} else if (message.contains("XMPPError connecting")) {
+				LOGGER.error("No XMPP Server seems to be running: set XMPPMODULEENABLED = false");
+			} else {
+				LOGGER.error("An error occurs: {}", e.getMessage());
+			}
+			return false;
+		}
 	}
 
 	private Map<String, Boolean> retrieveActivatedModulesMap() {
@@ -407,6 +518,7 @@ public class MainMenu extends JFrame implements ActionListener, LoginListener, C
 			LOGGER.info("Login failed.");
 		}
 		updateSessionAudit();
+		SmsDispatcher.getInstance().stop();
 		String newLine = System.lineSeparator();
 		LOGGER.info("{}{}====================={} Open Hospital closed {}====================={}", newLine, newLine, newLine, newLine, newLine);
 		System.exit(status);
@@ -577,6 +689,7 @@ public class MainMenu extends JFrame implements ActionListener, LoginListener, C
 				sessionAudit.setLogoutDate(LocalDateTime.now());
 				sessionAuditManager.updateSessionAudit(sessionAudit);
 			}
+			sessionAuditId = null;
 		} catch (OHServiceException e) {
 			LOGGER.error("Unable to log user login in the session_audit table");
 		}
@@ -27,6 +27,7 @@ import java.awt.Toolkit;
 import java.io.File;
 import java.util.Enumeration;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Pattern;
 
 import javax.swing.JFrame;
@@ -53,18 +54,15 @@ public class Menu {
 	private static final String MIN_JAVA_VERSION = "17";
 
 	/**
-	 * Create the GUI and show it.
+	 * Create the GUI and show it, once the application context, the settings and the UI font are ready.
 	 */
-	private static void createAndShowGUI() {
-		String newLine = System.lineSeparator();
-		LOGGER.info("{}{}====================={}Starting Open Hospital{}====================={}", newLine, newLine, newLine, newLine, newLine);
-		checkOHVersion();
-		checkJavaVersion();
-		fontChecker();
-		JFrame.setDefaultLookAndFeelDecorated(false);
-		new SplashWindow3("rsc" + File.separator + "images" + File.separator + "splash.png", null, 3000);
+	private static void createAndShowGUI(StartupOrchestrator startup, SplashWindow3 splash, ApplicationContext context, Font languageFont) {
+		Context.setApplicationContext(context);
+		applyUIFont(languageFont);
 		WaitCursorEventQueue waitQueue = new WaitCursorEventQueue(10, Toolkit.getDefaultToolkit().getSystemEventQueue());
 		Toolkit.getDefaultToolkit().getSystemEventQueue().push(waitQueue);
+		startup.finish();
+		splash.startApplication();
 	}
 
 	private static void checkOHVersion() {
@@ -123,11 +121,30 @@ public class Menu {
 		}
 	}
 
-	public static void fontChecker() {
+	/**
+	 * Look for a font able to display the selected language; safe to be called off the EDT, as it does not touch the
+	 * look and feel.
+	 *
+	 * @return the first installed font able to display the selected language, {@code null} if there is none
+	 */
+	private static Font findLanguageFont() {
+		String textToCheck = getTextToCheck();
+		for (Font font : GraphicsEnvironment.getLocalGraphicsEnvironment().getAllFonts()) {
+			if (font.canDisplayUpTo(textToCheck) == -1) {
+				return font;
+			}
+		}
+		return null;
+	}
 
-		GeneralData.initialize();
-		MessageBundle.getBundle();
-		String textToCheck = MessageBundle.getMessage("angal.common.address.txt"); // Any string from bundle to check
+	/**
+	 * Sets the language font if the font of the look and feel cannot display the selected language, exits if there is
+	 * none; to be called on the EDT.
+	 *
+	 * @param languageFont the font found by {@link #findLanguageFont()}
+	 */
+	private static void applyUIFont(Font languageFont) {
+		String textToCheck = getTextToCheck();
 		LOGGER.debug("textToCheck: {}", textToCheck);
 
 		Font currentFont = UIManager.getFont("Label.font");
@@ -142,27 +159,54 @@ public class Menu {
 		// Check if the currentFont can display the textToCheck
 		if (currentFont.canDisplayUpTo(textToCheck) == -1) {
 			LOGGER.debug("The current font supports the selected language.");
-		} else {
-			LOGGER.debug("The current font does not support the selected language.");
-
-			// Find a font that supports the provided textToCheck
-			Font[] availableFonts = GraphicsEnvironment.getLocalGraphicsEnvironment().getAllFonts();
-			for (Font font : availableFonts) {
-				if (font.canDisplayUpTo(textToCheck) == -1) {
-					LOGGER.debug("Found a font that supports the selected language: {}", font.getFontName());
-					setUIFont(new FontUIResource(font.getFontName(), Font.PLAIN, 12));
-					return;
-				}
-			}
+			return;
+		}
+		LOGGER.debug("The current font does not support the selected language.");
+		if (languageFont == null) {
 			LOGGER.error("Unable to find a font that supports the selected language.");
 			System.exit(1);
 		}
+		LOGGER.debug("Found a font that supports the selected language: {}", languageFont.getFontName());
+		setUIFont(new FontUIResource(languageFont.getFontName(), Font.PLAIN, 12));
 	}
 
+	private static String getTextToCheck() {
+		return MessageBundle.getMessage("angal.common.address.txt"); // Any string from bundle to check
+	}
+
+	/**
+	 * Start Open Hospital: the splash screen is shown right away while the application context, the settings and the
+	 * font check run concurrently; the splash is closed and the login shown as soon as all of them are done.
+	 *
+	 * @param args the command line arguments
+	 */
 	public Menu(String[] args) {
-		ApplicationContext context = createApplicationContext(args);
-		Context.setApplicationContext(context);
-		SwingUtilities.invokeLater(() -> createAndShowGUI());
+		String newLine = System.lineSeparator();
+		LOGGER.info("{}{}====================={}Starting Open Hospital{}====================={}", newLine, newLine, newLine, newLine, newLine);
+		StartupOrchestrator startup = new StartupOrchestrator("Startup");
+		startup.time("java version check", Menu::checkJavaVersion);
+
+		CompletableFuture<SplashWindow3> splash = new CompletableFuture<>();
+		SwingUtilities.invokeLater(() -> {
+			JFrame.setDefaultLookAndFeelDecorated(false);
+			splash.complete(startup.timeCall("splash", () -> new SplashWindow3("rsc" + File.separator + "images" + File.separator + "splash.png", null)));
+		});
+		CompletableFuture<ApplicationContext> context = startup.submit("application context", () -> createApplicationContext(args));
+		CompletableFuture<Void> settings = startup.run("version, settings and bundle", () -> {
+			checkOHVersion();
+			GeneralData.initialize();
+			MessageBundle.getBundle();
+		});
+		CompletableFuture<Font> languageFont = settings.thenCompose(ignored -> startup.submit("font check", Menu::findLanguageFont));
+
+		CompletableFuture.allOf(splash, context, languageFont).whenComplete((ignored, failure) -> SwingUtilities.invokeLater(() -> {
+			if (failure != null) {
+				LOGGER.error("Open Hospital could not start.", failure);
+				startup.finish();
+				System.exit(1);
+			}
+			createAndShowGUI(startup, splash.join(), context.join(), languageFont.join());
+		}));
 	}
 
 	private static ApplicationContext createApplicationContext(String... args) {
@@ -31,23 +31,18 @@ import java.awt.event.MouseEvent;
 import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JWindow;
-import javax.swing.SwingUtilities;
 
 import org.isf.generaldata.GeneralData;
+import org.isf.session.ActivityTracker;
 import org.isf.session.LogoutEventListener;
 import org.isf.session.RestartUserSession;
-import org.isf.session.SessionRefreshTimerRunnable;
 import org.isf.utils.time.DelayTimer;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 class SplashWindow3 extends JWindow {
 
 	private static final long serialVersionUID = 1L;
 
-	private static final Logger LOGGER = LoggerFactory.getLogger(SplashWindow3.class);
-
-	public SplashWindow3(String filename, Frame f, int waitTime) {
+	public SplashWindow3(String filename, Frame f) {
 		super(f);
 
 		JLabel l = new JLabel(new ImageIcon(filename));
@@ -69,30 +64,22 @@ class SplashWindow3 extends JWindow {
 				dispose();
 			}
 		});
-		final int pause = waitTime;
-		final Runnable closerRunner = () -> {
-			setVisible(false);
-			dispose();
-			MainMenu mainMenu = new MainMenu(null);
-			startLogoutTimer(mainMenu);
-		};
-		Runnable waitRunner = () -> {
-			try {
-				Thread.sleep(pause);
-				SwingUtilities.invokeAndWait(closerRunner);
-			} catch (Exception exception) {
-				LOGGER.error(exception.getMessage(), exception);
-				// can catch InvocationTargetException
-				// can catch InterruptedException
-			}
-		};
 		setVisible(true);
-		Thread splashThread = new Thread(waitRunner, "SplashThread");
-		splashThread.start();
+	}
+
+	/**
+	 * Close the splash screen and start the main menu (and the login), to be called on the EDT as soon as the
+	 * application is ready.
+	 */
+	public void startApplication() {
+		setVisible(false);
+		dispose();
+		MainMenu mainMenu = new MainMenu(null);
+		startLogoutTimer(mainMenu);
 	}
 
 	private void startLogoutTimer(MainMenu mainMenu) {
-		new Thread(new SessionRefreshTimerRunnable()).start();
+		ActivityTracker.getInstance().install();
 		if (RestartUserSession.getTimer() != null) {
 			RestartUserSession.getTimer().quit();
 		}
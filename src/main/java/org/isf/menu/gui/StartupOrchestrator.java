@@ -0,0 +1,176 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.menu.gui;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the independent steps of a start-up sequence concurrently and records when each of them started and ended,
+ * so that the whole sequence can be logged as a timeline.
+ * <p>
+ * Steps submitted with {@link #submit(String, Callable)} run on a small pool of daemon threads; steps that must run on
+ * the calling thread (e.g. on the EDT) can be measured with {@link #time(String, Runnable)} and {@link #timeCall(String, Supplier)}.
+ */
+class StartupOrchestrator {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(StartupOrchestrator.class);
+
+	private final String name;
+	private final long origin = System.nanoTime();
+	private final List<Phase> phases = new ArrayList<>();
+	private final ExecutorService executor;
+
+	StartupOrchestrator(String name) {
+		this.name = name;
+		int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+		AtomicInteger counter = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "Startup-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Run a step in background
+	 *
+	 * @param phaseName the name shown in the timeline
+	 * @param step the step
+	 * @return the future result of the step
+	 */
+	<T> CompletableFuture<T> submit(String phaseName, Callable<T> step) {
+		return CompletableFuture.supplyAsync(() -> timeCall(phaseName, () -> {
+			try {
+				return step.call();
+			} catch (RuntimeException runtimeException) {
+				throw runtimeException;
+			} catch (Exception exception) {
+				throw new CompletionException(exception);
+			}
+		}), executor);
+	}
+
+	/**
+	 * Run a step without result in background
+	 *
+	 * @param phaseName the name shown in the timeline
+	 * @param step the step
+	 * @return the future completion of the step
+	 */
+	CompletableFuture<Void> run(String phaseName, Runnable step) {
+		return submit(phaseName, () -> {
+			step.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Run a step on the calling thread, recording it in the timeline
+	 *
+	 * @param phaseName the name shown in the timeline
+	 * @param step the step
+	 * @return the result of the step
+	 */
+	<T> T timeCall(String phaseName, Supplier<T> step) {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			T result = step.get();
+			failed = false;
+			return result;
+		} finally {
+			record(new Phase(phaseName, Thread.currentThread().getName(), start - origin, System.nanoTime() - origin, failed));
+		}
+	}
+
+	/**
+	 * Run a step without result on the calling thread, recording it in the timeline
+	 *
+	 * @param phaseName the name shown in the timeline
+	 * @param step the step
+	 */
+	void time(String phaseName, Runnable step) {
+		timeCall(phaseName, () -> {
+			step.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Log the recorded phases ordered by start time and release the background threads
+	 */
+	void finish() {
+		executor.shutdown();
+		List<Phase> snapshot;
+		synchronized (phases) {
+			snapshot = new ArrayList<>(phases);
+		}
+		snapshot.sort(Comparator.comparingLong(phase -> phase.start));
+		StringBuilder timeline = new StringBuilder();
+		for (Phase phase : snapshot) {
+			timeline.append(System.lineSeparator())
+							.append(String.format("%7d ms - %7d ms %7d ms  %s [%s]%s", toMillis(phase.start), toMillis(phase.end),
+											toMillis(phase.end - phase.start), phase.name, phase.thread, phase.failed ? " FAILED" : ""));
+		}
+		LOGGER.info("{} timeline, {} ms:{}", name, toMillis(System.nanoTime() - origin), timeline);
+	}
+
+	private void record(Phase phase) {
+		synchronized (phases) {
+			phases.add(phase);
+		}
+		LOGGER.debug("{}: {} took {} ms", name, phase.name, toMillis(phase.end - phase.start));
+	}
+
+	private static long toMillis(long nanos) {
+		return nanos / 1_000_000L;
+	}
+
+	private static final class Phase {
+
+		private final String name;
+		private final String thread;
+		private final long start;
+		private final long end;
+		private final boolean failed;
+
+		private Phase(String name, String thread, long start, long end, boolean failed) {
+			this.name = name;
+			this.thread = thread;
+			this.start = start;
+			this.end = end;
+			this.failed = failed;
+		}
+	}
+}
@@ -0,0 +1,228 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.menu.gui;
+
+import java.awt.AWTEvent;
+import java.awt.Toolkit;
+import java.awt.event.AWTEventListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.isf.admission.manager.AdmissionBrowserManager;
+import org.isf.disease.manager.DiseaseBrowserManager;
+import org.isf.distype.manager.DiseaseTypeBrowserManager;
+import org.isf.dlvrrestype.manager.DeliveryResultTypeBrowserManager;
+import org.isf.dlvrtype.manager.DeliveryTypeBrowserManager;
+import org.isf.exa.gui.ExamCatalogue;
+import org.isf.hospital.manager.HospitalBrowsingManager;
+import org.isf.medicals.manager.MedicalBrowsingManager;
+import org.isf.medstockmovtype.manager.MedicalDsrStockMovementTypeBrowserManager;
+import org.isf.menu.manager.Context;
+import org.isf.menu.model.UserMenuItem;
+import org.isf.pregtreattype.manager.PregnantTreatmentTypeBrowserManager;
+import org.isf.priceslist.manager.PriceListManager;
+import org.isf.pricesothers.manager.PricesOthersManager;
+import org.isf.stat.gui.report.GenericReportBill;
+import org.isf.stat.reportlauncher.gui.ReportCatalogue;
+import org.isf.supplier.manager.SupplierBrowserManager;
+import org.isf.ward.manager.WardBrowserManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * Warms up, after login, the frames the logged user is allowed to open, so that their first opening is not slower
+ * than the following ones.
+ * <p>
+ * Only the modules in the user menu are considered. For each of them the frame classes (and the heavy frames they
+ * open) are loaded and initialized, the manager beans they declare are resolved and their reference data are read once.
+ * The work is done on a single low priority thread while the user has not started working yet: the first mouse or key
+ * press stops it for good, after the step in progress, so that the warm-up never competes with the user.
+ */
+class WarmUpScheduler implements AWTEventListener {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(WarmUpScheduler.class);
+
+	/**
+	 * Heavy frames opened from a menu item frame
+	 */
+	private static final Map<String, List<String>> RELATED_FRAMES = Map.of(
+					"org.isf.opd.gui.OpdBrowser", List.of("org.isf.opd.gui.OpdEditExtended", "org.isf.opd.gui.OpdEdit"),
+					"org.isf.admission.gui.AdmittedPatientBrowser", List.of("org.isf.admission.gui.AdmissionBrowser",
+									"org.isf.admission.gui.PatientFolderBrowser", "org.isf.patient.gui.PatientInsertExtended"),
+					"org.isf.accounting.gui.BillBrowser", List.of("org.isf.accounting.gui.PatientBillEdit"),
+					"org.isf.medicalstock.gui.MovStockBrowser", List.of("org.isf.medicalstock.gui.MovStockMultipleCharging",
+									"org.isf.medicalstock.gui.MovStockMultipleDischarging"));
+
+	/**
+	 * Reference data read by a frame when it opens
+	 */
+	private static final Map<String, ReferenceData> REFERENCE_DATA = Map.of(
+					"org.isf.opd.gui.OpdEditExtended", context -> {
+						context.getBean(DiseaseTypeBrowserManager.class).getDiseaseType();
+						context.getBean(DiseaseBrowserManager.class).getDiseaseOpd();
+						context.getBean(DiseaseBrowserManager.class).getDiseaseAll();
+						context.getBean(WardBrowserManager.class).getOpdWards();
+						context.getBean(WardBrowserManager.class).getWards();
+					},
+					"org.isf.admission.gui.AdmissionBrowser", context -> {
+						context.getBean(DiseaseBrowserManager.class).getDiseaseIpdIn();
+						context.getBean(DiseaseBrowserManager.class).getDiseaseIpdOut();
+						context.getBean(AdmissionBrowserManager.class).getAdmissionType();
+						context.getBean(AdmissionBrowserManager.class).getDischargeType();
+						context.getBean(PregnantTreatmentTypeBrowserManager.class).getPregnantTreatmentType();
+						context.getBean(DeliveryResultTypeBrowserManager.class).getDeliveryResultType();
+						context.getBean(DeliveryTypeBrowserManager.class).getDeliveryType();
+					},
+					"org.isf.accounting.gui.PatientBillEdit", context -> {
+						context.getBean(PriceListManager.class).getPrices();
+						context.getBean(PriceListManager.class).getLists();
+						context.getBean(PricesOthersManager.class).getOthers();
+						context.getBean(HospitalBrowsingManager.class).getHospitalCurrencyCod();
+						GenericReportBill.warmUp();
+					},
+					"org.isf.medicalstock.gui.MovStockMultipleCharging", context -> {
+						context.getBean(MedicalBrowsingManager.class).getMedicals();
+						context.getBean(MedicalDsrStockMovementTypeBrowserManager.class).getMedicalDsrStockMovementType();
+						context.getBean(SupplierBrowserManager.class).getList();
+					},
+					"org.isf.lab.gui.LabBrowser", context -> context.getBean(ExamCatalogue.class).getExams(),
+					"org.isf.stat.reportlauncher.gui.ReportLauncher", context -> ReportCatalogue.getInstance().getReports().join());
+
+	@FunctionalInterface
+	private interface ReferenceData {
+
+		void load(ApplicationContext context) throws Exception;
+	}
+
+	private final Deque<String> frames = new ArrayDeque<>();
+	private volatile boolean cancelled;
+	private Thread worker;
+
+	/**
+	 * @param menu the menu items the user is allowed to open, {@code null} if they could not be read
+	 */
+	WarmUpScheduler(List<UserMenuItem> menu) {
+		if (menu == null) {
+			return;
+		}
+		Set<String> classes = new LinkedHashSet<>();
+		for (UserMenuItem item : menu) {
+			String app = item.getMyClass();
+			if (app == null || "none".equalsIgnoreCase(app) || item.isASubMenu()) {
+				continue;
+			}
+			classes.add(app);
+			classes.addAll(RELATED_FRAMES.getOrDefault(app, List.of()));
+		}
+		frames.addAll(classes);
+	}
+
+	/**
+	 * Start warming up in background
+	 */
+	void start() {
+		if (frames.isEmpty()) {
+			return;
+		}
+		Toolkit.getDefaultToolkit().addAWTEventListener(this, AWTEvent.MOUSE_EVENT_MASK | AWTEvent.KEY_EVENT_MASK);
+		worker = new Thread(this::warmUp, "WarmUp");
+		worker.setDaemon(true);
+		worker.setPriority(Thread.MIN_PRIORITY);
+		worker.start();
+	}
+
+	/**
+	 * Stop warming up, e.g. when the session ends
+	 */
+	void cancel() {
+		cancelled = true;
+		if (worker != null) {
+			worker.interrupt();
+		}
+		Toolkit.getDefaultToolkit().removeAWTEventListener(this);
+	}
+
+	@Override
+	public void eventDispatched(AWTEvent event) {
+		int id = event.getID();
+		if (id == MouseEvent.MOUSE_PRESSED || id == KeyEvent.KEY_PRESSED) {
+			// the user started working: the step in progress is completed, not interrupted
+			cancelled = true;
+			Toolkit.getDefaultToolkit().removeAWTEventListener(this);
+		}
+	}
+
+	private void warmUp() {
+		long start = System.currentTimeMillis();
+		int warmed = 0;
+		ClassLoader classLoader = getClass().getClassLoader();
+		ApplicationContext context = Context.getApplicationContext();
+		try {
+			String className;
+			while (!cancelled && (className = frames.poll()) != null) {
+				try {
+					// the static fields of the frames are icons, formatters and UI defaults only read
+					Class<?> frameClass = Class.forName(className, true, classLoader);
+					resolveManagers(frameClass, context);
+					if (cancelled) {
+						break;
+					}
+					ReferenceData referenceData = REFERENCE_DATA.get(className);
+					if (referenceData != null) {
+						referenceData.load(context);
+					}
+					warmed++;
+				} catch (InterruptedException interruptedException) {
+					throw interruptedException;
+				} catch (Exception | LinkageError exception) {
+					LOGGER.debug("Warm up of {} failed: {}", className, exception.getMessage());
+				}
+			}
+			LOGGER.debug("Warm up of {} frames {} in {} ms", warmed, cancelled ? "stopped" : "done", System.currentTimeMillis() - start);
+		} catch (InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+		} finally {
+			Toolkit.getDefaultToolkit().removeAWTEventListener(this);
+		}
+	}
+
+	private static void resolveManagers(Class<?> frameClass, ApplicationContext context) {
+		for (Field field : frameClass.getDeclaredFields()) {
+			Class<?> type = field.getType();
+			if (type.getName().startsWith("org.isf.") && type.getSimpleName().endsWith("Manager")) {
+				try {
+					context.getBean(type);
+				} catch (RuntimeException runtimeException) {
+					// not a bean (e.g. a static helper)
+				}
+			}
+		}
+	}
+}
@@ -37,6 +37,7 @@ import java.awt.event.KeyListener;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -59,9 +60,7 @@ import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
 import javax.swing.SpringLayout;
 import javax.swing.SwingConstants;
-import javax.swing.table.AbstractTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableColumnModel;
 import javax.swing.text.AttributeSet;
 import javax.swing.text.BadLocationException;
@@ -80,6 +79,7 @@ import org.isf.opd.manager.OpdBrowserManager;
 import org.isf.opd.model.Opd;
 import org.isf.patient.model.Patient;
 import org.isf.utils.exception.OHServiceException;
+import org.isf.utils.jobjects.EntityTableModel;
 import org.isf.utils.jobjects.GoodDateChooser;
 import org.isf.utils.jobjects.MessageDialog;
 import org.isf.utils.jobjects.ModalJFrame;
@@ -142,7 +142,6 @@ public class OpdBrowser extends ModalJFrame implements OpdEdit.SurgeryListener,
 	private DiseaseBrowserManager diseaseBrowserManager = Context.getApplicationContext().getBean(DiseaseBrowserManager.class);
 
 	private boolean isSingleUser = GeneralData.getGeneralData().getSINGLEUSER();
-	private List<Opd> pSur;
 	private JTable jTable;
 	private OpdBrowsingModel model;
 	private int[] pColumnWidth = {50, 80, 100, 130, 70, 150, 30, 30, 195, 195, 50, 50};
@@ -150,7 +149,6 @@ public class OpdBrowser extends ModalJFrame implements OpdEdit.SurgeryListener,
 	private boolean[] columnsVisible = { true, true, GeneralData.OPDEXTENDED, true, GeneralData.OPDEXTENDED, GeneralData.OPDEXTENDED, true, true, true, true, true, !isSingleUser };
 	private int[] columnsAlignment = { SwingConstants.LEFT, SwingConstants.LEFT, SwingConstants.LEFT, SwingConstants.LEFT, SwingConstants.CENTER, SwingConstants.LEFT, SwingConstants.CENTER, SwingConstants.CENTER, SwingConstants.LEFT, SwingConstants.LEFT, SwingConstants.LEFT, SwingConstants.LEFT };
 	private boolean[] columnsBold = { true, true, false, false, true, false, false, false, false, false, false, false };
-	private int selectedrow;
 	private JButton filterButton;
 	private String rowCounterText = MessageBundle.getMessage("angal.common.count.label") + ' ';
 	private JLabel rowCounter;
@@ -264,7 +262,7 @@ public class OpdBrowser extends ModalJFrame implements OpdEdit.SurgeryListener,
 		this.setTitle(MessageBundle.getMessage("angal.opd.opdoutpatientdepartment.title"));
 		this.setContentPane(getJContainPanel());
 		this.setMinimumSize(new Dimension(400 + getJTableWidth(), 700));
-		rowCounter.setText(rowCounterText + pSur.size());
+		rowCounter.setText(rowCounterText + model.getRowCount());
 		validate();
 	}
 
@@ -325,8 +323,7 @@ public class OpdBrowser extends ModalJFrame implements OpdEdit.SurgeryListener,
 					MessageDialog.error(this, "angal.common.pleaseselectarow.msg");
 					return;
 				}
-				selectedrow = jTable.getSelectedRow();
-				Opd opd = (Opd) model.getValueAt(selectedrow, -1);
+				Opd opd = (Opd) model.getValueAt(jTable.getSelectedRow(), -1);
 				if (GeneralData.OPDEXTENDED) {
 					OpdEditExtended editrecord = new OpdEditExtended(myFrame, opd, false);
 					editrecord.addSurgeryListener(this);
@@ -403,9 +400,8 @@ public class OpdBrowser extends ModalJFrame implements OpdEdit.SurgeryListener,
 				try {
 					if (n == JOptionPane.YES_OPTION) {
 						opdBrowserManager.deleteOpd(opd);
-						pSur.remove(pSur.size() - jTable.getSelectedRow() - 1);
-						model.fireTableDataChanged();
-						jTable.updateUI();
+						model.remove(opd.getCode());
+						rowCounter.setText(rowCounterText + model.getRowCount());
 					}
 				} catch (OHServiceException ohServiceException) {
 					MessageDialog.showExceptions(ohServiceException);
@@ -926,33 +922,36 @@ public class OpdBrowser extends ModalJFrame implements OpdEdit.SurgeryListener,
 		return jAgePanel;
 	}
 
-	class OpdBrowsingModel extends DefaultTableModel {
+	class OpdBrowsingModel extends EntityTableModel<Opd> {
 
 		private static final long serialVersionUID = -9129145534999353730L;
 
-		public OpdBrowsingModel(Ward ward, String diseaseTypeCode, String diseaseCode, LocalDate dateFrom, LocalDate dateTo, int ageFrom, int ageTo,
-				char sex, char newPatient, String user) {
+		public OpdBrowsingModel() {
 			try {
-				pSur = opdBrowserManager.getOpd(ward, diseaseTypeCode, diseaseCode, dateFrom, dateTo, ageFrom, ageTo, sex, newPatient, user);
+				setOpds(opdBrowserManager.getOpd(!GeneralData.ENHANCEDSEARCH));
 			} catch (OHServiceException ohServiceException) {
 				MessageDialog.showExceptions(ohServiceException);
 			}
 		}
 
-		public OpdBrowsingModel() {
-			try {
-				pSur = opdBrowserManager.getOpd(!GeneralData.ENHANCEDSEARCH);
-			} catch (OHServiceException ohServiceException) {
-				MessageDialog.showExceptions(ohServiceException);
+		/**
+		 * Shows the OPDs, the latest first, keeping the selection
+		 *
+		 * @param opds the OPDs, in chronological order
+		 */
+		void setOpds(List<Opd> opds) {
+			List<Opd> latestFirst = new ArrayList<>(opds);
+			Collections.reverse(latestFirst);
+			if (jTable != null) {
+				setEntities(latestFirst, jTable);
+			} else {
+				setEntities(latestFirst);
 			}
 		}
 
 		@Override
-		public int getRowCount() {
-			if (pSur == null) {
-				return 0;
-			}
-			return pSur.size();
+		protected Object getId(Opd opd) {
+			return opd.getCode();
 		}
 
 		@Override
@@ -966,13 +965,10 @@ public class OpdBrowser extends ModalJFrame implements OpdEdit.SurgeryListener,
 		}
 
 		@Override
-		public Object getValueAt(int r, int c) {
-			Opd opd = pSur.get(pSur.size() - r - 1);
+		protected Object getValueAt(Opd opd, int c) {
 			Patient pat = opd.getPatient();
 			int i = 0;
-			if (c == -1) {
-				return opd;
-			} else if (c == i) {
+			if (c == i) {
 				return opd.getCode();
 			}  else if (c == ++i) {
 				return opd.getProgYear();
@@ -1010,32 +1006,23 @@ public class OpdBrowser extends ModalJFrame implements OpdEdit.SurgeryListener,
 			}
 			return null;
 		}
-
-		@Override
-		public boolean isCellEditable(int arg0, int arg1) {
-			return false;
-		}
 	}
 
 	@Override
 	public void surgeryUpdated(AWTEvent e, Opd opd) {
-		pSur.set(pSur.size() - selectedrow - 1, opd);
-		((OpdBrowsingModel) jTable.getModel()).fireTableDataChanged();
-		jTable.updateUI();
-		if (jTable.getRowCount() > 0 && selectedrow > -1) {
-			jTable.setRowSelectionInterval(selectedrow, selectedrow);
-		}
-		rowCounter.setText(rowCounterText + pSur.size());
+		model.update(opd);
+		rowCounter.setText(rowCounterText + model.getRowCount());
 	}
 
 	@Override
 	public void surgeryInserted(AWTEvent e, Opd opd) {
-		pSur.add(pSur.size(), opd);
-		((OpdBrowsingModel) jTable.getModel()).fireTableDataChanged();
-		if (jTable.getRowCount() > 0) {
-			jTable.setRowSelectionInterval(0, 0);
+		model.insert(0, opd);
+		// the table may be sorted or filtered
+		int viewRow = jTable.convertRowIndexToView(0);
+		if (viewRow != -1) {
+			jTable.setRowSelectionInterval(viewRow, viewRow);
 		}
-		rowCounter.setText(rowCounterText + pSur.size());
+		rowCounter.setText(rowCounterText + model.getRowCount());
 	}
 	
 	private JButton getFilterButton() {
@@ -1091,10 +1078,12 @@ public class OpdBrowser extends ModalJFrame implements OpdEdit.SurgeryListener,
 				opdCodeFilter.setText("");
 				progYearFilter.setText("");
 				patientCodeFilter.setText("");
-				model = new OpdBrowsingModel(ward, diseasetype, disease, dateFrom.getDate(), dateTo.getDate(), ageFrom, ageTo, sex, newPatient, user);
-				model.fireTableDataChanged();
-				jTable.updateUI();
-				rowCounter.setText(rowCounterText + pSur.size());
+				try {
+					model.setOpds(opdBrowserManager.getOpd(ward, diseasetype, disease, dateFromDate, dateToDate, ageFrom, ageTo, sex, newPatient, user));
+				} catch (OHServiceException ohServiceException) {
+					MessageDialog.showExceptions(ohServiceException);
+				}
+				rowCounter.setText(rowCounterText + model.getRowCount());
 			});
 		}
 		return filterButton;
@@ -1151,9 +1140,8 @@ public class OpdBrowser extends ModalJFrame implements OpdEdit.SurgeryListener,
 				Optional<Opd> opd = opdBrowserManager.getOpdById(code);
 				if (opd.isPresent()) {
 					opdList.add(opd.get());
-					pSur = opdList;
-					((AbstractTableModel) jTable.getModel()).fireTableDataChanged();
-					rowCounter.setText(rowCounterText + pSur.size());
+					model.setOpds(opdList);
+					rowCounter.setText(rowCounterText + model.getRowCount());
 				} else {
 					MessageDialog.info(OpdBrowser.this, MessageBundle.getMessage("angal.common.nodatatoshow.msg"));
 				}
@@ -1181,10 +1169,9 @@ public class OpdBrowser extends ModalJFrame implements OpdEdit.SurgeryListener,
 				}
 				opdCodeFilter.setText("");
 				patientCodeFilter.setText("");
-				pSur = opdBrowserManager.getOpdByProgYear(code);
-				((AbstractTableModel) jTable.getModel()).fireTableDataChanged();
-				rowCounter.setText(rowCounterText + pSur.size());
-				if (pSur.isEmpty()) {
+				model.setOpds(opdBrowserManager.getOpdByProgYear(code));
+				rowCounter.setText(rowCounterText + model.getRowCount());
+				if (model.getRowCount() == 0) {
 					MessageDialog.info(OpdBrowser.this, MessageBundle.getMessage("angal.common.nodatatoshow.msg"));
 				}
 			}
@@ -1212,10 +1199,9 @@ public class OpdBrowser extends ModalJFrame implements OpdEdit.SurgeryListener,
 				opdCodeFilter.setText("");
 				progYearFilter.setText("");
 				try {
-					pSur = opdBrowserManager.getOpdList(code);
-					((AbstractTableModel) jTable.getModel()).fireTableDataChanged();
-					rowCounter.setText(rowCounterText + pSur.size());
-					if (pSur.isEmpty()) {
+					model.setOpds(opdBrowserManager.getOpdList(code));
+					rowCounter.setText(rowCounterText + model.getRowCount());
+					if (model.getRowCount() == 0) {
 						MessageDialog.info(OpdBrowser.this, MessageBundle.getMessage("angal.common.nodatatoshow.msg"));
 					}
 				} catch (OHServiceException ohServiceException) {
@@ -54,6 +54,8 @@ import org.isf.generaldata.MessageBundle;
 import org.isf.menu.manager.Context;
 import org.isf.patient.manager.PatientBrowserManager;
 import org.isf.patient.model.Patient;
+import org.isf.utils.event.EntityEvent;
+import org.isf.utils.event.GuiEventBus;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.gui.OHServiceExceptionUtil;
 import org.isf.utils.jobjects.MessageDialog;
@@ -88,6 +90,7 @@ public class PatientInsert extends JDialog implements ActionListener {
 		for (EventListener listener : listeners) {
 			((PatientListener) listener).patientInserted(event);
 		}
+		GuiEventBus.getInstance().publish(EntityEvent.inserted(Patient.class, aPatient.getCode(), aPatient));
 	}
 
 	private void firePatientUpdated(Patient aPatient) {
@@ -100,6 +103,7 @@ public class PatientInsert extends JDialog implements ActionListener {
 		for (EventListener listener : listeners) {
 			((PatientListener) listener).patientUpdated(event);
 		}
+		GuiEventBus.getInstance().publish(EntityEvent.updated(Patient.class, aPatient.getCode(), aPatient));
 	}
 
 	private JPanel jContainPanel;
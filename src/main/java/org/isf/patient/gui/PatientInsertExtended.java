@@ -31,7 +31,6 @@ import java.awt.Image;
 import java.awt.event.ActionListener;
 import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.Period;
@@ -77,9 +76,11 @@ import org.isf.patconsensus.model.PatientConsensus;
 import org.isf.patient.manager.PatientBrowserManager;
 import org.isf.patient.model.Patient;
 import org.isf.patient.model.PatientProfilePhoto;
+import org.isf.utils.event.EntityEvent;
+import org.isf.utils.event.GuiEventBus;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.gui.OHServiceExceptionUtil;
-import org.isf.utils.image.ImageUtil;
+import org.isf.utils.image.EncodedImage;
 import org.isf.utils.jobjects.GoodDateChooser;
 import org.isf.utils.jobjects.MessageDialog;
 import org.isf.video.gui.PatientPhotoPanel;
@@ -127,6 +128,7 @@ public class PatientInsertExtended extends JDialog {
 		for (EventListener listener : listeners) {
 			((PatientListener) listener).patientInserted(event);
 		}
+		GuiEventBus.getInstance().publish(EntityEvent.inserted(Patient.class, aPatient.getCode(), aPatient));
 	}
 
 	private void firePatientUpdated(Patient aPatient) {
@@ -140,6 +142,7 @@ public class PatientInsertExtended extends JDialog {
 		for (EventListener listener : listeners) {
 			((PatientListener) listener).patientUpdated(event);
 		}
+		GuiEventBus.getInstance().publish(EntityEvent.updated(Patient.class, aPatient.getCode(), aPatient));
 	}
 
 	// COMPONENTS: Main
@@ -151,6 +154,7 @@ public class PatientInsertExtended extends JDialog {
 	private PatientConsensus consensus;
 
 	private PatientBrowserManager patientBrowserManager = Context.getApplicationContext().getBean(PatientBrowserManager.class);
+	private PatientPhotoService patientPhotoService = Context.getApplicationContext().getBean(PatientPhotoService.class);
 	private AgeTypeBrowserManager ageTypeBrowserManager = Context.getApplicationContext().getBean(AgeTypeBrowserManager.class);
 
 	// COMPONENTS: Data
@@ -615,6 +619,7 @@ public class PatientInsertExtended extends JDialog {
 							patientHistory.setPatientId(patient.getCode());
 							patientHistoryManager.saveOrUpdate(patientHistory);
 						}
+						patientPhotoService.invalidate(patient.getCode());
 						firePatientUpdated(patient);
 						dispose();
 					} catch (OHServiceException ex) {
@@ -2146,9 +2151,7 @@ public class PatientInsertExtended extends JDialog {
 			jRightPanel = new JPanel(new BorderLayout());
 
 			try {
-				PatientProfilePhoto photo = this.patientBrowserManager.retrievePatientProfilePhoto(patient);
-				Image image = photo != null ? photo.getPhotoAsImage() : null;
-				Image scaledImage = image != null ? ImageUtil.scaleImage(image, GeneralData.IMAGE_THUMBNAIL_MAX_WIDTH) : null;
+				Image scaledImage = patientPhotoService.getThumbnail(patient, GeneralData.IMAGE_THUMBNAIL_MAX_WIDTH);
 				photoPanel = new PatientPhotoPanel(this, patient.getCode(), scaledImage);
 
 			} catch (IOException ioException) {
@@ -2247,10 +2250,10 @@ public class PatientInsertExtended extends JDialog {
 		return jMotherNameTextField;
 	}
 
-	public void setPatientPhoto(BufferedImage photo) {
+	public void setPatientPhoto(EncodedImage photo) {
 		if (photo != null) {
 			PatientProfilePhoto patientProfilePhoto = new PatientProfilePhoto();
-			patientProfilePhoto.setPhoto(ImageUtil.imageToByte(photo));
+			patientProfilePhoto.setPhoto(photo.getBytes());
 			patient.setPatientProfilePhoto(patientProfilePhoto);
 		} else {
 			patient.setPatientProfilePhoto(null);
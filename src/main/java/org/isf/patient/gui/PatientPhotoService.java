@@ -0,0 +1,240 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.patient.gui;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import javax.imageio.ImageIO;
+import javax.swing.SwingUtilities;
+
+import org.imgscalr.Scalr;
+import org.isf.patient.manager.PatientBrowserManager;
+import org.isf.patient.model.Patient;
+import org.isf.patient.model.PatientProfilePhoto;
+import org.isf.utils.exception.OHServiceException;
+import org.isf.utils.exception.gui.OHServiceExceptionUtil;
+import org.isf.utils.image.ImageUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shared source of patient photo thumbnails for the summary, folder and edit screens.
+ * <p>
+ * Thumbnails are decoded and scaled once per patient and size and kept in a small LRU cache, so flipping through
+ * patients does not decode the same photos again. Decoding can be done in the background with
+ * {@link #loadThumbnail(Patient, int, Consumer)}; the cache entries of a patient must be dropped with
+ * {@link #invalidate(Integer)} when a new photo is saved.
+ */
+@Component
+public class PatientPhotoService implements DisposableBean {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PatientPhotoService.class);
+
+	private static final String NO_PHOTO_FILE = "rsc/images/nophoto.png";
+	private static final int MAX_CACHED_THUMBNAILS = 200;
+
+	private final PatientBrowserManager patientBrowserManager;
+
+	private final Map<ThumbnailKey, Optional<Image>> thumbnails = new LinkedHashMap<>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ThumbnailKey, Optional<Image>> eldest) {
+			return size() > MAX_CACHED_THUMBNAILS;
+		}
+	};
+
+	private final Map<Integer, Image> noPhotoThumbnails = new HashMap<>();
+
+	private final ExecutorService decoder = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "PatientPhotoDecoder");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private BufferedImage noPhoto;
+
+	public PatientPhotoService(PatientBrowserManager patientBrowserManager) {
+		this.patientBrowserManager = patientBrowserManager;
+	}
+
+	/**
+	 * Returns the thumbnail of the patient photo, decoding it on the calling thread if it is not cached yet
+	 *
+	 * @param patient the patient
+	 * @param maxDim the size of the longest side of the thumbnail
+	 * @return the thumbnail or {@code null} if the patient has no photo
+	 * @throws OHServiceException
+	 */
+	public Image getThumbnail(Patient patient, int maxDim) throws OHServiceException {
+		if (patient == null || patient.getCode() == null) {
+			return null;
+		}
+		ThumbnailKey key = new ThumbnailKey(patient.getCode(), maxDim);
+		Optional<Image> cached = getCached(key);
+		if (cached == null) {
+			cached = decode(patient, maxDim);
+			putCached(key, cached);
+		}
+		return cached.orElse(null);
+	}
+
+	/**
+	 * Delivers the thumbnail of the patient photo, or the "no photo" image, to {@code onLoaded} on the EDT.
+	 * <p>
+	 * Cached thumbnails are delivered immediately, otherwise the photo is decoded in the background.
+	 *
+	 * @param patient the patient
+	 * @param maxDim the size of the longest side of the thumbnail
+	 * @param onLoaded called on the EDT with the image to show
+	 */
+	public void loadThumbnail(Patient patient, int maxDim, Consumer<Image> onLoaded) {
+		if (patient == null || patient.getCode() == null) {
+			onLoaded.accept(getNoPhotoThumbnail(maxDim));
+			return;
+		}
+		ThumbnailKey key = new ThumbnailKey(patient.getCode(), maxDim);
+		Optional<Image> cached = getCached(key);
+		if (cached != null) {
+			onLoaded.accept(cached.orElseGet(() -> getNoPhotoThumbnail(maxDim)));
+			return;
+		}
+		decoder.execute(() -> {
+			try {
+				Optional<Image> thumbnail = decode(patient, maxDim);
+				putCached(key, thumbnail);
+				SwingUtilities.invokeLater(() -> onLoaded.accept(thumbnail.orElseGet(() -> getNoPhotoThumbnail(maxDim))));
+			} catch (OHServiceException e) {
+				SwingUtilities.invokeLater(() -> OHServiceExceptionUtil.showMessages(e));
+			}
+		});
+	}
+
+	/**
+	 * Returns the "no photo" image scaled to the given size, read from disk only once
+	 *
+	 * @param maxDim the size of the longest side of the image
+	 * @return the image or {@code null} if the file is missing
+	 */
+	public synchronized Image getNoPhotoThumbnail(int maxDim) {
+		Image scaled = noPhotoThumbnails.get(maxDim);
+		if (scaled == null) {
+			if (noPhoto == null) {
+				try {
+					noPhoto = ImageIO.read(new File(NO_PHOTO_FILE));
+				} catch (IOException ioe) {
+					LOGGER.error("{} is missing...", NO_PHOTO_FILE);
+					return null;
+				}
+			}
+			scaled = scale(noPhoto, maxDim);
+			noPhotoThumbnails.put(maxDim, scaled);
+		}
+		return scaled;
+	}
+
+	/**
+	 * Drops all the cached thumbnails of a patient, to be called when the patient photo changes
+	 *
+	 * @param patientCode the patient code
+	 */
+	public void invalidate(Integer patientCode) {
+		if (patientCode == null) {
+			return;
+		}
+		synchronized (thumbnails) {
+			thumbnails.keySet().removeIf(key -> key.patientCode.equals(patientCode));
+		}
+	}
+
+	@Override
+	public void destroy() {
+		decoder.shutdownNow();
+	}
+
+	private Optional<Image> getCached(ThumbnailKey key) {
+		synchronized (thumbnails) {
+			return thumbnails.get(key);
+		}
+	}
+
+	private void putCached(ThumbnailKey key, Optional<Image> thumbnail) {
+		synchronized (thumbnails) {
+			thumbnails.put(key, thumbnail);
+		}
+	}
+
+	private Optional<Image> decode(Patient patient, int maxDim) throws OHServiceException {
+		PatientProfilePhoto photo = patientBrowserManager.retrievePatientProfilePhoto(patient);
+		Image image = photo != null ? photo.getPhotoAsImage() : null;
+		if (image == null) {
+			return Optional.empty();
+		}
+		return Optional.of(scale(ImageUtil.toBufferedImage(image), maxDim));
+	}
+
+	private static Image scale(BufferedImage image, int maxDim) {
+		return Scalr.resize(image, Scalr.Method.QUALITY, maxDim);
+	}
+
+	private static final class ThumbnailKey {
+
+		private final Integer patientCode;
+		private final int maxDim;
+
+		private ThumbnailKey(Integer patientCode, int maxDim) {
+			this.patientCode = patientCode;
+			this.maxDim = maxDim;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ThumbnailKey)) {
+				return false;
+			}
+			ThumbnailKey other = (ThumbnailKey) obj;
+			return maxDim == other.maxDim && patientCode.equals(other.patientCode);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(patientCode, maxDim);
+		}
+	}
+}
@@ -26,11 +26,7 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.GridLayout;
-import java.awt.Image;
-import java.io.File;
-import java.io.IOException;
 
-import javax.imageio.ImageIO;
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -48,13 +44,7 @@ import org.isf.generaldata.MessageBundle;
 import org.isf.menu.manager.Context;
 import org.isf.patient.manager.PatientBrowserManager;
 import org.isf.patient.model.Patient;
-import org.isf.patient.model.PatientProfilePhoto;
-import org.isf.utils.exception.OHServiceException;
-import org.isf.utils.exception.gui.OHServiceExceptionUtil;
-import org.isf.utils.image.ImageUtil;
 import org.isf.utils.time.TimeTools;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * A class to compose a summary of the data of a given patient
@@ -63,7 +53,6 @@ import org.slf4j.LoggerFactory;
  */
 public class PatientSummary {
 
-	private static final Logger LOGGER = LoggerFactory.getLogger(PatientSummary.class);
 	private static final String UNKNOWN = MessageBundle.getMessage("angal.common.unknown.txt");
 
 	private Patient patient;
@@ -72,6 +61,7 @@ public class PatientSummary {
 	private int borderThickness = 10;
 
 	private PatientBrowserManager patientBrowserManager = Context.getApplicationContext().getBean(PatientBrowserManager.class);
+	private PatientPhotoService patientPhotoService = Context.getApplicationContext().getBean(PatientPhotoService.class);
 
 	public PatientSummary(Patient patient) {
 		super();
@@ -165,24 +155,11 @@ public class PatientSummary {
 		JLabel patientTOB = new JLabel(MessageBundle.getMessage("angal.patient.tobm") + ": " + filtra(patient.getBloodType()));
 
 		JLabel patientPhoto = new JLabel();
-		PatientProfilePhoto photo = null;
-		try {
-			photo = this.patientBrowserManager.retrievePatientProfilePhoto(patient);
-		} catch (OHServiceException e) {
-			OHServiceExceptionUtil.showMessages(e);
-		}
-
-		if (photo != null && photo.getPhotoAsImage() != null) {
-			patientPhoto.setIcon(
-							new ImageIcon(ImageUtil.scaleImage(photo.getPhotoAsImage(), GeneralData.IMAGE_THUMBNAIL_MAX_WIDTH)));
-		} else {
-			try {
-				Image noPhotoImage = ImageIO.read(new File("rsc/images/nophoto.png"));
-				patientPhoto.setIcon(new ImageIcon(ImageUtil.scaleImage(noPhotoImage, GeneralData.IMAGE_THUMBNAIL_MAX_WIDTH)));
-			} catch (IOException ioe) {
-				LOGGER.error("rsc/images/nophoto.png is missing...");
+		patientPhotoService.loadThumbnail(patient, GeneralData.IMAGE_THUMBNAIL_MAX_WIDTH, image -> {
+			if (image != null) {
+				patientPhoto.setIcon(new ImageIcon(image));
 			}
-		}
+		});
 
 		patientData.add(patientCode);
 		patientData.add(Box.createVerticalStrut(INSETSIZE));
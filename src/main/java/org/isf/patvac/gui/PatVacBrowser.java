@@ -31,7 +31,11 @@ import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.swing.BoxLayout;
 import javax.swing.ButtonGroup;
@@ -45,6 +49,7 @@ import javax.swing.JRadioButton;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.SpringLayout;
+import javax.swing.SwingUtilities;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableColumnModel;
 
@@ -104,7 +109,8 @@ public class PatVacBrowser extends ModalJFrame {
 	private JComboBox vaccineComboBox;
 	private JComboBox vaccineTypeComboBox;
 	private int pfrmHeight;
-	private List<PatientVaccine> lPatVac;
+	private final PatVacRegister register = new PatVacRegister();
+	private final AtomicLong loadGeneration = new AtomicLong();
 
 	private String[] pColumns = {
 			MessageBundle.getMessage("angal.common.date.txt").toUpperCase(),
@@ -204,8 +210,8 @@ public class PatVacBrowser extends ModalJFrame {
 				new PatVacEdit(myFrame, patientVaccine, true);
 
 				if (!last.equals(patientVaccine)) {
-					lPatVac.add(0, patientVaccine);
-					((PatVacBrowsingModel) jTable.getModel()).fireTableDataChanged();
+					register.insert(0, patientVaccine);
+					model.fireTableRowsInserted(0, 0);
 					updateRowCounter();
 					if (jTable.getRowCount() > 0) {
 						jTable.setRowSelectionInterval(0, 0);
@@ -232,7 +238,10 @@ public class PatVacBrowser extends ModalJFrame {
 				}
 
 				selectedrow = jTable.getSelectedRow();
-				patientVaccine = (PatientVaccine) model.getValueAt(selectedrow, -1);
+				patientVaccine = model.getPatientVaccine(selectedrow);
+				if (patientVaccine == null) {
+					return;
+				}
 
 				PatientVaccine last = new PatientVaccine(patientVaccine.getCode(),
 						patientVaccine.getProgr(),
@@ -244,7 +253,8 @@ public class PatVacBrowser extends ModalJFrame {
 				new PatVacEdit(myFrame, patientVaccine, false);
 
 				if (!last.equals(patientVaccine)) {
-					((PatVacBrowsingModel) jTable.getModel()).fireTableDataChanged();
+					register.set(selectedrow, patientVaccine);
+					model.fireTableRowsUpdated(selectedrow, selectedrow);
 					updateRowCounter();
 					if (jTable.getRowCount() > 0 && selectedrow > -1) {
 						jTable.setRowSelectionInterval(selectedrow, selectedrow);
@@ -270,7 +280,10 @@ public class PatVacBrowser extends ModalJFrame {
 					return;
 				}
 				selectedrow = jTable.getSelectedRow();
-				patientVaccine = (PatientVaccine) model.getValueAt(selectedrow, -1);
+				patientVaccine = model.getPatientVaccine(selectedrow);
+				if (patientVaccine == null) {
+					return;
+				}
 				int answer = MessageDialog.yesNo(null, "angal.patvac.deletepatientvaccine.fmt.msg",
 						patientVaccine.getVaccineDate().format(DATE_FORMATTER),
 						patientVaccine.getVaccine().getDescription(),
@@ -279,9 +292,9 @@ public class PatVacBrowser extends ModalJFrame {
 				if (answer == JOptionPane.YES_OPTION) {
 					try {
 						patVacManager.deletePatientVaccine(patientVaccine);
-						lPatVac.remove(jTable.getSelectedRow());
-						model.fireTableDataChanged();
-						jTable.updateUI();
+						register.remove(selectedrow);
+						model.fireTableRowsDeleted(selectedrow, selectedrow);
+						updateRowCounter();
 					} catch (OHServiceException e) {
 						OHServiceExceptionUtil.showMessages(e);
 					}
@@ -660,10 +673,13 @@ public class PatVacBrowser extends ModalJFrame {
 					return;
 				}
 
-				model = new PatVacBrowsingModel(vaccineTypeCode, vaccineCode, dateFrom.getDateStartOfDay(), dateTo.getDateEndOfDay(), sex, ageFrom, ageTo);
-				model.fireTableDataChanged();
-				jTable.updateUI();
-				updateRowCounter();
+				String typeCode = vaccineTypeCode;
+				String code = vaccineCode;
+				LocalDateTime from = dateFrom.getDateStartOfDay();
+				LocalDateTime to = dateTo.getDateEndOfDay();
+				int ageMin = ageFrom;
+				int ageMax = ageTo;
+				model.load(() -> patVacManager.getPatientVaccine(typeCode, code, from, to, sex, ageMin, ageMax));
 			});
 		}
 		return filterButton;
@@ -698,37 +714,85 @@ public class PatVacBrowser extends ModalJFrame {
 		return jTable;
 	}
 	
+	/**
+	 * A search of patient's vaccines
+	 */
+	private interface PatVacQuery {
+
+		List<PatientVaccine> find() throws OHServiceException;
+	}
+
 	/**
 	 * This class defines the model for the Table
+	 * <p>
+	 * The rows are kept in the columnar {@link PatVacRegister}: the search runs in background and the result is added
+	 * to the table page by page, so the first rows show up while the rest is still being converted. A new search
+	 * discards the pages of the previous one.
 	 */
 	class PatVacBrowsingModel extends DefaultTableModel {
 
 		private static final long serialVersionUID = 1L;
 
 		public PatVacBrowsingModel() {
-			try {
-				lPatVac = patVacManager.getPatientVaccine(!GeneralData.ENHANCEDSEARCH);
-			} catch (OHServiceException e) {
-				lPatVac = null;
-				OHServiceExceptionUtil.showMessages(e);
-			}
+			load(() -> patVacManager.getPatientVaccine(!GeneralData.ENHANCEDSEARCH));
 		}
 
-		public PatVacBrowsingModel(String vaccineTypeCode, String vaccineCode, LocalDateTime dateFrom, LocalDateTime dateTo, char sex, int ageFrom, int ageTo) {
+		void load(PatVacQuery query) {
+			long requested = loadGeneration.incrementAndGet();
+			register.clear();
+			fireTableDataChanged();
+			CompletableFuture.runAsync(() -> {
+				List<PatientVaccine> found;
+				try {
+					found = query.find();
+				} catch (OHServiceException e) {
+					SwingUtilities.invokeLater(() -> OHServiceExceptionUtil.showMessages(e));
+					return;
+				}
+				if (found == null) {
+					return;
+				}
+				for (int from = 0; from < found.size() && loadGeneration.get() == requested; from += PatVacRegister.PAGE_SIZE) {
+					PatVacRegister.Page page = new PatVacRegister.Page(found.subList(from, Math.min(found.size(), from + PatVacRegister.PAGE_SIZE)));
+					SwingUtilities.invokeLater(() -> {
+						if (loadGeneration.get() == requested) {
+							int first = register.size();
+							register.append(page);
+							fireTableRowsInserted(first, register.size() - 1);
+							updateRowCounter();
+						}
+					});
+				}
+			});
+		}
+
+		/**
+		 * Reads again the vaccination shown in a row, the table keeps only the displayed values
+		 *
+		 * @param row the row
+		 * @return the vaccination or {@code null} if it does not exist anymore
+		 */
+		PatientVaccine getPatientVaccine(int row) {
+			LocalDate day = register.getDate(row);
 			try {
-				lPatVac = patVacManager.getPatientVaccine(vaccineTypeCode, vaccineCode, dateFrom, dateTo, sex, ageFrom, ageTo);
+				List<PatientVaccine> sameDay = patVacManager.getPatientVaccine(null, register.getVaccine(row).getCode(), day.atStartOfDay(),
+						day.atTime(LocalTime.MAX), 'A', 0, 0);
+				for (PatientVaccine patVac : sameDay) {
+					if (patVac.getCode() == register.getCode(row)) {
+						return patVac;
+					}
+				}
 			} catch (OHServiceException e) {
-				lPatVac = null;
 				OHServiceExceptionUtil.showMessages(e);
+				return null;
 			}
+			MessageDialog.error(null, "angal.patvac.vaccinationnotfound.msg");
+			return null;
 		}
 
 		@Override
 		public int getRowCount() {
-			if (lPatVac == null) {
-				return 0;
-			}
-			return lPatVac.size();
+			return register.size();
 		}
 		
 		@Override
@@ -771,21 +835,18 @@ public class PatVacBrowser extends ModalJFrame {
 	    
 		@Override
 		public Object getValueAt(int r, int c) {
-			PatientVaccine patVac = lPatVac.get(r);
-			if (c == -1) {
-				return patVac;
-			} else if (getNumber(c) == 0) {
-				return patVac.getVaccineDate().format(DATE_FORMATTER);
+			if (getNumber(c) == 0) {
+				return register.getDate(r).format(DATE_FORMATTER);
 			} else if (getNumber(c) == 1) {
-				return patVac.getPatient().getName();
+				return register.getPatient(r);
 			} else if (getNumber(c) == 2) {
-				return patVac.getPatSex();
+				return register.getSex(r);
 			} else if (getNumber(c) == 3) {
-				return patVac.getPatAge();
+				return register.getAge(r);
 			} else if (getNumber(c) == 4) {
-				return patVac.getVaccine().getDescription();
+				return register.getVaccine(r).getDescription();
 			} else if (getNumber(c) == 5) {
-				return patVac.getVaccine().getVaccineType().getDescription();
+				return register.getVaccine(r).getVaccineType().getDescription();
 			}
 			return null;
 		}
@@ -798,7 +859,12 @@ public class PatVacBrowser extends ModalJFrame {
 	}
 
 	private void updateRowCounter() {
-		rowCounter.setText(rowCounterText + lPatVac.size());
+		rowCounter.setText(rowCounterText + register.size());
+		StringBuilder counts = new StringBuilder("<html>");
+		for (Map.Entry<String, Integer> count : register.getCountsByVaccine().entrySet()) {
+			counts.append(count.getKey()).append(": ").append(count.getValue()).append("<br>");
+		}
+		rowCounter.setToolTipText(register.size() == 0 ? null : counts.append("</html>").toString());
 	}
 
 }
@@ -0,0 +1,237 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.patvac.gui;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.isf.patvac.model.PatientVaccine;
+import org.isf.vaccine.model.Vaccine;
+
+/**
+ * The rows of {@link PatVacBrowser} kept as columns of primitive arrays instead of {@link PatientVaccine} entities.
+ * <p>
+ * Only what the table shows is retained: the vaccination code and day, the patient name, sex and age and an index into
+ * a dictionary of the vaccines, so a campaign register of hundreds of thousands of rows does not keep the patients and
+ * vaccines object graphs in memory. The number of vaccinations per vaccine is kept up to date on every change, so the
+ * totals never need a scan of the rows. Not thread safe: to be used on the EDT only.
+ */
+class PatVacRegister {
+
+	static final int PAGE_SIZE = 1000;
+
+	private int size;
+	private int[] codes = new int[0];
+	private int[] days = new int[0];
+	private String[] patients = new String[0];
+	private char[] sexes = new char[0];
+	private int[] ages = new int[0];
+	private int[] vaccineIndexes = new int[0];
+
+	private final List<Vaccine> vaccines = new ArrayList<>();
+	private final Map<String, Integer> vaccineIndexByCode = new HashMap<>();
+	private int[] vaccineCounts = new int[0];
+
+	/**
+	 * A page of rows extracted from the entities, so that the extraction can run in background
+	 */
+	static final class Page {
+
+		private final int length;
+		private final int[] codes;
+		private final int[] days;
+		private final String[] patients;
+		private final char[] sexes;
+		private final int[] ages;
+		private final Vaccine[] vaccines;
+
+		Page(List<PatientVaccine> patientVaccines) {
+			length = patientVaccines.size();
+			codes = new int[length];
+			days = new int[length];
+			patients = new String[length];
+			sexes = new char[length];
+			ages = new int[length];
+			vaccines = new Vaccine[length];
+			for (int i = 0; i < length; i++) {
+				PatientVaccine patVac = patientVaccines.get(i);
+				codes[i] = patVac.getCode();
+				days[i] = (int) patVac.getVaccineDate().toLocalDate().toEpochDay();
+				patients[i] = patVac.getPatient().getName();
+				sexes[i] = patVac.getPatSex();
+				ages[i] = patVac.getPatAge();
+				vaccines[i] = patVac.getVaccine();
+			}
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	void clear() {
+		size = 0;
+		codes = new int[0];
+		days = new int[0];
+		patients = new String[0];
+		sexes = new char[0];
+		ages = new int[0];
+		vaccineIndexes = new int[0];
+		vaccines.clear();
+		vaccineIndexByCode.clear();
+		vaccineCounts = new int[0];
+	}
+
+	/**
+	 * Appends a page at the end of the register
+	 *
+	 * @param page the page
+	 */
+	void append(Page page) {
+		ensureCapacity(size + page.length);
+		System.arraycopy(page.codes, 0, codes, size, page.length);
+		System.arraycopy(page.days, 0, days, size, page.length);
+		System.arraycopy(page.patients, 0, patients, size, page.length);
+		System.arraycopy(page.sexes, 0, sexes, size, page.length);
+		System.arraycopy(page.ages, 0, ages, size, page.length);
+		for (int i = 0; i < page.length; i++) {
+			int vaccine = indexOf(page.vaccines[i]);
+			vaccineIndexes[size + i] = vaccine;
+			vaccineCounts[vaccine]++;
+		}
+		size += page.length;
+	}
+
+	/**
+	 * @param row the position of the new row
+	 * @param patVac the new vaccination
+	 */
+	void insert(int row, PatientVaccine patVac) {
+		ensureCapacity(size + 1);
+		int moved = size - row;
+		System.arraycopy(codes, row, codes, row + 1, moved);
+		System.arraycopy(days, row, days, row + 1, moved);
+		System.arraycopy(patients, row, patients, row + 1, moved);
+		System.arraycopy(sexes, row, sexes, row + 1, moved);
+		System.arraycopy(ages, row, ages, row + 1, moved);
+		System.arraycopy(vaccineIndexes, row, vaccineIndexes, row + 1, moved);
+		size++;
+		vaccineIndexes[row] = -1;
+		set(row, patVac);
+	}
+
+	/**
+	 * @param row the row to replace
+	 * @param patVac the changed vaccination
+	 */
+	void set(int row, PatientVaccine patVac) {
+		if (vaccineIndexes[row] >= 0) {
+			vaccineCounts[vaccineIndexes[row]]--;
+		}
+		codes[row] = patVac.getCode();
+		days[row] = (int) patVac.getVaccineDate().toLocalDate().toEpochDay();
+		patients[row] = patVac.getPatient().getName();
+		sexes[row] = patVac.getPatSex();
+		ages[row] = patVac.getPatAge();
+		vaccineIndexes[row] = indexOf(patVac.getVaccine());
+		vaccineCounts[vaccineIndexes[row]]++;
+	}
+
+	void remove(int row) {
+		vaccineCounts[vaccineIndexes[row]]--;
+		int moved = size - row - 1;
+		System.arraycopy(codes, row + 1, codes, row, moved);
+		System.arraycopy(days, row + 1, days, row, moved);
+		System.arraycopy(patients, row + 1, patients, row, moved);
+		System.arraycopy(sexes, row + 1, sexes, row, moved);
+		System.arraycopy(ages, row + 1, ages, row, moved);
+		System.arraycopy(vaccineIndexes, row + 1, vaccineIndexes, row, moved);
+		size--;
+		patients[size] = null;
+	}
+
+	int getCode(int row) {
+		return codes[row];
+	}
+
+	LocalDate getDate(int row) {
+		return LocalDate.ofEpochDay(days[row]);
+	}
+
+	String getPatient(int row) {
+		return patients[row];
+	}
+
+	char getSex(int row) {
+		return sexes[row];
+	}
+
+	int getAge(int row) {
+		return ages[row];
+	}
+
+	Vaccine getVaccine(int row) {
+		return vaccines.get(vaccineIndexes[row]);
+	}
+
+	/**
+	 * @return the number of vaccinations per vaccine description, omitting the vaccines with none
+	 */
+	Map<String, Integer> getCountsByVaccine() {
+		Map<String, Integer> counts = new LinkedHashMap<>();
+		for (int i = 0; i < vaccines.size(); i++) {
+			if (vaccineCounts[i] > 0) {
+				counts.merge(vaccines.get(i).getDescription(), vaccineCounts[i], Integer::sum);
+			}
+		}
+		return counts;
+	}
+
+	private int indexOf(Vaccine vaccine) {
+		Integer index = vaccineIndexByCode.get(vaccine.getCode());
+		if (index == null) {
+			index = vaccines.size();
+			vaccines.add(vaccine);
+			vaccineIndexByCode.put(vaccine.getCode(), index);
+			vaccineCounts = Arrays.copyOf(vaccineCounts, vaccines.size());
+		}
+		return index;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= codes.length) {
+			return;
+		}
+		int grown = Math.max(capacity, codes.length + (codes.length >> 1));
+		codes = Arrays.copyOf(codes, grown);
+		days = Arrays.copyOf(days, grown);
+		patients = Arrays.copyOf(patients, grown);
+		sexes = Arrays.copyOf(sexes, grown);
+		ages = Arrays.copyOf(ages, grown);
+		vaccineIndexes = Arrays.copyOf(vaccineIndexes, grown);
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.session;
+
+import java.awt.AWTEvent;
+import java.awt.Toolkit;
+import java.awt.event.AWTEventListener;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.swing.Timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks the user activity for the session timeout.
+ * <p>
+ * Registered once as an {@link AWTEventListener} for mouse and key events, it only records the time of the last
+ * event. A single check every {@link #CHECK_PERIOD_MS} ms, on the Swing timer thread, restarts the logout
+ * {@link org.isf.utils.time.DelayTimer} when there was any activity since the previous check, so the timer is not
+ * touched on every event and no thread has to poll the mouse position.
+ */
+public final class ActivityTracker implements AWTEventListener {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ActivityTracker.class);
+
+	static final int CHECK_PERIOD_MS = 5000;
+
+	private static final long EVENT_MASK = AWTEvent.MOUSE_EVENT_MASK | AWTEvent.MOUSE_MOTION_EVENT_MASK | AWTEvent.MOUSE_WHEEL_EVENT_MASK
+					| AWTEvent.KEY_EVENT_MASK;
+
+	private static final ActivityTracker INSTANCE = new ActivityTracker();
+
+	private final LongAdder events = new LongAdder();
+	private final LongAdder refreshes = new LongAdder();
+	private final Timer check = new Timer(CHECK_PERIOD_MS, actionEvent -> checkActivity());
+	private volatile long lastActivity = System.currentTimeMillis();
+	private long lastChecked = lastActivity;
+	private boolean installed;
+
+	private ActivityTracker() {
+	}
+
+	public static ActivityTracker getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Starts tracking, to be called on the EDT; further calls do nothing
+	 */
+	public void install() {
+		if (installed) {
+			return;
+		}
+		installed = true;
+		Toolkit.getDefaultToolkit().addAWTEventListener(this, EVENT_MASK);
+		check.start();
+	}
+
+	@Override
+	public void eventDispatched(AWTEvent e) {
+		lastActivity = System.currentTimeMillis();
+		events.increment();
+	}
+
+	/**
+	 * Marks the user as active now, e.g. after a login
+	 */
+	public void touch() {
+		lastActivity = System.currentTimeMillis();
+	}
+
+	/**
+	 * @return the milliseconds since the last mouse or key event
+	 */
+	public long getIdleTime() {
+		return System.currentTimeMillis() - lastActivity;
+	}
+
+	/**
+	 * @return the mouse and key events seen since the start
+	 */
+	public long getEventCount() {
+		return events.sum();
+	}
+
+	/**
+	 * @return how many times the session timer has been restarted because of some activity
+	 */
+	public long getRefreshCount() {
+		return refreshes.sum();
+	}
+
+	private void checkActivity() {
+		long activity = lastActivity;
+		if (activity == lastChecked) {
+			return;
+		}
+		lastChecked = activity;
+		if (RestartUserSession.isLoggedIn() && RestartUserSession.getTimer() != null) {
+			RestartUserSession.getTimer().startTimer();
+			refreshes.increment();
+			LOGGER.trace("User active. Session refreshed.");
+		}
+	}
+}
@@ -32,6 +32,7 @@ public class LoginEventListener implements LoginListener {
 	public void loginInserted(AWTEvent e) {
 		if (e.getSource() instanceof User myUser) {
 			RestartUserSession.setUser(myUser);
+			ActivityTracker.getInstance().touch();
 			RestartUserSession.getTimer().startTimer();
 		}
 
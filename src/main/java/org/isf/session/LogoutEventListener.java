@@ -21,26 +21,22 @@
  */
 package org.isf.session;
 
-import java.awt.AWTEvent;
-import java.awt.event.AWTEventListener;
-import java.awt.event.KeyEvent;
-
 import org.isf.utils.time.DelayTimerCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class LogoutEventListener implements DelayTimerCallback {
 
-public class LogoutEventListener implements DelayTimerCallback, AWTEventListener {
+	private static final Logger LOGGER = LoggerFactory.getLogger(LogoutEventListener.class);
 
 	@Override
 	public void trigger() {
 		if (RestartUserSession.isLoggedIn()) {
+			ActivityTracker tracker = ActivityTracker.getInstance();
+			LOGGER.info("Session expired after {} s idle ({} input events, {} session refreshes so far)", tracker.getIdleTime() / 1000,
+							tracker.getEventCount(), tracker.getRefreshCount());
 			RestartUserSession.restartSession();
 		}
 	}
 
-	@Override
-	public void eventDispatched(AWTEvent e) {
-		if (RestartUserSession.isLoggedIn() && e instanceof KeyEvent && KeyEvent.KEY_PRESSED == e.getID() && RestartUserSession.getTimer() != null ) {
-			RestartUserSession.getTimer().startTimer();
-		}
-	}
-
 }
@@ -36,6 +36,10 @@ public class RestartUserSession extends UserSession {
 	
 	private static final int LOGIN_FAILED = 2;
 	
+	/**
+	 * Closes the user windows and asks for a new login. When the main menu allows it the user is switched on the same
+	 * menu, otherwise a new main menu is built.
+	 */
 	public static void restartSession() {
 		List<Window> windows = Arrays.asList(Window.getWindows());
 		Runnable waitRunner = () -> {
@@ -44,13 +48,28 @@ public class RestartUserSession extends UserSession {
 
 					UserSession.removeUser();
 
+					MainMenu mainMenu = windows.stream()
+									.filter(MainMenu.class::isInstance)
+									.map(MainMenu.class::cast)
+									.filter(menu -> menu.isDisplayable() && menu.canSwitchUser())
+									.findFirst()
+									.orElse(null);
+
 					JFrame tmpJFrame = new JFrame();
 
 					windows.forEach(win -> {
-						win.dispose();
+						if (win == mainMenu) {
+							mainMenu.endSession();
+						} else {
+							win.dispose();
+						}
 					});
 
-					new Login(tmpJFrame);
+					if (mainMenu != null) {
+						new Login(tmpJFrame, mainMenu);
+					} else {
+						new Login(tmpJFrame);
+					}
 
 					if (!UserSession.isLoggedIn()) {
 						System.exit(LOGIN_FAILED);
@@ -58,9 +77,14 @@ public class RestartUserSession extends UserSession {
 
 					tmpJFrame.dispose();
 					
-					new MainMenu(getUser());
+					long start = System.currentTimeMillis();
+					if (mainMenu != null) {
+						mainMenu.startSession();
+					} else {
+						new MainMenu(getUser());
+					}
 					getTimer().startTimer();
-					LOGGER.debug("Session refreshed...");
+					LOGGER.debug("Session refreshed in {} ms{}", System.currentTimeMillis() - start, mainMenu != null ? " (user switch)" : "");
 
 				});
 			} catch (Exception exception) {
@@ -45,6 +45,7 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextArea;
+import javax.swing.Timer;
 import javax.swing.WindowConstants;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
@@ -65,6 +66,8 @@ import org.isf.utils.jobjects.ModalJFrame;
 public class SmsBrowser extends ModalJFrame {
 
 	private static final long serialVersionUID = 1L;
+
+	private static final int STATUS_REFRESH_MS = 2000;
 	
 	private JTable jSmsTable;
 	private JPanel jButtonPanel;
@@ -100,6 +103,8 @@ public class SmsBrowser extends ModalJFrame {
 	private LocalDateTime dateTo;
 	private JLabel jDateFromLabel;
 	private JLabel jDateToLabel;
+	private JLabel jDispatchLabel;
+	private Timer dispatchTimer;
 
 	/**
 	 * Create the frame.
@@ -129,6 +134,14 @@ public class SmsBrowser extends ModalJFrame {
 		setPreferredSize(new Dimension(width, eight));
 		pack();
 		setLocationRelativeTo(null);
+		dispatchTimer = new Timer(STATUS_REFRESH_MS, actionEvent -> updateDispatchStatus());
+		dispatchTimer.start();
+	}
+
+	@Override
+	public void dispose() {
+		dispatchTimer.stop();
+		super.dispose();
 	}
 	
 	private JPanel getJFilterPanel() {
@@ -138,6 +151,7 @@ public class SmsBrowser extends ModalJFrame {
 			jFilterPanel.add(getJFromDateChooser());
 			jFilterPanel.add(getJDateToLabel());
 			jFilterPanel.add(getJToDateChooser());
+			jFilterPanel.add(getJDispatchLabel());
 		}
 		return jFilterPanel;
 	}
@@ -156,6 +170,28 @@ public class SmsBrowser extends ModalJFrame {
 		return jDateToLabel;
 	}
 	
+	private JLabel getJDispatchLabel() {
+		if (jDispatchLabel == null) {
+			jDispatchLabel = new JLabel();
+			updateDispatchStatus();
+		}
+		return jDispatchLabel;
+	}
+
+	private void updateDispatchStatus() {
+		SmsDispatcher dispatcher = SmsDispatcher.getInstance();
+		if (!dispatcher.isStarted()) {
+			jDispatchLabel.setText(MessageBundle.getMessage("angal.sms.dispatchnotactive.txt"));
+			return;
+		}
+		SmsDispatcher.Statistics statistics = dispatcher.getStatistics();
+		jDispatchLabel.setText(MessageBundle.formatMessage("angal.sms.dispatchstatus.fmt.txt", statistics.getQueued(), statistics.getRetrying(),
+				statistics.getSentLastMinute(), statistics.getSent(), statistics.getFailed()));
+		jDispatchLabel.setToolTipText(statistics.getLastRun() != null
+				? MessageBundle.formatMessage("angal.sms.dispatchlastrun.fmt.txt", formatDateTime(statistics.getLastRun()))
+				: null);
+	}
+
 	private GoodDateChooser getJFromDateChooser() {
 		if (jFromDateChooser == null) {
 			jFromDateChooser = new GoodDateChooser(LocalDate.now());
@@ -268,13 +304,13 @@ public class SmsBrowser extends ModalJFrame {
 				if (indexes.length == 0) {
 					MessageDialog.error(null, "angal.common.pleaseselectarow.msg");
 				} else {
-					List<Sms> smsList = new ArrayList<>();
 					int answer = MessageDialog.yesNo(null, "angal.sms.deletetheselectedsms.msg");
-					if (answer == JOptionPane.YES_OPTION) {
-						for (int i : indexes) {
-							Sms sms = (Sms) jSmsTable.getValueAt(i, -1);
-							smsList.add(sms);
-						}
+					if (answer != JOptionPane.YES_OPTION) {
+						return;
+					}
+					List<Sms> smsList = new ArrayList<>(indexes.length);
+					for (int i : indexes) {
+						smsList.add((Sms) jSmsTable.getValueAt(i, -1));
 					}
 
 					try {
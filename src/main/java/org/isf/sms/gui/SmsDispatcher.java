@@ -0,0 +1,387 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.sms.gui;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.isf.generaldata.ConfigurationProperties;
+import org.isf.generaldata.GeneralData;
+import org.isf.menu.manager.Context;
+import org.isf.sms.manager.SmsManager;
+import org.isf.sms.model.Sms;
+import org.isf.sms.service.SmsSenderOperations;
+import org.isf.utils.exception.OHServiceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the scheduled SMS through the configured gateway, in place of a thread looping for the whole process.
+ * <p>
+ * Every {@code sms.gateway.thread.loop} seconds the SMS due are sent in batches of {@code sms.dispatch.batch.size}, a
+ * single gateway session per batch, at most {@code sms.dispatch.rate.per.minute} per minute. An SMS not sent is retried
+ * after {@code sms.dispatch.retry.delay} seconds, doubling the delay at each failure up to
+ * {@code sms.dispatch.retry.max.delay}; when the gateway itself cannot be initialized the whole dispatch backs off the
+ * same way. {@link #stop()} lets the SMS being sent complete. The figures of {@link #getStatistics()} are shown in the
+ * {@link SmsBrowser}.
+ */
+public final class SmsDispatcher {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SmsDispatcher.class);
+
+	private static final String FILE_PROPERTIES = "sms.properties";
+	private static final String PROPERTY_LOOP = "sms.gateway.thread.loop";
+	private static final String PROPERTY_BATCH_SIZE = "sms.dispatch.batch.size";
+	private static final String PROPERTY_RATE = "sms.dispatch.rate.per.minute";
+	private static final String PROPERTY_RETRY_DELAY = "sms.dispatch.retry.delay";
+	private static final String PROPERTY_RETRY_MAX_DELAY = "sms.dispatch.retry.max.delay";
+
+	private static final long STOP_TIMEOUT_SECONDS = 10;
+	private static final long RATE_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+	private static final SmsDispatcher INSTANCE = new SmsDispatcher();
+
+	/**
+	 * The figures of the dispatch, as shown to the user
+	 */
+	public static final class Statistics {
+
+		private final int queued;
+		private final int retrying;
+		private final int sentLastMinute;
+		private final long sent;
+		private final long failed;
+		private final LocalDateTime lastRun;
+
+		private Statistics(int queued, int retrying, int sentLastMinute, long sent, long failed, LocalDateTime lastRun) {
+			this.queued = queued;
+			this.retrying = retrying;
+			this.sentLastMinute = sentLastMinute;
+			this.sent = sent;
+			this.failed = failed;
+			this.lastRun = lastRun;
+		}
+
+		/**
+		 * @return the SMS due and not sent yet, at the last run
+		 */
+		public int getQueued() {
+			return queued;
+		}
+
+		/**
+		 * @return the SMS waiting to be retried after a failure
+		 */
+		public int getRetrying() {
+			return retrying;
+		}
+
+		/**
+		 * @return the SMS sent in the last minute
+		 */
+		public int getSentLastMinute() {
+			return sentLastMinute;
+		}
+
+		/**
+		 * @return the SMS sent since the start
+		 */
+		public long getSent() {
+			return sent;
+		}
+
+		/**
+		 * @return the failed attempts since the start
+		 */
+		public long getFailed() {
+			return failed;
+		}
+
+		/**
+		 * @return the time of the last run, {@code null} if not run yet
+		 */
+		public LocalDateTime getLastRun() {
+			return lastRun;
+		}
+	}
+
+	/**
+	 * The failures of an SMS, to delay the next attempt
+	 */
+	private static final class Retry {
+
+		private int attempts;
+		private long notBefore;
+	}
+
+	private int loopSeconds;
+	private int batchSize;
+	private int ratePerMinute;
+	private long retryDelayMillis;
+	private long retryMaxDelayMillis;
+
+	private boolean started;
+	private ScheduledExecutorService executor;
+
+	// changed by the dispatch thread only, read under lock by getStatistics()
+	private final Map<Integer, Retry> retries = new HashMap<>();
+	private final Deque<Long> sentTimes = new ArrayDeque<>();
+	private final Retry gatewayRetry = new Retry();
+	private int queued;
+	private long sent;
+	private long failed;
+	private LocalDateTime lastRun;
+
+	private SmsDispatcher() {
+	}
+
+	public static SmsDispatcher getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Reads the configuration and starts sending the SMS; does nothing if already started, e.g. when the session is
+	 * restarted
+	 */
+	public synchronized void start() {
+		if (started) {
+			return;
+		}
+		started = true;
+		Properties props = ConfigurationProperties.loadPropertiesFile(FILE_PROPERTIES, LOGGER);
+		if (props == null) {
+			props = new Properties();
+		}
+		loopSeconds = Math.max(1, readInt(props, PROPERTY_LOOP, 15));
+		batchSize = Math.max(1, readInt(props, PROPERTY_BATCH_SIZE, 10));
+		ratePerMinute = readInt(props, PROPERTY_RATE, 30);
+		retryDelayMillis = TimeUnit.SECONDS.toMillis(Math.max(1, readInt(props, PROPERTY_RETRY_DELAY, 60)));
+		retryMaxDelayMillis = Math.max(retryDelayMillis, TimeUnit.SECONDS.toMillis(readInt(props, PROPERTY_RETRY_MAX_DELAY, 3600)));
+
+		executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "SmsDispatcher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.scheduleWithFixedDelay(this::dispatch, 0, loopSeconds, TimeUnit.SECONDS);
+		LOGGER.info("SMS dispatcher started: every {} s, batches of {}, {} per minute.", loopSeconds, batchSize,
+				ratePerMinute > 0 ? ratePerMinute : "unlimited");
+	}
+
+	/**
+	 * Stops sending the SMS, waiting for the one being sent
+	 */
+	public void stop() {
+		ScheduledExecutorService current;
+		synchronized (this) {
+			started = false;
+			current = executor;
+			executor = null;
+		}
+		if (current == null) {
+			return;
+		}
+		current.shutdown();
+		try {
+			if (!current.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				current.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			current.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+		LOGGER.info("SMS dispatcher stopped.");
+	}
+
+	/**
+	 * @return {@code true} if the SMS are being sent
+	 */
+	public synchronized boolean isStarted() {
+		return started;
+	}
+
+	/**
+	 * @return the current figures of the dispatch
+	 */
+	public synchronized Statistics getStatistics() {
+		pruneSentTimes(System.currentTimeMillis());
+		return new Statistics(queued, retries.size(), sentTimes.size(), sent, failed, lastRun);
+	}
+
+	private void dispatch() {
+		try {
+			List<Sms> due = getDue();
+			long now = System.currentTimeMillis();
+			synchronized (this) {
+				lastRun = LocalDateTime.now();
+				queued = due.size();
+			}
+			if (due.isEmpty() || now < gatewayRetry.notBefore) {
+				return;
+			}
+			for (int from = 0; from < due.size() && !isStopping(); from += batchSize) {
+				if (!sendBatch(due.subList(from, Math.min(due.size(), from + batchSize)))) {
+					return;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			// the next run tries again
+			LOGGER.error("SMS dispatch failed.", e);
+		}
+	}
+
+	/**
+	 * @return the SMS scheduled until now, not sent and not waiting to be retried
+	 */
+	private List<Sms> getDue() throws OHServiceException {
+		SmsManager smsManager = Context.getApplicationContext().getBean(SmsManager.class);
+		LocalDateTime now = LocalDateTime.now();
+		long millis = System.currentTimeMillis();
+		List<Sms> due = new ArrayList<>();
+		List<Integer> pending = new ArrayList<>();
+		for (Sms sms : smsManager.getList()) {
+			if (sms.getSmsDateSent() != null || sms.getSmsDateSched().isAfter(now)) {
+				continue;
+			}
+			pending.add(sms.getSmsId());
+			Retry retry = retries.get(sms.getSmsId());
+			if (retry == null || millis >= retry.notBefore) {
+				due.add(sms);
+			}
+		}
+		synchronized (this) {
+			// SMS deleted or sent elsewhere
+			retries.keySet().retainAll(pending);
+		}
+		return due;
+	}
+
+	/**
+	 * Sends the SMS in a single gateway session
+	 *
+	 * @return {@code false} if the gateway is not available
+	 */
+	private boolean sendBatch(List<Sms> batch) throws OHServiceException, InterruptedException {
+		SmsSenderOperations sender = Context.getApplicationContext().getBean(SmsSenderOperations.class);
+		if (!sender.initialize()) {
+			synchronized (this) {
+				backOff(gatewayRetry);
+			}
+			LOGGER.warn("SMS gateway not available, {} SMS postponed of {} s.", batch.size(),
+					TimeUnit.MILLISECONDS.toSeconds(gatewayRetry.notBefore - System.currentTimeMillis()));
+			return false;
+		}
+		gatewayRetry.attempts = 0;
+		gatewayRetry.notBefore = 0;
+		SmsManager smsManager = Context.getApplicationContext().getBean(SmsManager.class);
+		try {
+			for (Sms sms : batch) {
+				if (isStopping()) {
+					break;
+				}
+				waitRate();
+				if (sender.sendSMS(sms, GeneralData.DEBUG)) {
+					sms.setSmsDateSent(LocalDateTime.now());
+					smsManager.saveOrUpdate(sms, false);
+					synchronized (this) {
+						retries.remove(sms.getSmsId());
+						sent++;
+						sentTimes.addLast(System.currentTimeMillis());
+					}
+				} else {
+					synchronized (this) {
+						Retry retry = retries.computeIfAbsent(sms.getSmsId(), id -> new Retry());
+						backOff(retry);
+						failed++;
+						LOGGER.warn("SMS {} to {} not sent (attempt {}), retried in {} s.", sms.getSmsId(), sms.getSmsNumber(), retry.attempts,
+								TimeUnit.MILLISECONDS.toSeconds(retry.notBefore - System.currentTimeMillis()));
+					}
+				}
+			}
+		} finally {
+			sender.terminate();
+		}
+		return true;
+	}
+
+	/**
+	 * Waits so that no more than {@link #ratePerMinute} SMS are sent in a minute
+	 */
+	private void waitRate() throws InterruptedException {
+		if (ratePerMinute <= 0) {
+			return;
+		}
+		while (true) {
+			long now = System.currentTimeMillis();
+			long wait;
+			synchronized (this) {
+				pruneSentTimes(now);
+				if (sentTimes.size() < ratePerMinute) {
+					return;
+				}
+				wait = sentTimes.peekFirst() + RATE_WINDOW_MILLIS - now;
+			}
+			Thread.sleep(Math.max(1, wait));
+		}
+	}
+
+	private void pruneSentTimes(long now) {
+		while (!sentTimes.isEmpty() && sentTimes.peekFirst() <= now - RATE_WINDOW_MILLIS) {
+			sentTimes.removeFirst();
+		}
+	}
+
+	private void backOff(Retry retry) {
+		retry.attempts++;
+		long delay = retryDelayMillis << Math.min(retry.attempts - 1, 20);
+		retry.notBefore = System.currentTimeMillis() + Math.min(delay, retryMaxDelayMillis);
+	}
+
+	private synchronized boolean isStopping() {
+		return !started || Thread.currentThread().isInterrupted();
+	}
+
+	private static int readInt(Properties props, String key, int defaultValue) {
+		String value = props.getProperty(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			int parsed = Integer.parseInt(value.trim());
+			return parsed >= 0 ? parsed : defaultValue;
+		} catch (NumberFormatException e) {
+			LOGGER.warn("Invalid value for {} in {}, using {}", key, FILE_PROPERTIES, defaultValue);
+			return defaultValue;
+		}
+	}
+}
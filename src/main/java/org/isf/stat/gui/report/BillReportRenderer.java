@@ -0,0 +1,163 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.stat.gui.report;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+import org.isf.stat.dto.JasperReportResultDto;
+import org.isf.utils.jobjects.MessageDialog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+
+/**
+ * Renders the bills and the receipts of {@link GenericReportBill} off the EDT.
+ * <p>
+ * Only the formats the print path needs are filled, and when both the PDF and the TXT/ZPL receipt are needed they are
+ * filled at the same time. The outcomes are delivered on the EDT in the same order the bills were submitted, so that
+ * e.g. the payment receipt is always offered before the bill. The render threads are kept alive between bills and
+ * {@link #warmUp(String...)} fills the bill reports once, so that the first checkout does not pay for loading the Jasper
+ * engine, the fonts and the report expressions.
+ */
+final class BillReportRenderer {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BillReportRenderer.class);
+
+	private static final String FOLDER = "rpt_base";
+	private static final String[] VARIANTS = { "", "PDF", "Txt" };
+
+	private static final BillReportRenderer INSTANCE = new BillReportRenderer();
+
+	/**
+	 * The fill of one format of a bill, run in background
+	 */
+	@FunctionalInterface
+	interface Fill {
+
+		JasperReportResultDto fill() throws Exception;
+	}
+
+	/**
+	 * What to do with the rendered bill, run on the EDT
+	 */
+	@FunctionalInterface
+	interface Delivery {
+
+		/**
+		 * @param pdf the PDF bill, {@code null} if not needed
+		 * @param txt the TXT/ZPL receipt, {@code null} if not needed
+		 */
+		void deliver(JasperReportResultDto pdf, JasperReportResultDto txt) throws Exception;
+	}
+
+	private final ExecutorService executor;
+	private CompletableFuture<Void> previous = CompletableFuture.completedFuture(null);
+
+	private BillReportRenderer() {
+		AtomicInteger counter = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(2, runnable -> {
+			Thread thread = new Thread(runnable, "BillReport-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	static BillReportRenderer getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Renders a bill, to be called on the EDT
+	 *
+	 * @param jasperFileName the bill report, for logging
+	 * @param pdfFill the fill of the PDF, {@code null} if not needed
+	 * @param txtFill the fill of the TXT/ZPL receipt, {@code null} if not needed
+	 * @param delivery called on the EDT with the rendered formats, after the bills submitted before
+	 */
+	void render(String jasperFileName, Fill pdfFill, Fill txtFill, Delivery delivery) {
+		long start = System.currentTimeMillis();
+		CompletableFuture<JasperReportResultDto> pdf = fill(pdfFill);
+		CompletableFuture<JasperReportResultDto> txt = fill(txtFill);
+		previous = CompletableFuture.allOf(previous, pdf, txt)
+						.handle((ignored, exception) -> null)
+						.thenAcceptAsync(ignored -> {
+							LOGGER.debug("Bill {} rendered in {} ms", jasperFileName, System.currentTimeMillis() - start);
+							try {
+								delivery.deliver(pdf.join(), txt.join());
+							} catch (CompletionException completionException) {
+								LOGGER.error("", completionException.getCause());
+								MessageDialog.error(null, "angal.stat.reporterror.msg");
+							} catch (Exception exception) {
+								LOGGER.error("", exception);
+								MessageDialog.error(null, "angal.stat.reporterror.msg");
+							}
+						}, SwingUtilities::invokeLater);
+	}
+
+	/**
+	 * Fills once, with no data, the existing variants of the bill reports; failures are ignored
+	 *
+	 * @param jasperFileNames the bill reports, without the variant suffix and {@code .jasper}
+	 */
+	void warmUp(String... jasperFileNames) {
+		long start = System.currentTimeMillis();
+		for (String jasperFileName : jasperFileNames) {
+			for (String variant : VARIANTS) {
+				File jasper = new File(FOLDER, jasperFileName + variant + ".jasper");
+				if (!jasper.isFile()) {
+					continue;
+				}
+				try {
+					JasperReport jasperReport = (JasperReport) JRLoader.loadObject(jasper);
+					JasperFillManager.fillReport(jasperReport, new HashMap<>());
+				} catch (Exception | LinkageError e) {
+					LOGGER.debug("Warm up of {} failed: {}", jasper, e.getMessage());
+				}
+			}
+		}
+		LOGGER.debug("Bill reports warmed up in {} ms", System.currentTimeMillis() - start);
+	}
+
+	private CompletableFuture<JasperReportResultDto> fill(Fill fill) {
+		if (fill == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return fill.fill();
+			} catch (Exception e) {
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+}
@@ -22,7 +22,6 @@
 package org.isf.stat.gui.report;
 
 import org.isf.menu.manager.Context;
-import org.isf.stat.dto.JasperReportResultDto;
 import org.isf.stat.manager.JasperReportsManager;
 import org.isf.utils.jobjects.MessageDialog;
 import org.slf4j.Logger;
@@ -36,8 +35,7 @@ public class DiseasesList extends DisplayReport {
 	public DiseasesList() {
 
 		try {
-			JasperReportResultDto jasperReportResultDto = jasperReportsManager.getDiseasesListPdf();
-			showReport(jasperReportResultDto);
+			showReportLater("DiseasesList", () -> jasperReportsManager.getDiseasesListPdf());
 		} catch (Exception e) {
 			LOGGER.error("", e);
 			MessageDialog.error(null, "angal.stat.reporterror.msg");
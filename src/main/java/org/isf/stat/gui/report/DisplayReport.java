@@ -21,6 +21,7 @@
  */
 package org.isf.stat.gui.report;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Locale;
 
@@ -28,23 +29,116 @@ import org.isf.generaldata.GeneralData;
 import org.isf.stat.dto.JasperReportResultDto;
 import org.isf.utils.jobjects.MessageDialog;
 
+import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.view.JasperViewer;
 
 public class DisplayReport {
 
+	/**
+	 * An export of a report to a file, run in background
+	 */
+	@FunctionalInterface
+	protected interface ReportExport {
+
+		void export() throws Exception;
+	}
+
+	/**
+	 * Fills the report in background with {@link ReportJobService} and shows it on the EDT when it is ready
+	 *
+	 * @param title the title shown while the report is in progress
+	 * @param fill the fill of the report
+	 */
+	protected void showReportLater(String title, ReportJobService.ReportWork<JasperReportResultDto> fill) {
+		ReportJobService.getInstance().submit(title, fill, this::showReport);
+	}
+
+	/**
+	 * As {@link #showReportLater(String, ReportJobService.ReportWork)}, serving the report from
+	 * {@link ReportResultCache} or {@link ReportArchive} when it was already filled with the same parameters
+	 *
+	 * @param title the title shown while the report is in progress
+	 * @param key the key of the result, {@code null} not to use the cache
+	 * @param refresh {@code true} to fill the report again even if cached
+	 * @param fill the fill of the report
+	 */
+	protected void showReportLater(String title, ReportResultCache.Key key, boolean refresh, ReportJobService.ReportWork<JasperReportResultDto> fill) {
+		if (key == null) {
+			showReportLater(title, fill);
+			return;
+		}
+		ReportResultCache cache = ReportResultCache.getInstance();
+		ReportJobService.getInstance().submit(title, () -> {
+			ReportResultCache.CachedReport cached = refresh ? null : cache.getReport(key);
+			if (cached == null && !refresh) {
+				cached = ReportArchive.getInstance().getReport(key);
+			}
+			if (cached == null) {
+				JasperReportResultDto result = fill.run();
+				cache.putReport(key, result);
+				ReportArchive.getInstance().update(key, result);
+				cached = new ReportResultCache.CachedReport(result.getJasperPrint(), result.getFilename());
+			}
+			return cached;
+		}, cached -> showReport(cached.getJasperPrint(), cached.getFilename()));
+	}
+
+	/**
+	 * Exports the report in background with {@link ReportJobService}
+	 *
+	 * @param title the title shown while the report is in progress
+	 * @param export the export of the report
+	 */
+	protected void exportReportLater(String title, ReportExport export) {
+		ReportJobService.getInstance().submit(title, () -> {
+			export.export();
+			return null;
+		}, result -> {
+		});
+	}
+
+	/**
+	 * As {@link #exportReportLater(String, ReportExport)}, copying the export from {@link ReportResultCache} when the
+	 * report was already exported with the same parameters
+	 *
+	 * @param title the title shown while the report is in progress
+	 * @param key the key of the result, {@code null} not to use the cache
+	 * @param refresh {@code true} to export the report again even if cached
+	 * @param exportFile the file chosen by the user
+	 * @param export the export of the report to {@code exportFile}
+	 */
+	protected void exportReportLater(String title, ReportResultCache.Key key, boolean refresh, File exportFile, ReportExport export) {
+		if (key == null) {
+			exportReportLater(title, export);
+			return;
+		}
+		ReportResultCache cache = ReportResultCache.getInstance();
+		String extension = exportFile.getName().substring(exportFile.getName().lastIndexOf('.') + 1);
+		exportReportLater(title, () -> {
+			if (refresh || !cache.copyExport(key, extension, exportFile)) {
+				export.export();
+				cache.putExport(key, extension, exportFile);
+			}
+		});
+	}
+
 	protected void showReport(JasperReportResultDto jasperReportResultDto) throws IOException {
-		if (jasperReportResultDto.getJasperPrint().getPages().isEmpty()) {
+		showReport(jasperReportResultDto.getJasperPrint(), jasperReportResultDto.getFilename());
+	}
+
+	protected void showReport(JasperPrint jasperPrint, String filename) throws IOException {
+		if (jasperPrint.getPages().isEmpty()) {
 			MessageDialog.info(null, "angal.common.documenthasnopages.msg");
 			return;
 		}
 		if (GeneralData.INTERNALVIEWER) {
 			JasperViewer.viewReport(
-					jasperReportResultDto.getJasperPrint(),
+					jasperPrint,
 					false,
 					new Locale(GeneralData.LANGUAGE));
 		} else {
 			Runtime rt = Runtime.getRuntime();
-			rt.exec(GeneralData.VIEWER + ' ' + jasperReportResultDto.getFilename());
+			rt.exec(GeneralData.VIEWER + ' ' + filename);
 		}
 	}
 }
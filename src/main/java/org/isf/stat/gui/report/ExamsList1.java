@@ -22,7 +22,6 @@
 package org.isf.stat.gui.report;
 
 import org.isf.menu.manager.Context;
-import org.isf.stat.dto.JasperReportResultDto;
 import org.isf.stat.manager.JasperReportsManager;
 import org.isf.utils.jobjects.MessageDialog;
 import org.slf4j.Logger;
@@ -35,8 +34,7 @@ public class ExamsList1 extends DisplayReport {
 
 	public ExamsList1() {
 		try {
-			JasperReportResultDto jasperReportResultDto = jasperReportsManager.getExamsListPdf();
-			showReport(jasperReportResultDto);
+			showReportLater("ExamsList", () -> jasperReportsManager.getExamsListPdf());
 		} catch (Exception e) {
 			LOGGER.error("", e);
 			MessageDialog.error(null, "angal.stat.reporterror.msg");
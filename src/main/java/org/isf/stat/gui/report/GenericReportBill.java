@@ -30,18 +30,14 @@ import org.isf.generaldata.TxtPrinter;
 import org.isf.menu.manager.Context;
 import org.isf.patient.model.Patient;
 import org.isf.serviceprinting.manager.PrintReceipt;
-import org.isf.stat.dto.JasperReportResultDto;
 import org.isf.stat.manager.JasperReportsManager;
 import org.isf.utils.jobjects.MessageDialog;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /*
  * Created on 15/Jun/08
  */
 public class GenericReportBill extends DisplayReport {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(GenericReportBill.class);
 	private JasperReportsManager jasperReportsManager = Context.getApplicationContext().getBean(JasperReportsManager.class);
 
 	public GenericReportBill(Integer billID, String jasperFileName) {
@@ -52,57 +48,59 @@ public class GenericReportBill extends DisplayReport {
 		
 		TxtPrinter.initialize();
 		
-		try {
-            JasperReportResultDto jasperReportPDFResultDto = jasperReportsManager.getGenericReportBillPdf(billID, jasperFileName, show, askForPrint);
-
-			if (show) {
-                showReport(jasperReportPDFResultDto);
-			}
-			
-			if (GeneralData.RECEIPTPRINTER) {
-				JasperReportResultDto jasperReportTxtResultDto = jasperReportsManager.getGenericReportBillTxt(billID, jasperFileName, show, askForPrint);
-				int print = JOptionPane.OK_OPTION;
-				if (askForPrint) {
-					print = MessageDialog.yesNo(null, "angal.genericreportbill.doyouwanttoprintreceipt.msg");
-				}
-				if (print != JOptionPane.OK_OPTION) {
-					return; //STOP
-				}
-				
-				if (TxtPrinter.MODE.equals("PDF")) {
-					new PrintReceipt(jasperReportPDFResultDto.getJasperPrint(), jasperReportPDFResultDto.getFilename());
-				} else if (TxtPrinter.MODE.equals("TXT") || TxtPrinter.MODE.equals("ZPL")) {
-					new PrintReceipt(jasperReportTxtResultDto.getJasperPrint(), jasperReportTxtResultDto.getFilename());
-				}
-			}
-		} catch (Exception e) {
-            LOGGER.error("", e);
-			MessageDialog.error(null, "angal.stat.reporterror.msg");
-        }
+		boolean printPdf = GeneralData.RECEIPTPRINTER && TxtPrinter.MODE.equals("PDF");
+		boolean printTxt = GeneralData.RECEIPTPRINTER && (TxtPrinter.MODE.equals("TXT") || TxtPrinter.MODE.equals("ZPL"));
+		BillReportRenderer.getInstance().render(jasperFileName,
+				show || printPdf ? () -> jasperReportsManager.getGenericReportBillPdf(billID, jasperFileName, show, askForPrint) : null,
+				printTxt ? () -> jasperReportsManager.getGenericReportBillTxt(billID, jasperFileName, show, askForPrint) : null,
+				(jasperReportPDFResultDto, jasperReportTxtResultDto) -> {
+					if (show) {
+						showReport(jasperReportPDFResultDto);
+					}
+					if (GeneralData.RECEIPTPRINTER) {
+						int print = JOptionPane.OK_OPTION;
+						if (askForPrint) {
+							print = MessageDialog.yesNo(null, "angal.genericreportbill.doyouwanttoprintreceipt.msg");
+						}
+						if (print != JOptionPane.OK_OPTION) {
+							return; //STOP
+						}
+						if (printPdf) {
+							new PrintReceipt(jasperReportPDFResultDto.getJasperPrint(), jasperReportPDFResultDto.getFilename());
+						} else if (printTxt) {
+							new PrintReceipt(jasperReportTxtResultDto.getJasperPrint(), jasperReportTxtResultDto.getFilename());
+						}
+					}
+				});
 	}
 	
 	public GenericReportBill(Integer billID, String jasperFileName, Patient patient, List<Integer> billListId, String dateFrom, String dateTo, boolean show, boolean askForPrint) {
-		try {
-			
-			JasperReportResultDto jasperReportPDFResultDto = jasperReportsManager.getGenericReportBillGroupedPdf(billID, jasperFileName, patient, billListId, dateFrom, dateTo, show, askForPrint);
-			
-			if (show) {
-				showReport(jasperReportPDFResultDto);
-			}
-			
-			if (GeneralData.RECEIPTPRINTER) {				
-				JasperReportResultDto jasperReportTxtResultDto = jasperReportsManager.getGenericReportBillGroupedTxt(billID, jasperFileName, patient, billListId, dateFrom, dateTo, show, askForPrint);
-				
-				int print = JOptionPane.OK_OPTION;
-				if (askForPrint) {
-					print = MessageDialog.yesNo(null, "angal.genericreportbill.doyouwanttoprintreceipt.msg");
-				}
-				if (print == JOptionPane.OK_OPTION) {
-					new PrintReceipt(jasperReportTxtResultDto.getJasperPrint(), jasperReportTxtResultDto.getFilename());
-				}
-			}
-		} catch (Exception exception) {
-			LOGGER.error(exception.getMessage(), exception);
-		}
-	}	
+		BillReportRenderer.getInstance().render(jasperFileName,
+				show ? () -> jasperReportsManager.getGenericReportBillGroupedPdf(billID, jasperFileName, patient, billListId, dateFrom, dateTo, show, askForPrint) : null,
+				GeneralData.RECEIPTPRINTER
+						? () -> jasperReportsManager.getGenericReportBillGroupedTxt(billID, jasperFileName, patient, billListId, dateFrom, dateTo, show, askForPrint)
+						: null,
+				(jasperReportPDFResultDto, jasperReportTxtResultDto) -> {
+					if (show) {
+						showReport(jasperReportPDFResultDto);
+					}
+					if (GeneralData.RECEIPTPRINTER) {
+						int print = JOptionPane.OK_OPTION;
+						if (askForPrint) {
+							print = MessageDialog.yesNo(null, "angal.genericreportbill.doyouwanttoprintreceipt.msg");
+						}
+						if (print == JOptionPane.OK_OPTION) {
+							new PrintReceipt(jasperReportTxtResultDto.getJasperPrint(), jasperReportTxtResultDto.getFilename());
+						}
+					}
+				});
+	}
+
+	/**
+	 * Loads and fills once the bill and payment receipt reports, so that the first checkout is as fast as the following
+	 * ones; meant to be called in background
+	 */
+	public static void warmUp() {
+		BillReportRenderer.getInstance().warmUp(GeneralData.PATIENTBILL, "PatientBillPayments");
+	}
 }
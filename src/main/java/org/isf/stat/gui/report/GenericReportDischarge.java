@@ -22,7 +22,6 @@
 package org.isf.stat.gui.report;
 
 import org.isf.menu.manager.Context;
-import org.isf.stat.dto.JasperReportResultDto;
 import org.isf.stat.manager.JasperReportsManager;
 import org.isf.utils.jobjects.MessageDialog;
 import org.slf4j.Logger;
@@ -38,8 +37,7 @@ public class GenericReportDischarge extends DisplayReport {
 
 	public GenericReportDischarge(int admID, int patID, String jasperFileName) {
 		try {
-			JasperReportResultDto jasperReportResultDto = jasperReportsManager.getGenericReportDischargePdf(admID, patID, jasperFileName);
-			showReport(jasperReportResultDto);
+			showReportLater(jasperFileName, () -> jasperReportsManager.getGenericReportDischargePdf(admID, patID, jasperFileName));
 		} catch (Exception e) {
 			LOGGER.error("", e);
 			MessageDialog.error(null, "angal.stat.reporterror.msg");
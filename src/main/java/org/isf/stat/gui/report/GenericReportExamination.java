@@ -22,7 +22,6 @@
 package org.isf.stat.gui.report;
 
 import org.isf.menu.manager.Context;
-import org.isf.stat.dto.JasperReportResultDto;
 import org.isf.stat.manager.JasperReportsManager;
 import org.isf.utils.jobjects.MessageDialog;
 import org.slf4j.Logger;
@@ -35,8 +34,7 @@ public class GenericReportExamination extends DisplayReport {
 
 	public GenericReportExamination(Integer patientID, Integer examId, String jasperFileName) {
 		try {
-			JasperReportResultDto jasperReportResultDto = jasperReportsManager.getGenericReportPatientExaminationPdf(patientID, examId, jasperFileName);
-			showReport(jasperReportResultDto);
+			showReportLater(jasperFileName, () -> jasperReportsManager.getGenericReportPatientExaminationPdf(patientID, examId, jasperFileName));
 		} catch (Exception e) {
 			LOGGER.error("", e);
 			MessageDialog.error(null, "angal.stat.reporterror.msg");
@@ -28,11 +28,8 @@ import javax.swing.JFileChooser;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 import org.isf.menu.manager.Context;
-import org.isf.stat.dto.JasperReportResultDto;
 import org.isf.stat.manager.JasperReportsManager;
 import org.isf.utils.excel.ExcelExporter;
-import org.isf.utils.exception.OHReportException;
-import org.isf.utils.exception.gui.OHServiceExceptionUtil;
 import org.isf.utils.jobjects.MessageDialog;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -63,15 +60,14 @@ public class GenericReportFromDateToDate extends DisplayReport {
 					if (!exportFile.getName().endsWith(extension)) {
 						exportFile = new File(exportFile.getAbsoluteFile() + "." + extension);
 					}
-					jasperReportsManager.getGenericReportFromDateToDateExcel(fromDate, toDate, jasperFileFolder, jasperFileName, exportFile.getAbsolutePath());
+					String exportPath = exportFile.getAbsolutePath();
+					exportReportLater(defaultName, () ->
+							jasperReportsManager.getGenericReportFromDateToDateExcel(fromDate, toDate, jasperFileFolder, jasperFileName, exportPath));
 				}
             } else {
-                JasperReportResultDto jasperReportResultDto = 
-                				jasperReportsManager.getGenericReportFromDateToDatePdf(fromDate, toDate, jasperFileFolder, jasperFileName);
-				showReport(jasperReportResultDto);
+                showReportLater(defaultName, () ->
+                		jasperReportsManager.getGenericReportFromDateToDatePdf(fromDate, toDate, jasperFileFolder, jasperFileName));
             }
-		} catch (OHReportException e) {
-			OHServiceExceptionUtil.showMessages(e);
 		} catch (Exception e) {
 			LOGGER.error("", e);
 			MessageDialog.error(null, "angal.stat.reporterror.msg");
@@ -79,7 +75,16 @@ public class GenericReportFromDateToDate extends DisplayReport {
 	}
 	
 	public GenericReportFromDateToDate(LocalDate fromDate, LocalDate toDate, String jasperFileFolder, String jasperFileName, String defaultName, boolean toExcel) {
+		this(fromDate, toDate, jasperFileFolder, jasperFileName, defaultName, toExcel, false);
+	}
+
+	/**
+	 * @param refresh {@code true} to run the report again even if a result for a closed period is in {@link ReportResultCache}
+	 */
+	public GenericReportFromDateToDate(LocalDate fromDate, LocalDate toDate, String jasperFileFolder, String jasperFileName, String defaultName,
+			boolean toExcel, boolean refresh) {
 		try {
+			ReportResultCache.Key key = ReportResultCache.getInstance().key(toDate, jasperFileFolder, jasperFileName, fromDate, toDate);
 			File defaultFilename = new File(jasperReportsManager.compileDefaultFilename(defaultName));
 
 			if (toExcel) {
@@ -93,15 +98,14 @@ public class GenericReportFromDateToDate extends DisplayReport {
 					if (!exportFile.getName().endsWith(extension)) {
 						exportFile = new File(exportFile.getAbsoluteFile() + "." + extension);
 					}
-					jasperReportsManager.getGenericReportFromDateToDateExcel(fromDate, toDate, jasperFileFolder, jasperFileName, exportFile.getAbsolutePath());
+					String exportPath = exportFile.getAbsolutePath();
+					exportReportLater(defaultName, key, refresh, exportFile, () ->
+							jasperReportsManager.getGenericReportFromDateToDateExcel(fromDate, toDate, jasperFileFolder, jasperFileName, exportPath));
 				}
             } else {
-                JasperReportResultDto jasperReportResultDto = 
-                				jasperReportsManager.getGenericReportFromDateToDatePdf(fromDate, toDate, jasperFileFolder, jasperFileName);
-				showReport(jasperReportResultDto);
+                showReportLater(defaultName, key, refresh, () ->
+                		jasperReportsManager.getGenericReportFromDateToDatePdf(fromDate, toDate, jasperFileFolder, jasperFileName));
             }
-		} catch (OHReportException e) {
-			OHServiceExceptionUtil.showMessages(e);
 		} catch (Exception e) {
 			LOGGER.error("", e);
 			MessageDialog.error(null, "angal.stat.reporterror.msg");
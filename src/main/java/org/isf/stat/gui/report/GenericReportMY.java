@@ -22,12 +22,12 @@
 package org.isf.stat.gui.report;
 
 import java.io.File;
+import java.time.YearMonth;
 
 import javax.swing.JFileChooser;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 import org.isf.menu.manager.Context;
-import org.isf.stat.dto.JasperReportResultDto;
 import org.isf.stat.manager.JasperReportsManager;
 import org.isf.utils.excel.ExcelExporter;
 import org.isf.utils.jobjects.MessageDialog;
@@ -44,7 +44,17 @@ public class GenericReportMY extends DisplayReport {
 	private JasperReportsManager jasperReportsManager = Context.getApplicationContext().getBean(JasperReportsManager.class);
 
 	public GenericReportMY(Integer month, Integer year, String jasperFileFolder, String jasperFileName, String defaultName, boolean toExcel) {
+		this(month, year, jasperFileFolder, jasperFileName, defaultName, toExcel, false);
+	}
+
+	/**
+	 * @param refresh {@code true} to run the report again even if a result for a closed month is in {@link ReportResultCache}
+	 */
+	public GenericReportMY(Integer month, Integer year, String jasperFileFolder, String jasperFileName, String defaultName, boolean toExcel,
+			boolean refresh) {
 		try {
+			ReportResultCache.Key key = ReportResultCache.getInstance().key(YearMonth.of(year, month).atEndOfMonth(), jasperFileFolder, jasperFileName,
+					month, year);
 			File defaultFilename = new File(jasperReportsManager.compileDefaultFilename(defaultName));
 
 			if (toExcel) {
@@ -57,12 +67,12 @@ public class GenericReportMY extends DisplayReport {
 					if (!exportFile.getName().endsWith(extension)) {
 						exportFile = new File(exportFile.getAbsoluteFile() + "." + extension);
 					}
-					jasperReportsManager.getGenericReportMYExcel(month, year, jasperFileFolder, jasperFileName, exportFile.getAbsolutePath());
+					String exportPath = exportFile.getAbsolutePath();
+					exportReportLater(defaultName, key, refresh, exportFile, () ->
+							jasperReportsManager.getGenericReportMYExcel(month, year, jasperFileFolder, jasperFileName, exportPath));
 				}
 			} else {
-				JasperReportResultDto jasperReportResultDto = 
-								jasperReportsManager.getGenericReportMYPdf(month, year, jasperFileFolder, jasperFileName);
-				showReport(jasperReportResultDto);
+				showReportLater(defaultName, key, refresh, () -> jasperReportsManager.getGenericReportMYPdf(month, year, jasperFileFolder, jasperFileName));
 			}
 		} catch (Exception e) {
 			LOGGER.error("", e);
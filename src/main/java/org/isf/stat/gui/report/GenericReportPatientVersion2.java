@@ -24,7 +24,6 @@ package org.isf.stat.gui.report;
 import java.time.LocalDateTime;
 
 import org.isf.menu.manager.Context;
-import org.isf.stat.dto.JasperReportResultDto;
 import org.isf.stat.manager.JasperReportsManager;
 import org.isf.utils.jobjects.MessageDialog;
 import org.slf4j.Logger;
@@ -37,9 +36,8 @@ public class GenericReportPatientVersion2 extends DisplayReport {
 
 	public GenericReportPatientVersion2(Integer patientID, String parametersString, LocalDateTime dateFrom, LocalDateTime dateTo, String jasperFileName) {
 		try {
-			JasperReportResultDto jasperReportResultDto = jasperReportsManager.getGenericReportPatientVersion2Pdf(patientID, parametersString, dateFrom, dateTo,
-					jasperFileName);
-			showReport(jasperReportResultDto);
+			showReportLater(jasperFileName, () ->
+					jasperReportsManager.getGenericReportPatientVersion2Pdf(patientID, parametersString, dateFrom, dateTo, jasperFileName));
 		} catch (Exception e) {
 			LOGGER.error("", e);
 			MessageDialog.error(null, "angal.stat.reporterror.msg");
@@ -31,7 +31,6 @@ import javax.swing.JFileChooser;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 import org.isf.menu.manager.Context;
-import org.isf.stat.dto.JasperReportResultDto;
 import org.isf.stat.manager.JasperReportsManager;
 import org.isf.utils.excel.ExcelExporter;
 import org.isf.utils.jobjects.MessageDialog;
@@ -47,11 +46,9 @@ public class GenericReportPharmaceuticalAMC extends DisplayReport {
 	public GenericReportPharmaceuticalAMC(LocalDateTime date, String jasperFileName, boolean toExcel) {
 		try {
 
-			if (date == null) {
-				date = TimeTools.getNow();
-			}
+			LocalDateTime amcDate = date != null ? date : TimeTools.getNow();
 
-			File defaultFilename = new File(compileAMCFilename(jasperFileName, date));
+			File defaultFilename = new File(compileAMCFilename(jasperFileName, amcDate));
 
 			if (toExcel) {
 				JFileChooser fcExcel = ExcelExporter.getJFileChooserExcel(defaultFilename);
@@ -63,11 +60,12 @@ public class GenericReportPharmaceuticalAMC extends DisplayReport {
 					if (!exportFile.getName().endsWith(extension)) {
 						exportFile = new File(exportFile.getAbsoluteFile() + "." + extension);
 					}
-					jasperReportsManager.getGenericReportPharmaceuticalAMCExcel(date, jasperFileName, exportFile.getAbsolutePath());
+					String exportPath = exportFile.getAbsolutePath();
+					exportReportLater(jasperFileName, () ->
+							jasperReportsManager.getGenericReportPharmaceuticalAMCExcel(amcDate, jasperFileName, exportPath));
 				}
 			} else {
-				JasperReportResultDto jasperReportResultDto = jasperReportsManager.GenericReportPharmaceuticalAMCPdf(date, jasperFileName);
-				showReport(jasperReportResultDto);
+				showReportLater(jasperFileName, () -> jasperReportsManager.GenericReportPharmaceuticalAMCPdf(amcDate, jasperFileName));
 			}
 		} catch (Exception e) {
 			LOGGER.error("", e);
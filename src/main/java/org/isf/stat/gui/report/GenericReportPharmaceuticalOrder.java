@@ -22,7 +22,6 @@
 package org.isf.stat.gui.report;
 
 import org.isf.menu.manager.Context;
-import org.isf.stat.dto.JasperReportResultDto;
 import org.isf.stat.manager.JasperReportsManager;
 import org.isf.utils.jobjects.MessageDialog;
 import org.slf4j.Logger;
@@ -38,8 +37,7 @@ public class GenericReportPharmaceuticalOrder extends DisplayReport{
 
     public GenericReportPharmaceuticalOrder(String jasperFileName) {
         try {
-            JasperReportResultDto jasperReportResultDto = jasperReportsManager.getGenericReportPharmaceuticalOrderPdf(jasperFileName);
-            showReport(jasperReportResultDto);
+            showReportLater(jasperFileName, () -> jasperReportsManager.getGenericReportPharmaceuticalOrderPdf(jasperFileName));
         } catch (Exception e) {
             LOGGER.error("", e);
             MessageDialog.error(null, "angal.stat.reporterror.msg");
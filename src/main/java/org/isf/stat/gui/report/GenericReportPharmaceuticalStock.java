@@ -28,7 +28,6 @@ import javax.swing.JFileChooser;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 import org.isf.menu.manager.Context;
-import org.isf.stat.dto.JasperReportResultDto;
 import org.isf.stat.manager.JasperReportsManager;
 import org.isf.utils.excel.ExcelExporter;
 import org.isf.utils.jobjects.MessageDialog;
@@ -58,12 +57,13 @@ public class GenericReportPharmaceuticalStock extends DisplayReport {
 					if (!exportFile.getName().endsWith(extension)) {
 						exportFile = new File(exportFile.getAbsoluteFile() + "." + extension);
 					}
-					jasperReportsManager.getGenericReportPharmaceuticalStockExcel(date, jasperFileName, exportFile.getAbsolutePath(), filter, groupBy, sortBy);
+					String exportPath = exportFile.getAbsolutePath();
+					exportReportLater(jasperFileName, () ->
+							jasperReportsManager.getGenericReportPharmaceuticalStockExcel(date, jasperFileName, exportPath, filter, groupBy, sortBy));
 				}
 			} else {
-				JasperReportResultDto jasperReportResultDto = jasperReportsManager.getGenericReportPharmaceuticalStockPdf(date, jasperFileName, filter, groupBy,
-						sortBy);
-				showReport(jasperReportResultDto);
+				showReportLater(jasperFileName, () ->
+						jasperReportsManager.getGenericReportPharmaceuticalStockPdf(date, jasperFileName, filter, groupBy, sortBy));
 			}
 		} catch (Exception e) {
 			LOGGER.error("", e);
@@ -33,7 +33,6 @@ import javax.swing.filechooser.FileNameExtensionFilter;
 import org.isf.generaldata.MessageBundle;
 import org.isf.medicals.model.Medical;
 import org.isf.menu.manager.Context;
-import org.isf.stat.dto.JasperReportResultDto;
 import org.isf.stat.manager.JasperReportsManager;
 import org.isf.utils.excel.ExcelExporter;
 import org.isf.utils.jobjects.MessageDialog;
@@ -67,13 +66,13 @@ public class GenericReportPharmaceuticalStockCard extends DisplayReport {
 					if (!exportFile.getName().endsWith(extension)) {
 						exportFile = new File(exportFile.getAbsoluteFile() + "." + extension);
 					}
-					jasperReportsManager.getGenericReportPharmaceuticalStockCardExcel(jasperFileName, exportFile.getAbsolutePath(), dateFrom, dateTo, medical,
-							ward);
+					String exportPath = exportFile.getAbsolutePath();
+					exportReportLater(jasperFileName, () ->
+							jasperReportsManager.getGenericReportPharmaceuticalStockCardExcel(jasperFileName, exportPath, dateFrom, dateTo, medical, ward));
 				}
 			} else {
-				JasperReportResultDto jasperReportResultDto = jasperReportsManager.getGenericReportPharmaceuticalStockCardPdf(jasperFileName,
-						defaultFilename.getName(), dateFrom, dateTo, medical, ward);
-				showReport(jasperReportResultDto);
+				showReportLater(jasperFileName, () ->
+						jasperReportsManager.getGenericReportPharmaceuticalStockCardPdf(jasperFileName, defaultFilename.getName(), dateFrom, dateTo, medical, ward));
 			}
 		} catch (Exception e) {
 			LOGGER.error("", e);
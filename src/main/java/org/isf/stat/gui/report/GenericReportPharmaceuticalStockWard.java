@@ -24,7 +24,6 @@ package org.isf.stat.gui.report;
 import java.time.LocalDateTime;
 
 import org.isf.menu.manager.Context;
-import org.isf.stat.dto.JasperReportResultDto;
 import org.isf.stat.manager.JasperReportsManager;
 import org.isf.utils.jobjects.MessageDialog;
 import org.isf.ward.model.Ward;
@@ -41,8 +40,7 @@ public class GenericReportPharmaceuticalStockWard extends DisplayReport {
 
 	public GenericReportPharmaceuticalStockWard(LocalDateTime date, String jasperFileName, Ward ward) {
 		try {
-			JasperReportResultDto jasperReportResultDto = jasperReportsManager.getGenericReportPharmaceuticalStockWardPdf(date, jasperFileName, ward);
-			showReport(jasperReportResultDto);
+			showReportLater(jasperFileName, () -> jasperReportsManager.getGenericReportPharmaceuticalStockWardPdf(date, jasperFileName, ward));
 		} catch (Exception e) {
 			LOGGER.error("", e);
 			MessageDialog.error(null, "angal.stat.reporterror.msg");
@@ -0,0 +1,242 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.stat.gui.report;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import org.isf.generaldata.GeneralData;
+import org.isf.stat.dto.JasperReportResultDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSaver;
+
+/**
+ * The monthly reports generated in advance by the report scheduler, kept in a local folder.
+ * <p>
+ * Each report is saved in a sub folder per month, as {@code <yyyy-MM>/<report>_<language>.pdf} together with its
+ * filled {@code .jrprint}, and indexed by the same {@link ReportResultCache.Key} of the interactive runs, so that
+ * {@link GenericReportMY} shows an archived report without filling it. Unlike the cache, the archive is not bounded by
+ * size but by the number of months kept. The reports hold patient data, so the folder is readable by its owner only.
+ * Safe to be used from the report threads.
+ */
+public final class ReportArchive {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReportArchive.class);
+
+	private static final String INDEX = "archive-index.properties";
+	private static final String PRINT = ".jrprint";
+	private static final String PDF = ".pdf";
+
+	private static final ReportArchive INSTANCE = new ReportArchive();
+
+	private Path folder = Paths.get("data", "rpt_archive");
+	private Properties index;
+
+	private ReportArchive() {
+	}
+
+	public static ReportArchive getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @param folder the archive folder
+	 */
+	public synchronized void setFolder(Path folder) {
+		this.folder = folder;
+		this.index = null;
+	}
+
+	/**
+	 * @param key the key of the report, as built for {@link GenericReportMY}
+	 * @return {@code true} if the report is archived
+	 */
+	public synchronized boolean contains(ReportResultCache.Key key) {
+		String entry = getIndex().getProperty(key.getDigest());
+		return entry != null && Files.isRegularFile(folder.resolve(entry + PRINT)) && Files.isRegularFile(folder.resolve(entry + PDF));
+	}
+
+	/**
+	 * @param key the key of the report
+	 * @return the archived report, {@code null} if not archived
+	 */
+	ReportResultCache.CachedReport getReport(ReportResultCache.Key key) {
+		Path print;
+		Path pdf;
+		synchronized (this) {
+			if (!contains(key)) {
+				return null;
+			}
+			String entry = getIndex().getProperty(key.getDigest());
+			print = folder.resolve(entry + PRINT);
+			pdf = folder.resolve(entry + PDF);
+		}
+		try {
+			JasperPrint jasperPrint = (JasperPrint) JRLoader.loadObject(print.toFile());
+			LOGGER.debug("Report {} served from the archive", pdf);
+			return new ReportResultCache.CachedReport(jasperPrint, pdf.toString());
+		} catch (JRException | ClassCastException e) {
+			LOGGER.warn("Archived report {} not readable, it will be filled again: {}", print, e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Archives a report
+	 *
+	 * @param key the key of the report
+	 * @param month the month of the report
+	 * @param jasperFileName the report file name without {@code .jasper}
+	 * @param result the report just filled
+	 * @throws IOException if the report cannot be saved
+	 */
+	public void put(ReportResultCache.Key key, YearMonth month, String jasperFileName, JasperReportResultDto result) throws IOException {
+		String entry = month + "/" + jasperFileName + '_' + GeneralData.LANGUAGE;
+		Path root;
+		synchronized (this) {
+			root = folder;
+		}
+		ReportResultCache.createPrivateDirectory(root);
+		Path dir = root.resolve(month.toString());
+		Files.createDirectories(dir);
+		Path print = Files.createTempFile(dir, jasperFileName, ".tmp");
+		try {
+			JRSaver.saveObject(result.getJasperPrint(), print.toFile());
+		} catch (JRException e) {
+			Files.deleteIfExists(print);
+			throw new IOException(e.getMessage(), e);
+		}
+		Path pdf = Files.createTempFile(dir, jasperFileName, ".tmp");
+		Files.copy(Paths.get(result.getFilename()), pdf, StandardCopyOption.REPLACE_EXISTING);
+		synchronized (this) {
+			Files.move(print, folder.resolve(entry + PRINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			Files.move(pdf, folder.resolve(entry + PDF), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			getIndex().setProperty(key.getDigest(), entry);
+			writeIndex();
+		}
+	}
+
+	/**
+	 * Replaces a report already archived, e.g. after it was filled again with the "refresh" action
+	 *
+	 * @param key the key of the report
+	 * @param result the report just filled
+	 */
+	void update(ReportResultCache.Key key, JasperReportResultDto result) {
+		String entry;
+		synchronized (this) {
+			if (!contains(key)) {
+				return;
+			}
+			entry = getIndex().getProperty(key.getDigest());
+		}
+		int slash = entry.indexOf('/');
+		String name = entry.substring(slash + 1, entry.lastIndexOf('_'));
+		try {
+			put(key, YearMonth.parse(entry.substring(0, slash)), name, result);
+		} catch (IOException | RuntimeException e) {
+			LOGGER.warn("Archived report {} not updated: {}", entry, e.getMessage());
+		}
+	}
+
+	/**
+	 * Deletes the months before the given one
+	 *
+	 * @param oldest the oldest month to keep
+	 */
+	public synchronized void prune(YearMonth oldest) {
+		Properties current = getIndex();
+		boolean changed = false;
+		for (String digest : current.stringPropertyNames()) {
+			if (YearMonth.parse(current.getProperty(digest).substring(0, 7)).isBefore(oldest)) {
+				current.remove(digest);
+				changed = true;
+			}
+		}
+		if (changed) {
+			writeIndex();
+		}
+		if (!Files.isDirectory(folder)) {
+			return;
+		}
+		try (Stream<Path> months = Files.list(folder)) {
+			months.filter(Files::isDirectory)
+							.filter(dir -> dir.getFileName().toString().matches("\\d{4}-\\d{2}"))
+							.filter(dir -> YearMonth.parse(dir.getFileName().toString()).isBefore(oldest))
+							.forEach(ReportArchive::delete);
+		} catch (IOException e) {
+			LOGGER.warn("Unable to prune the report archive: {}", e.getMessage());
+		}
+	}
+
+	private Properties getIndex() {
+		if (index == null) {
+			index = new Properties();
+			Path file = folder.resolve(INDEX);
+			if (Files.isRegularFile(file)) {
+				try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+					index.load(reader);
+				} catch (IOException | IllegalArgumentException e) {
+					LOGGER.warn("Report archive index not readable, the archived reports will be generated again: {}", e.getMessage());
+					index.clear();
+				}
+			}
+		}
+		return index;
+	}
+
+	private void writeIndex() {
+		try {
+			ReportResultCache.createPrivateDirectory(folder);
+			Path temp = Files.createTempFile(folder, "archive-index", ".tmp");
+			try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+				index.store(writer, "Open Hospital report archive");
+			}
+			Files.move(temp, folder.resolve(INDEX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			LOGGER.warn("Unable to save the report archive index: {}", e.getMessage());
+		}
+	}
+
+	private static void delete(Path dir) {
+		try (Stream<Path> files = Files.walk(dir)) {
+			files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+		} catch (IOException e) {
+			LOGGER.warn("Unable to delete {}: {}", dir, e.getMessage());
+		}
+	}
+}
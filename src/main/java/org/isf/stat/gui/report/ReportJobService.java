@@ -0,0 +1,215 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.stat.gui.report;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+import org.isf.utils.exception.OHServiceException;
+import org.isf.utils.exception.gui.OHServiceExceptionUtil;
+import org.isf.utils.jobjects.MessageDialog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the reports in background, so that the user can go on working while Jasper fills them.
+ * <p>
+ * At most {@link #MAX_RUNNING} reports are filled at the same time and at most {@link #MAX_QUEUED} more wait for their
+ * turn. The jobs are listed in a small "Reports in progress" window, where they can be cancelled. When a report is
+ * ready its result is handed over on the EDT, e.g. to {@link DisplayReport#showReport}. Jobs must be submitted on the
+ * EDT.
+ */
+public final class ReportJobService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReportJobService.class);
+
+	static final int MAX_RUNNING = 2;
+	static final int MAX_QUEUED = 16;
+
+	private static final ReportJobService INSTANCE = new ReportJobService();
+
+	/**
+	 * The work of a report, run in background
+	 */
+	@FunctionalInterface
+	public interface ReportWork<T> {
+
+		T run() throws Exception;
+	}
+
+	/**
+	 * What to do with the result of a report, run on the EDT
+	 */
+	@FunctionalInterface
+	public interface ReportResultHandler<T> {
+
+		void accept(T result) throws Exception;
+	}
+
+	private final ThreadPoolExecutor executor;
+	private final List<ReportJob> jobs = new ArrayList<>();
+	private ReportJobsPanel panel;
+
+	private ReportJobService() {
+		AtomicInteger counter = new AtomicInteger();
+		executor = new ThreadPoolExecutor(MAX_RUNNING, MAX_RUNNING, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_QUEUED), runnable -> {
+			Thread thread = new Thread(runnable, "ReportJob-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public static ReportJobService getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Queues a report
+	 *
+	 * @param title the title shown while the report is in progress
+	 * @param work the work done in background, e.g. the Jasper fill
+	 * @param onResult called on the EDT with the result, unless the job was cancelled
+	 * @return the job, or {@code null} if too many reports are already waiting
+	 */
+	public <T> ReportJob submit(String title, ReportWork<T> work, ReportResultHandler<T> onResult) {
+		ReportJob job = new ReportJob(title);
+		try {
+			job.future = executor.submit(() -> {
+				SwingUtilities.invokeLater(() -> started(job));
+				long start = System.currentTimeMillis();
+				try {
+					T result = work.run();
+					LOGGER.debug("Report '{}' ready in {} ms", title, System.currentTimeMillis() - start);
+					SwingUtilities.invokeLater(() -> completed(job, () -> onResult.accept(result)));
+				} catch (Throwable e) {
+					// errors too (e.g. out of memory filling a large report): the job must leave the queue
+					SwingUtilities.invokeLater(() -> completed(job, () -> {
+						throw e;
+					}));
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			MessageDialog.error(null, "angal.stat.toomanyreports.msg");
+			return null;
+		}
+		jobs.add(job);
+		getPanel().update(jobs);
+		return job;
+	}
+
+	/**
+	 * @return the jobs queued or running
+	 */
+	public List<ReportJob> getJobs() {
+		return new ArrayList<>(jobs);
+	}
+
+	void cancel(ReportJob job) {
+		if (job.future != null) {
+			// the Jasper fill may not stop at once: its result is dropped anyway
+			job.future.cancel(true);
+		}
+		job.cancelled = true;
+		jobs.remove(job);
+		LOGGER.debug("Report '{}' cancelled", job.getTitle());
+		getPanel().update(jobs);
+	}
+
+	private void started(ReportJob job) {
+		job.started = System.currentTimeMillis();
+		if (jobs.contains(job)) {
+			getPanel().update(jobs);
+		}
+	}
+
+	private void completed(ReportJob job, ResultDelivery delivery) {
+		if (job.cancelled) {
+			return;
+		}
+		jobs.remove(job);
+		getPanel().update(jobs);
+		try {
+			delivery.deliver();
+		} catch (OHServiceException e) {
+			OHServiceExceptionUtil.showMessages(e);
+		} catch (Throwable e) {
+			LOGGER.error("", e);
+			MessageDialog.error(null, "angal.stat.reporterror.msg");
+		}
+	}
+
+	private ReportJobsPanel getPanel() {
+		if (panel == null) {
+			panel = new ReportJobsPanel(this);
+		}
+		return panel;
+	}
+
+	@FunctionalInterface
+	private interface ResultDelivery {
+
+		void deliver() throws Throwable;
+	}
+
+	/**
+	 * A report queued or running
+	 */
+	public static final class ReportJob {
+
+		private final String title;
+		private final long submitted = System.currentTimeMillis();
+		private volatile long started;
+		private volatile boolean cancelled;
+		private Future<?> future;
+
+		private ReportJob(String title) {
+			this.title = title;
+		}
+
+		public String getTitle() {
+			return title;
+		}
+
+		public long getSubmitted() {
+			return submitted;
+		}
+
+		/**
+		 * @return when the report started to be filled, 0 while it waits for its turn
+		 */
+		public long getStarted() {
+			return started;
+		}
+
+		public boolean isCancelled() {
+			return cancelled;
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.stat.gui.report;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.Toolkit;
+import java.util.List;
+
+import javax.swing.BorderFactory;
+import javax.swing.BoxLayout;
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.Timer;
+import javax.swing.WindowConstants;
+
+import org.isf.generaldata.MessageBundle;
+
+/**
+ * The "Reports in progress" window of {@link ReportJobService}: one line per job with its waiting or running time and
+ * a button to cancel it. It shows up when a report is queued and hides itself when no report is left.
+ */
+class ReportJobsPanel extends JFrame {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int REFRESH_MS = 1000;
+
+	private final transient ReportJobService service;
+	private final JPanel jobsPanel = new JPanel();
+	private final Timer refresh = new Timer(REFRESH_MS, actionEvent -> refreshTimes());
+	private transient List<ReportJobService.ReportJob> shown = List.of();
+	private JLabel[] timeLabels = new JLabel[0];
+
+	ReportJobsPanel(ReportJobService service) {
+		super(MessageBundle.getMessage("angal.stat.reportsinprogress.title"));
+		this.service = service;
+		setDefaultCloseOperation(WindowConstants.HIDE_ON_CLOSE);
+		setFocusableWindowState(false);
+		setAlwaysOnTop(true);
+		jobsPanel.setLayout(new BoxLayout(jobsPanel, BoxLayout.Y_AXIS));
+		jobsPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+		getContentPane().add(jobsPanel, BorderLayout.CENTER);
+	}
+
+	/**
+	 * @param jobs the jobs queued or running
+	 */
+	void update(List<ReportJobService.ReportJob> jobs) {
+		shown = List.copyOf(jobs);
+		jobsPanel.removeAll();
+		timeLabels = new JLabel[shown.size()];
+		for (int i = 0; i < shown.size(); i++) {
+			ReportJobService.ReportJob job = shown.get(i);
+			JPanel row = new JPanel(new FlowLayout(FlowLayout.LEFT));
+			JLabel title = new JLabel(job.getTitle());
+			title.setPreferredSize(new Dimension(220, title.getPreferredSize().height));
+			row.add(title);
+			timeLabels[i] = new JLabel();
+			timeLabels[i].setPreferredSize(new Dimension(120, title.getPreferredSize().height));
+			row.add(timeLabels[i]);
+			JButton cancel = new JButton(MessageBundle.getMessage("angal.common.cancel.btn"));
+			cancel.addActionListener(actionEvent -> service.cancel(job));
+			row.add(cancel);
+			jobsPanel.add(row);
+		}
+		refreshTimes();
+		if (shown.isEmpty()) {
+			refresh.stop();
+			setVisible(false);
+			return;
+		}
+		pack();
+		if (!isVisible()) {
+			Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
+			setLocation(screen.width - getWidth() - 10, screen.height - getHeight() - 60);
+			setVisible(true);
+		}
+		refresh.start();
+	}
+
+	private void refreshTimes() {
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < shown.size(); i++) {
+			ReportJobService.ReportJob job = shown.get(i);
+			if (job.getStarted() == 0) {
+				timeLabels[i].setText(MessageBundle.getMessage("angal.stat.reportjob.waiting.txt"));
+			} else {
+				timeLabels[i].setText(MessageBundle.formatMessage("angal.stat.reportjob.running.fmt.txt", (now - job.getStarted()) / 1000));
+			}
+		}
+	}
+}
@@ -0,0 +1,327 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.stat.gui.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.isf.generaldata.ConfigurationProperties;
+import org.isf.generaldata.GeneralData;
+import org.isf.stat.dto.JasperReportResultDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSaver;
+
+/**
+ * Keeps the results of the reports run for a closed period, so that the same report asked again with the same
+ * parameters is not filled again.
+ * <p>
+ * A result is identified by the database, the report file, the values of its parameters, the language and the size and
+ * modification time of the {@code .jasper} file, so a new version of the report or another database is never served
+ * from an old result. Only periods ended before today are cached: their data are not expected to change, and the
+ * "refresh" action of the report launcher fills the report again when they did. The results hold patient data, so they
+ * are files in the {@code data} directory of the installation readable by its owner only, bounded to {@link #MAX_SIZE}
+ * bytes, the least recently used ones being deleted first. Safe to be used from the report threads.
+ */
+public final class ReportResultCache {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReportResultCache.class);
+
+	static final long MAX_SIZE = 256L * 1024 * 1024;
+
+	private static final Path CACHE_DIR = Paths.get("data", "report-cache");
+	private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+	private static final String DATABASE_PROPERTIES = "database.properties";
+	private static final String PRINT = ".jrprint";
+	private static final String PDF = ".pdf";
+
+	private static final ReportResultCache INSTANCE = new ReportResultCache();
+
+	private final String database;
+
+	private ReportResultCache() {
+		Properties props = ConfigurationProperties.loadPropertiesFile(DATABASE_PROPERTIES, LOGGER);
+		database = props != null ? props.getProperty("jdbc.url", "") : "";
+	}
+
+	public static ReportResultCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @param lastDay the last day of the period of the report
+	 * @param jasperFileFolder the report folder
+	 * @param jasperFileName the report file name without {@code .jasper}
+	 * @param parameters the values of the report parameters, the last day included
+	 * @return the key of the result, {@code null} if the period is not closed or the report file is not found
+	 */
+	public Key key(LocalDate lastDay, String jasperFileFolder, String jasperFileName, Object... parameters) {
+		if (lastDay == null || !lastDay.isBefore(LocalDate.now())) {
+			return null;
+		}
+		File jasper = Paths.get(".", jasperFileFolder, jasperFileName + ".jasper").toFile();
+		if (!jasper.isFile()) {
+			return null;
+		}
+		String identity = String.join("|", database, jasperFileFolder, jasperFileName, GeneralData.LANGUAGE,
+				String.valueOf(jasper.length()), String.valueOf(jasper.lastModified()), Arrays.deepToString(parameters));
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(identity.getBytes(StandardCharsets.UTF_8));
+			return new Key(jasperFileName, HexFormat.of().formatHex(digest));
+		} catch (NoSuchAlgorithmException e) {
+			LOGGER.error("", e);
+			return null;
+		}
+	}
+
+	/**
+	 * @param key the key of the result
+	 * @return the report as filled the last time, {@code null} if not cached
+	 */
+	public CachedReport getReport(Key key) {
+		Path print = file(key, PRINT);
+		Path pdf = file(key, PDF);
+		if (!Files.isRegularFile(print) || !Files.isRegularFile(pdf)) {
+			return null;
+		}
+		try {
+			JasperPrint jasperPrint = (JasperPrint) JRLoader.loadObject(print.toFile());
+			touch(print, pdf);
+			LOGGER.debug("Report {} served from the cache", key.jasperFileName);
+			return new CachedReport(jasperPrint, pdf.toString());
+		} catch (JRException | ClassCastException e) {
+			LOGGER.warn("Cached report {} not readable, it will be filled again: {}", key.jasperFileName, e.getMessage());
+			delete(print, pdf);
+			return null;
+		}
+	}
+
+	/**
+	 * Stores a filled report; failures are only logged, the cache being an optimization
+	 *
+	 * @param key the key of the result
+	 * @param result the report just filled
+	 */
+	public void putReport(Key key, JasperReportResultDto result) {
+		try {
+			createPrivateDirectory(CACHE_DIR);
+			Path print = Files.createTempFile(CACHE_DIR, key.digest, ".tmp");
+			JRSaver.saveObject(result.getJasperPrint(), print.toFile());
+			Files.move(print, file(key, PRINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			store(key, Paths.get(result.getFilename()), PDF);
+		} catch (IOException | JRException e) {
+			LOGGER.warn("Report {} not cached: {}", key.jasperFileName, e.getMessage());
+		}
+	}
+
+	/**
+	 * Copies the cached export of a report
+	 *
+	 * @param key the key of the result
+	 * @param extension the export format, e.g. {@code xls}
+	 * @param target the file chosen by the user
+	 * @return {@code true} if the export was cached and copied
+	 */
+	public boolean copyExport(Key key, String extension, File target) {
+		Path cached = file(key, '.' + extension);
+		if (!Files.isRegularFile(cached)) {
+			return false;
+		}
+		try {
+			Files.copy(cached, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			touch(cached);
+			LOGGER.debug("Report {} exported from the cache", key.jasperFileName);
+			return true;
+		} catch (IOException e) {
+			LOGGER.warn("Cached export {} not copied, it will be exported again: {}", key.jasperFileName, e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * Stores the export of a report; failures are only logged, the cache being an optimization
+	 *
+	 * @param key the key of the result
+	 * @param extension the export format, e.g. {@code xls}
+	 * @param exported the file just exported
+	 */
+	public void putExport(Key key, String extension, File exported) {
+		try {
+			store(key, exported.toPath(), '.' + extension);
+		} catch (IOException e) {
+			LOGGER.warn("Export {} not cached: {}", key.jasperFileName, e.getMessage());
+		}
+	}
+
+	private void store(Key key, Path source, String suffix) throws IOException {
+		createPrivateDirectory(CACHE_DIR);
+		Path temp = Files.createTempFile(CACHE_DIR, key.digest, ".tmp");
+		Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+		Files.move(temp, file(key, suffix), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		evict();
+	}
+
+	/**
+	 * Creates a directory for files with patient data if missing, and makes it accessible by the owner only
+	 *
+	 * @param dir the directory
+	 * @throws IOException if the directory cannot be created
+	 */
+	public static void createPrivateDirectory(Path dir) throws IOException {
+		Files.createDirectories(dir);
+		if (Files.getFileStore(dir).supportsFileAttributeView("posix")) {
+			Files.setPosixFilePermissions(dir, OWNER_ONLY);
+			return;
+		}
+		File file = dir.toFile();
+		boolean restricted = file.setReadable(false, false) && file.setReadable(true, true)
+				&& file.setWritable(false, false) && file.setWritable(true, true)
+				&& file.setExecutable(false, false) && file.setExecutable(true, true);
+		if (!restricted) {
+			LOGGER.warn("Unable to restrict the access to {}", dir.toAbsolutePath());
+		}
+	}
+
+	/**
+	 * Deletes the least recently used files until the directory is within {@link #MAX_SIZE}
+	 */
+	private synchronized void evict() {
+		List<Path> files = list();
+		long size = files.stream().mapToLong(ReportResultCache::size).sum();
+		if (size <= MAX_SIZE) {
+			return;
+		}
+		files.sort(Comparator.comparingLong(file -> file.toFile().lastModified()));
+		for (Path file : files) {
+			if (size <= MAX_SIZE) {
+				break;
+			}
+			size -= size(file);
+			delete(file);
+		}
+	}
+
+	private static List<Path> list() {
+		if (!Files.isDirectory(CACHE_DIR)) {
+			return new ArrayList<>();
+		}
+		try (Stream<Path> files = Files.list(CACHE_DIR)) {
+			return files.filter(Files::isRegularFile).collect(Collectors.toList());
+		} catch (IOException e) {
+			LOGGER.warn("Report cache not readable: {}", e.getMessage());
+			return new ArrayList<>();
+		}
+	}
+
+	private static Path file(Key key, String suffix) {
+		return CACHE_DIR.resolve(key.digest + suffix);
+	}
+
+	private static long size(Path file) {
+		return file.toFile().length();
+	}
+
+	private static void touch(Path... files) {
+		long now = System.currentTimeMillis();
+		for (Path file : files) {
+			if (!file.toFile().setLastModified(now)) {
+				LOGGER.debug("Unable to touch {}", file);
+			}
+		}
+	}
+
+	private static void delete(Path... files) {
+		for (Path file : files) {
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				LOGGER.debug("Unable to delete {}: {}", file, e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Identifies a report result
+	 */
+	public static final class Key {
+
+		private final String jasperFileName;
+		private final String digest;
+
+		private Key(String jasperFileName, String digest) {
+			this.jasperFileName = jasperFileName;
+			this.digest = digest;
+		}
+
+		String getDigest() {
+			return digest;
+		}
+	}
+
+	/**
+	 * A report read from the cache
+	 */
+	public static final class CachedReport {
+
+		private final JasperPrint jasperPrint;
+		private final String filename;
+
+		CachedReport(JasperPrint jasperPrint, String filename) {
+			this.jasperPrint = jasperPrint;
+			this.filename = filename;
+		}
+
+		public JasperPrint getJasperPrint() {
+			return jasperPrint;
+		}
+
+		/**
+		 * @return the PDF file of the report
+		 */
+		public String getFilename() {
+			return filename;
+		}
+	}
+}
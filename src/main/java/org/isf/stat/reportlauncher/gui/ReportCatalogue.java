@@ -0,0 +1,335 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.stat.reportlauncher.gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.isf.stat.gui.report.ReportResultCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+
+/**
+ * Index of the reports in the {@code rpt_stat} and {@code rpt_extra} folders, used by {@link ReportLauncher}.
+ * <p>
+ * For each {@code .jasper} the index keeps the folder, the title in every language found in its {@code .properties}
+ * files and the names of the parameters to prompt, so that choosing a report needs no I/O. The index is saved in a
+ * local file and read back at the next start; each report is read again only when the size or the modification time of
+ * its {@code .jasper} or of one of its {@code .properties} files changed. The first request starts the refresh in
+ * background.
+ */
+public final class ReportCatalogue {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReportCatalogue.class);
+
+	static final List<String> FOLDERS = List.of("rpt_stat", "rpt_extra");
+
+	// in the data directory of the installation, writable by its owner only: the index tells which reports to run
+	private static final Path INDEX_FILE = Paths.get("data", "report-catalogue", "report-catalogue.properties");
+	private static final String JASPER = ".jasper";
+	private static final String PROPERTIES = ".properties";
+	private static final String TITLE = "jTitle";
+	private static final Pattern LOCALE_SUFFIX = Pattern.compile("_([a-z]{2,3}(?:_[A-Z]{2})?)");
+
+	private static final ReportCatalogue INSTANCE = new ReportCatalogue();
+
+	private CompletableFuture<List<Report>> reports;
+
+	private ReportCatalogue() {
+	}
+
+	public static ReportCatalogue getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @return the reports, read from the index and checked against the report folders in background the first time
+	 */
+	public synchronized CompletableFuture<List<Report>> getReports() {
+		if (reports == null || reports.isCompletedExceptionally()) {
+			reports = CompletableFuture.supplyAsync(this::refresh);
+		}
+		return reports;
+	}
+
+	/**
+	 * Forgets the reports read, so that the next {@link #getReports()} checks the report folders again
+	 */
+	public synchronized void invalidate() {
+		reports = null;
+	}
+
+	private List<Report> refresh() {
+		long start = System.currentTimeMillis();
+		Map<String, Report> indexed = readIndex();
+		List<Report> current = new ArrayList<>();
+		int read = 0;
+		for (String folder : FOLDERS) {
+			Path dir = Paths.get(".", folder);
+			if (!Files.isDirectory(dir)) {
+				continue;
+			}
+			List<Path> files;
+			try (Stream<Path> walk = Files.walk(dir)) {
+				files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+			} catch (IOException e) {
+				LOGGER.error("Unable to list the reports in {}.", folder, e);
+				continue;
+			}
+			for (Path jasper : files) {
+				String fileName = jasper.getFileName().toString();
+				if (!fileName.endsWith(JASPER)) {
+					continue;
+				}
+				String name = fileName.substring(0, fileName.length() - JASPER.length());
+				Map<String, Path> propertiesByLocale = getPropertiesByLocale(jasper.getParent(), name, files);
+				String path = jasper.toAbsolutePath().normalize().toString();
+				String signature = signature(jasper, propertiesByLocale.values());
+				Report report = indexed.get(path);
+				if (report == null || !report.signature.equals(signature) || !report.folder.equals(folder) || !report.name.equals(name)) {
+					report = read(jasper.toFile(), folder, name, signature, propertiesByLocale);
+					read++;
+				}
+				current.add(report);
+			}
+		}
+		if (read > 0 || current.size() != indexed.size()) {
+			writeIndex(current);
+		}
+		LOGGER.debug("Report catalogue: {} reports, {} read again, in {} ms", current.size(), read, System.currentTimeMillis() - start);
+		return Collections.unmodifiableList(current);
+	}
+
+	/*
+	 * The base properties file has the empty locale
+	 */
+	private static Map<String, Path> getPropertiesByLocale(Path dir, String name, List<Path> files) {
+		Map<String, Path> propertiesByLocale = new TreeMap<>();
+		for (Path file : files) {
+			String fileName = file.getFileName().toString();
+			if (!file.getParent().equals(dir) || !fileName.startsWith(name) || !fileName.endsWith(PROPERTIES)) {
+				continue;
+			}
+			String suffix = fileName.substring(name.length(), fileName.length() - PROPERTIES.length());
+			if (suffix.isEmpty()) {
+				propertiesByLocale.put("", file);
+			} else {
+				Matcher matcher = LOCALE_SUFFIX.matcher(suffix);
+				if (matcher.matches()) {
+					propertiesByLocale.put(matcher.group(1), file);
+				}
+			}
+		}
+		return propertiesByLocale;
+	}
+
+	private static String signature(Path jasper, Iterable<Path> properties) {
+		StringBuilder signature = new StringBuilder();
+		File file = jasper.toFile();
+		signature.append(file.length()).append(':').append(file.lastModified());
+		for (Path path : properties) {
+			file = path.toFile();
+			signature.append('|').append(file.getName()).append(':').append(file.length()).append(':').append(file.lastModified());
+		}
+		return signature.toString();
+	}
+
+	private static Report read(File jasper, String folder, String name, String signature, Map<String, Path> propertiesByLocale) {
+		Map<String, String> titles = new HashMap<>();
+		for (Map.Entry<String, Path> properties : propertiesByLocale.entrySet()) {
+			Properties props = new Properties();
+			try (Reader reader = Files.newBufferedReader(properties.getValue(), StandardCharsets.UTF_8)) {
+				props.load(reader);
+			} catch (IOException e) {
+				LOGGER.error("Unable to read {}.", properties.getValue(), e);
+				continue;
+			}
+			String title = props.getProperty(TITLE);
+			if (title != null && !title.isEmpty()) {
+				titles.put(properties.getKey(), title);
+			}
+		}
+		List<String> parameters = new ArrayList<>();
+		if (!titles.isEmpty()) {
+			// only the launchable reports have a title, the subreports are not loaded
+			try {
+				JasperReport jasperReport = (JasperReport) JRLoader.loadObject(jasper);
+				for (JRParameter parameter : jasperReport.getParameters()) {
+					if (!parameter.isSystemDefined() && parameter.isForPrompting()) {
+						parameters.add(parameter.getName());
+					}
+				}
+			} catch (JRException e) {
+				LOGGER.error("Unable to read the parameters of {}.", jasper, e);
+			}
+		}
+		return new Report(jasper, folder, name, signature, titles, parameters);
+	}
+
+	private static Map<String, Report> readIndex() {
+		Map<String, Report> indexed = new HashMap<>();
+		if (!Files.isRegularFile(INDEX_FILE)) {
+			return indexed;
+		}
+		Properties index = new Properties();
+		try (Reader reader = Files.newBufferedReader(INDEX_FILE, StandardCharsets.UTF_8)) {
+			index.load(reader);
+		} catch (IOException | IllegalArgumentException e) {
+			LOGGER.warn("Report catalogue index not readable, it will be built again: {}", e.getMessage());
+			return indexed;
+		}
+		int count = Integer.parseInt(index.getProperty("reports", "0"));
+		for (int i = 0; i < count; i++) {
+			String prefix = "report." + i + '.';
+			String path = index.getProperty(prefix + "path");
+			if (path == null) {
+				continue;
+			}
+			Map<String, String> titles = new HashMap<>();
+			String titlePrefix = prefix + "title.";
+			for (String key : index.stringPropertyNames()) {
+				if (key.startsWith(titlePrefix)) {
+					titles.put(key.substring(titlePrefix.length()), index.getProperty(key));
+				}
+			}
+			String folder = index.getProperty(prefix + "folder");
+			String name = index.getProperty(prefix + "name");
+			if (!FOLDERS.contains(folder) || name == null || name.isEmpty() || name.contains("/") || name.contains("\\")) {
+				LOGGER.warn("Report catalogue index entry {} ignored, not a report of {}", path, FOLDERS);
+				continue;
+			}
+			String parameters = index.getProperty(prefix + "parameters", "");
+			indexed.put(path, new Report(new File(path), folder, name, index.getProperty(prefix + "signature", ""), titles,
+							parameters.isEmpty() ? new ArrayList<>() : Arrays.asList(parameters.split(","))));
+		}
+		return indexed;
+	}
+
+	private static void writeIndex(List<Report> reports) {
+		Properties index = new Properties();
+		index.setProperty("reports", String.valueOf(reports.size()));
+		for (int i = 0; i < reports.size(); i++) {
+			Report report = reports.get(i);
+			String prefix = "report." + i + '.';
+			index.setProperty(prefix + "path", report.file.getAbsolutePath());
+			index.setProperty(prefix + "folder", report.folder);
+			index.setProperty(prefix + "name", report.name);
+			index.setProperty(prefix + "signature", report.signature);
+			index.setProperty(prefix + "parameters", String.join(",", report.parameters));
+			for (Map.Entry<String, String> title : report.titles.entrySet()) {
+				index.setProperty(prefix + "title." + title.getKey(), title.getValue());
+			}
+		}
+		try {
+			ReportResultCache.createPrivateDirectory(INDEX_FILE.getParent());
+			Path temp = Files.createTempFile(INDEX_FILE.getParent(), "report-catalogue", ".tmp");
+			try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+				index.store(writer, "Open Hospital report catalogue");
+			}
+			Files.move(temp, INDEX_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			LOGGER.warn("Unable to save the report catalogue index: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * A report in the catalogue
+	 */
+	public static final class Report {
+
+		private final File file;
+		private final String folder;
+		private final String name;
+		private final String signature;
+		private final Map<String, String> titles;
+		private final List<String> parameters;
+
+		private Report(File file, String folder, String name, String signature, Map<String, String> titles, List<String> parameters) {
+			this.file = file;
+			this.folder = folder;
+			this.name = name;
+			this.signature = signature;
+			this.titles = Collections.unmodifiableMap(new LinkedHashMap<>(titles));
+			this.parameters = Collections.unmodifiableList(new ArrayList<>(parameters));
+		}
+
+		public File getFile() {
+			return file;
+		}
+
+		/**
+		 * @return the report folder, {@code rpt_stat} or {@code rpt_extra}
+		 */
+		public String getFolder() {
+			return folder;
+		}
+
+		/**
+		 * @return the report file name without {@code .jasper}
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @param language the language, e.g. {@code "it"}
+		 * @return the title in the language, else the default title, else {@code null} for the reports not to be launched
+		 */
+		public String getTitle(String language) {
+			String title = titles.get(language);
+			return title != null ? title : titles.get("");
+		}
+
+		/**
+		 * @return the names of the parameters to prompt
+		 */
+		public List<String> getParameters() {
+			return parameters;
+		}
+	}
+}
@@ -26,34 +26,26 @@ import static org.isf.utils.Constants.DATE_FORMAT_DD_MM_YYYY;
 import java.awt.BorderLayout;
 import java.awt.FlowLayout;
 import java.awt.Rectangle;
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Properties;
-import java.util.stream.Collectors;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 import javax.swing.border.Border;
 
-import org.isf.generaldata.ConfigurationProperties;
 import org.isf.generaldata.GeneralData;
 import org.isf.generaldata.MessageBundle;
 import org.isf.stat.gui.report.GenericReportFromDateToDate;
@@ -66,11 +58,6 @@ import org.isf.xmpp.manager.Interaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import net.sf.jasperreports.engine.JRException;
-import net.sf.jasperreports.engine.JRParameter;
-import net.sf.jasperreports.engine.JasperReport;
-import net.sf.jasperreports.engine.util.JRLoader;
-
 /**
  * ReportLauncher - launch all the reports that have as parameters year and month
  * 					the class expects the initialization through year, month, name of the report (without .jasper)
@@ -86,6 +73,7 @@ public class ReportLauncher extends ModalJFrame {
 	private JPanel jContentPanel;
 	private JButton jLaunchReport;
 	private JButton jCSVButton;
+	private JButton jRefreshButton;
 	private JPanel jMonthPanel;
 	private JLabel jMonthLabel;
 	private JComboBox<String> jMonthComboBox;
@@ -98,8 +86,7 @@ public class ReportLauncher extends ModalJFrame {
 
 	private JComboBox<String> jRptComboBox;
 
-	private Map<String, File> reportNameFileMap;
-	private Map<String, List<String>> folderNameFileNameMap;
+	private Map<String, ReportCatalogue.Report> reportsByTitle = new HashMap<>();
 	private List<String> userInputParamNames;
 
 	private JComboBox<String> shareWith;
@@ -152,6 +139,7 @@ public class ReportLauncher extends ModalJFrame {
 				jButtonPanel.add(getComboShareReport(), null);
 			}
 			jButtonPanel.add(getJLaunchReportButton(), null);
+			jButtonPanel.add(getJRefreshButton(), null);
 			jButtonPanel.add(getJCSVButton(), null);
 			jButtonPanel.add(getJCloseButton(), null);
 		}
@@ -214,56 +202,13 @@ public class ReportLauncher extends ModalJFrame {
 			JLabel jRptLabel = new JLabel(MessageBundle.getMessage("angal.stat.report"));
 
 			jRptComboBox = new JComboBox<>();
-			List<File> jasperFilesInFolder = new LinkedList<>();
-			folderNameFileNameMap = new HashMap<>();
-			try {
-				List<File> loadedFiles = Files.walk(Paths.get("./rpt_stat"))
-								.filter(Files::isRegularFile)
-								.map(Path::toFile)
-								.filter(t -> t.getName().endsWith(".jasper"))
-								.collect(Collectors.toList());
-				jasperFilesInFolder.addAll(loadedFiles);
-				folderNameFileNameMap.put("rpt_stat", loadedFiles.stream().map(t -> t.getName().replace(".jasper", "")).collect(Collectors.toList()));
-
-				loadedFiles = Files.walk(Paths.get("./rpt_extra"))
-								.filter(Files::isRegularFile)
-								.map(Path::toFile)
-								.filter(t -> t.getName().endsWith(".jasper"))
-								.collect(Collectors.toList());
-				jasperFilesInFolder.addAll(loadedFiles);
-				folderNameFileNameMap.put("rpt_extra", loadedFiles.stream().map(t -> t.getName().replace(".jasper", "")).collect(Collectors.toList()));
-
-				reportNameFileMap = new HashMap<>();
-				List<String> jRptComboBoxList = new LinkedList<>();
-				for (File f : jasperFilesInFolder) {
-					try {
-						Properties props = ConfigurationProperties.loadPropertiesFile(
-										f.getName().replace(".jasper", '_' + new Locale(GeneralData.LANGUAGE).getLanguage() + ".properties"), LOGGER);
-
-						if (props != null && props.getProperty("jTitle") != null && !props.getProperty("jTitle").isEmpty()) {
-							reportNameFileMap.put(props.getProperty("jTitle"), f);
-							jRptComboBoxList.add(props.getProperty("jTitle"));
-						} else {
-							props = ConfigurationProperties.loadPropertiesFile(
-											f.getName().replace(".jasper", ".properties"), LOGGER);
-
-							if (props != null && props.getProperty("jTitle") != null && !props.getProperty("jTitle").isEmpty()) {
-								reportNameFileMap.put(props.getProperty("jTitle"), f);
-								jRptComboBoxList.add(props.getProperty("jTitle"));
-							}
-						}
-					} catch (Exception e) {
-						e.getStackTrace();
-						LOGGER.error("", e);
-					}
+			ReportCatalogue.getInstance().getReports().whenComplete((reports, throwable) -> SwingUtilities.invokeLater(() -> {
+				if (throwable != null) {
+					LOGGER.error("Exception in getJParameterSelectionPanel method.", throwable);
+					return;
 				}
-
-				Collections.sort(jRptComboBoxList);
-				jRptComboBoxList.forEach(t -> jRptComboBox.addItem(t));
-
-			} catch (IOException e) {
-				LOGGER.error("Exception in getJParameterSelectionPanel method.", e);
-			}
+				fillReports(reports);
+			}));
 
 			jRptComboBox.addActionListener(actionEvent -> {
 				if (actionEvent.getActionCommand() != null && actionEvent.getActionCommand().equalsIgnoreCase("comboBoxChanged")) {
@@ -324,37 +269,45 @@ public class ReportLauncher extends ModalJFrame {
 
 	}
 
+	private void fillReports(List<ReportCatalogue.Report> reports) {
+		String language = new Locale(GeneralData.LANGUAGE).getLanguage();
+		reportsByTitle = new HashMap<>();
+		for (ReportCatalogue.Report report : reports) {
+			String title = report.getTitle(language);
+			if (title != null) {
+				reportsByTitle.put(title, report);
+			}
+		}
+		List<String> jRptComboBoxList = new ArrayList<>(reportsByTitle.keySet());
+		Collections.sort(jRptComboBoxList);
+		jRptComboBoxList.forEach(t -> jRptComboBox.addItem(t));
+		selectAction();
+		pack();
+	}
+
 	protected void selectAction() {
-		File jasperFile = reportNameFileMap.get(jRptComboBox.getSelectedItem().toString());
-		if (jasperFile != null) {
-			try {
-				JasperReport jasperReport = (JasperReport) JRLoader.loadObject(jasperFile);
-				JRParameter[] params = jasperReport.getParameters();
-
-				List<JRParameter> userInputParams = Arrays.asList(params).stream().filter(t -> !t.isSystemDefined() && t.isForPrompting())
-								.collect(Collectors.toList());
-				userInputParamNames = userInputParams.stream().map(t -> t.getName()).collect(Collectors.toList());
-				if (userInputParamNames.contains("fromdate") || userInputParamNames.contains("todate")) {
-					jMonthComboBox.setVisible(false);
-					jMonthLabel.setVisible(false);
-					jYearComboBox.setVisible(false);
-					jYearLabel.setVisible(false);
-					jFromDateLabel.setVisible(true);
-					jFromDateField.setVisible(true);
-					jToDateLabel.setVisible(true);
-					jToDateField.setVisible(true);
-				} else if (userInputParamNames.contains("month") || userInputParamNames.contains("year")) {
-					jMonthComboBox.setVisible(true);
-					jMonthLabel.setVisible(true);
-					jYearComboBox.setVisible(true);
-					jYearLabel.setVisible(true);
-					jFromDateLabel.setVisible(false);
-					jFromDateField.setVisible(false);
-					jToDateLabel.setVisible(false);
-					jToDateField.setVisible(false);
-				}
-			} catch (JRException e) {
-				LOGGER.error("Exception in selectAction method.", e);
+		Object selected = jRptComboBox.getSelectedItem();
+		ReportCatalogue.Report report = selected != null ? reportsByTitle.get(selected.toString()) : null;
+		if (report != null) {
+			userInputParamNames = report.getParameters();
+			if (userInputParamNames.contains("fromdate") || userInputParamNames.contains("todate")) {
+				jMonthComboBox.setVisible(false);
+				jMonthLabel.setVisible(false);
+				jYearComboBox.setVisible(false);
+				jYearLabel.setVisible(false);
+				jFromDateLabel.setVisible(true);
+				jFromDateField.setVisible(true);
+				jToDateLabel.setVisible(true);
+				jToDateField.setVisible(true);
+			} else if (userInputParamNames.contains("month") || userInputParamNames.contains("year")) {
+				jMonthComboBox.setVisible(true);
+				jMonthLabel.setVisible(true);
+				jYearComboBox.setVisible(true);
+				jYearLabel.setVisible(true);
+				jFromDateLabel.setVisible(false);
+				jFromDateField.setVisible(false);
+				jToDateLabel.setVisible(false);
+				jToDateField.setVisible(false);
 			}
 		}
 	}
@@ -369,6 +322,16 @@ public class ReportLauncher extends ModalJFrame {
 		return jLaunchReport;
 	}
 
+	private JButton getJRefreshButton() {
+		if (jRefreshButton == null) {
+			jRefreshButton = new JButton(MessageBundle.getMessage("angal.stat.refreshreport.btn"));
+			jRefreshButton.setMnemonic(MessageBundle.getMnemonic("angal.stat.refreshreport.btn.key"));
+			jRefreshButton.setToolTipText(MessageBundle.getMessage("angal.stat.refreshreport.tooltip"));
+			jRefreshButton.addActionListener(actionEvent -> generateReport(false, true));
+		}
+		return jRefreshButton;
+	}
+
 	private JButton getJCSVButton() {
 		if (jCSVButton == null) {
 			jCSVButton = new JButton(MessageBundle.getMessage("angal.common.excel.btn"));
@@ -386,14 +349,21 @@ public class ReportLauncher extends ModalJFrame {
 	}
 
 	protected void generateReport(boolean toExcel) {
-		if (jRptComboBox.getSelectedItem() != null) {
+		generateReport(toExcel, false);
+	}
+
+	/**
+	 * @param toExcel {@code true} to export the report instead of showing it
+	 * @param refresh {@code true} to run the report again even if its result is cached
+	 */
+	protected void generateReport(boolean toExcel, boolean refresh) {
+		if (jRptComboBox.getSelectedItem() != null && userInputParamNames != null) {
+			ReportCatalogue.Report report = reportsByTitle.get(jRptComboBox.getSelectedItem().toString());
 			if (userInputParamNames.contains("fromdate") || userInputParamNames.contains("todate")) {
 				new GenericReportFromDateToDate(jFromDateField.getDate(), jToDateField.getDate(),
-								folderNameFileNameMap.get("rpt_stat").contains(
-												reportNameFileMap.get(jRptComboBox.getSelectedItem().toString()).getName().replace(".jasper", "")) ? "rpt_stat"
-																: "rpt_extra",
-								reportNameFileMap.get(jRptComboBox.getSelectedItem().toString()).getName().replace(".jasper", ""),
-								jRptComboBox.getSelectedItem().toString(), toExcel);
+								report.getFolder(),
+								report.getName(),
+								jRptComboBox.getSelectedItem().toString(), toExcel, refresh);
 				if (GeneralData.XMPPMODULEENABLED) {
 					String user = (String) shareWith.getSelectedItem();
 					CommunicationFrame frame = (CommunicationFrame) CommunicationFrame.getFrame();
@@ -407,11 +377,9 @@ public class ReportLauncher extends ModalJFrame {
 				int year = Integer.parseInt((String) jYearComboBox.getSelectedItem());
 
 				new GenericReportMY(month, year,
-								folderNameFileNameMap.get("rpt_stat").contains(
-												reportNameFileMap.get(jRptComboBox.getSelectedItem().toString()).getName().replace(".jasper", "")) ? "rpt_stat"
-																: "rpt_extra",
-								reportNameFileMap.get(jRptComboBox.getSelectedItem().toString()).getName().replace(".jasper", ""),
-								jRptComboBox.getSelectedItem().toString(), toExcel);
+								report.getFolder(),
+								report.getName(),
+								jRptComboBox.getSelectedItem().toString(), toExcel, refresh);
 				if (GeneralData.XMPPMODULEENABLED) {
 					String user = (String) shareWith.getSelectedItem();
 					CommunicationFrame frame = (CommunicationFrame) CommunicationFrame.getFrame();
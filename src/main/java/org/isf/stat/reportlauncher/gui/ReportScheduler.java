@@ -0,0 +1,248 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.stat.reportlauncher.gui;
+
+import java.nio.file.Paths;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.isf.generaldata.ConfigurationProperties;
+import org.isf.menu.manager.Context;
+import org.isf.session.ActivityTracker;
+import org.isf.stat.dto.JasperReportResultDto;
+import org.isf.stat.gui.report.ReportArchive;
+import org.isf.stat.gui.report.ReportResultCache;
+import org.isf.stat.manager.JasperReportsManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates in advance, off hours, the monthly {@code rpt_stat} reports of the month just closed.
+ * <p>
+ * The reports listed in {@value #FILE_PROPERTIES} are filled in background while the time is within the configured
+ * window (e.g. at night) or, if configured, while the user has been idle long enough, and are saved in
+ * {@link ReportArchive}: the report launcher then shows them at once. A report is not generated again once archived;
+ * a report that failed is retried the next month only, to not load the database every minute with a broken report.
+ */
+public final class ReportScheduler {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReportScheduler.class);
+
+	private static final String FILE_PROPERTIES = "reportscheduler.properties";
+	private static final String PROPERTY_ENABLED = "reportscheduler.enabled";
+	private static final String PROPERTY_WINDOW_START = "reportscheduler.window.start";
+	private static final String PROPERTY_WINDOW_END = "reportscheduler.window.end";
+	private static final String PROPERTY_IDLE_MINUTES = "reportscheduler.idle.minutes";
+	private static final String PROPERTY_THREADS = "reportscheduler.threads";
+	private static final String PROPERTY_REPORTS = "reportscheduler.reports";
+	private static final String PROPERTY_ARCHIVE_FOLDER = "reportscheduler.archive.folder";
+	private static final String PROPERTY_ARCHIVE_MONTHS = "reportscheduler.archive.months";
+
+	private static final String FOLDER = "rpt_stat";
+	private static final long CHECK_INTERVAL_SECONDS = 60;
+
+	private static final ReportScheduler INSTANCE = new ReportScheduler();
+
+	private LocalTime windowStart;
+	private LocalTime windowEnd;
+	private long idleMillis;
+	private int archiveMonths;
+	private final List<String> reports = new ArrayList<>();
+
+	private final Set<String> pending = new HashSet<>();
+	private final Set<String> failed = new HashSet<>();
+	private YearMonth prunedMonth;
+
+	private boolean started;
+	private ScheduledExecutorService timer;
+	private ExecutorService executor;
+
+	private ReportScheduler() {
+	}
+
+	public static ReportScheduler getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Reads the configuration and, if enabled, starts checking every minute whether reports can be generated; does
+	 * nothing if already started
+	 */
+	public synchronized void start() {
+		if (started) {
+			return;
+		}
+		started = true;
+		reports.clear();
+		Properties props = ConfigurationProperties.loadPropertiesFile(FILE_PROPERTIES, LOGGER);
+		if (props == null) {
+			props = new Properties();
+		}
+		ReportArchive.getInstance().setFolder(Paths.get(props.getProperty(PROPERTY_ARCHIVE_FOLDER, "data/rpt_archive").trim()));
+		for (String report : props.getProperty(PROPERTY_REPORTS, "").split(",")) {
+			if (!report.isBlank()) {
+				reports.add(report.trim());
+			}
+		}
+		if (!Boolean.parseBoolean(props.getProperty(PROPERTY_ENABLED, "false").trim()) || reports.isEmpty()) {
+			LOGGER.debug("Report scheduler disabled.");
+			return;
+		}
+		windowStart = readTime(props, PROPERTY_WINDOW_START, LocalTime.of(22, 0));
+		windowEnd = readTime(props, PROPERTY_WINDOW_END, LocalTime.of(6, 0));
+		idleMillis = TimeUnit.MINUTES.toMillis(readInt(props, PROPERTY_IDLE_MINUTES, 0));
+		archiveMonths = Math.max(1, readInt(props, PROPERTY_ARCHIVE_MONTHS, 12));
+		int threads = Math.max(1, readInt(props, PROPERTY_THREADS, 1));
+
+		timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "ReportScheduler");
+			thread.setDaemon(true);
+			return thread;
+		});
+		AtomicInteger counter = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "ReportScheduler-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+		timer.scheduleWithFixedDelay(this::check, CHECK_INTERVAL_SECONDS, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+		LOGGER.info("Report scheduler started: {} reports between {} and {}.", reports.size(), windowStart, windowEnd);
+	}
+
+	/**
+	 * Stops generating reports; a report being filled is interrupted and will be generated again
+	 */
+	public synchronized void stop() {
+		started = false;
+		if (timer != null) {
+			timer.shutdownNow();
+			executor.shutdownNow();
+			timer = null;
+			executor = null;
+			pending.clear();
+		}
+	}
+
+	private synchronized void check() {
+		if (executor == null || !isAllowed()) {
+			return;
+		}
+		YearMonth month = YearMonth.now().minusMonths(1);
+		if (!month.equals(prunedMonth)) {
+			failed.clear();
+			ReportArchive.getInstance().prune(month.minusMonths(archiveMonths - 1L));
+			prunedMonth = month;
+		}
+		ReportResultCache cache = ReportResultCache.getInstance();
+		for (String report : reports) {
+			// the same key of GenericReportMY, so that the launcher finds the archived report
+			ReportResultCache.Key key = cache.key(month.atEndOfMonth(), FOLDER, report, month.getMonthValue(), month.getYear());
+			if (key == null) {
+				if (failed.add(report)) {
+					LOGGER.warn("Report {} not found in {}, it will not be generated in advance.", report, FOLDER);
+				}
+				continue;
+			}
+			if (pending.contains(report) || failed.contains(report) || ReportArchive.getInstance().contains(key)) {
+				continue;
+			}
+			pending.add(report);
+			executor.execute(() -> generate(report, month, key));
+		}
+	}
+
+	private void generate(String report, YearMonth month, ReportResultCache.Key key) {
+		try {
+			if (!isAllowed()) {
+				// the user is back: retried at the next check allowed
+				return;
+			}
+			long start = System.currentTimeMillis();
+			JasperReportsManager jasperReportsManager = Context.getApplicationContext().getBean(JasperReportsManager.class);
+			JasperReportResultDto result = jasperReportsManager.getGenericReportMYPdf(month.getMonthValue(), month.getYear(), FOLDER, report);
+			ReportArchive.getInstance().put(key, month, report, result);
+			LOGGER.info("Report {} of {} generated in advance in {} ms.", report, month, System.currentTimeMillis() - start);
+		} catch (Exception | LinkageError e) {
+			if (Thread.currentThread().isInterrupted()) {
+				return;
+			}
+			LOGGER.error("Report {} of {} not generated in advance.", report, month, e);
+			synchronized (this) {
+				failed.add(report);
+			}
+		} finally {
+			synchronized (this) {
+				pending.remove(report);
+			}
+		}
+	}
+
+	/**
+	 * @return {@code true} if the time is within the window or the user has been idle long enough
+	 */
+	private boolean isAllowed() {
+		LocalTime now = LocalTime.now();
+		boolean inWindow = windowStart.isBefore(windowEnd)
+						? !now.isBefore(windowStart) && now.isBefore(windowEnd)
+						: !now.isBefore(windowStart) || now.isBefore(windowEnd);
+		return inWindow || idleMillis > 0 && ActivityTracker.getInstance().getIdleTime() >= idleMillis;
+	}
+
+	private static LocalTime readTime(Properties props, String key, LocalTime defaultValue) {
+		String value = props.getProperty(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return LocalTime.parse(value.trim());
+		} catch (DateTimeParseException e) {
+			LOGGER.warn("Invalid value for {} in {}, using {}", key, FILE_PROPERTIES, defaultValue);
+			return defaultValue;
+		}
+	}
+
+	private static int readInt(Properties props, String key, int defaultValue) {
+		String value = props.getProperty(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			int parsed = Integer.parseInt(value.trim());
+			return parsed >= 0 ? parsed : defaultValue;
+		} catch (NumberFormatException e) {
+			LOGGER.warn("Invalid value for {} in {}, using {}", key, FILE_PROPERTIES, defaultValue);
+			return defaultValue;
+		}
+	}
+}
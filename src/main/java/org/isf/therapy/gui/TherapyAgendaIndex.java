@@ -0,0 +1,152 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.therapy.gui;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.isf.therapy.model.Therapy;
+import org.isf.visits.model.Visit;
+
+/**
+ * Calendar index of the therapies and visits shown in the {@link TherapyEdit} agenda.
+ * <p>
+ * Every therapy is expanded once into its dates and put, together with the visits, in a bucket for each month and
+ * day, so that showing a month only reads that month's bucket. The index is thread safe: it is built off the EDT
+ * and then updated on the EDT when therapies and visits are added or removed.
+ */
+class TherapyAgendaIndex {
+
+	private final Map<YearMonth, Map<Integer, List<Object>>> months = new HashMap<>();
+	private final Map<Object, List<LocalDateTime>> datesByEntry = new IdentityHashMap<>();
+
+	TherapyAgendaIndex(List<Therapy> therapies, List<Visit> visits) {
+		if (therapies != null) {
+			for (Therapy therapy : therapies) {
+				add(therapy);
+			}
+		}
+		if (visits != null) {
+			for (Visit visit : visits) {
+				add(visit);
+			}
+		}
+	}
+
+	synchronized void add(Therapy therapy) {
+		if (therapy == null) {
+			return;
+		}
+		List<LocalDateTime> dates = new ArrayList<>();
+		for (LocalDateTime date : therapy.getDates()) {
+			dates.add(date);
+		}
+		put(therapy, dates);
+	}
+
+	synchronized void add(Visit visit) {
+		if (visit == null || visit.getDate() == null) {
+			return;
+		}
+		put(visit, List.of(visit.getDate()));
+	}
+
+	/**
+	 * Removes a therapy or a visit from all the days it was in
+	 *
+	 * @param entry the {@link Therapy} or {@link Visit} previously added
+	 */
+	synchronized void remove(Object entry) {
+		List<LocalDateTime> dates = datesByEntry.remove(entry);
+		if (dates == null) {
+			return;
+		}
+		for (LocalDateTime date : dates) {
+			Map<Integer, List<Object>> month = months.get(YearMonth.from(date));
+			if (month == null) {
+				continue;
+			}
+			List<Object> day = month.get(date.getDayOfMonth());
+			if (day != null) {
+				day.removeIf(element -> element == entry);
+				if (day.isEmpty()) {
+					month.remove(date.getDayOfMonth());
+				}
+			}
+			if (month.isEmpty()) {
+				months.remove(YearMonth.from(date));
+			}
+		}
+	}
+
+	/**
+	 * @param yearMonth the month
+	 * @return a copy of the entries of the month by day of month, in day order
+	 */
+	synchronized Map<Integer, List<Object>> getMonth(YearMonth yearMonth) {
+		Map<Integer, List<Object>> month = months.get(yearMonth);
+		if (month == null) {
+			return Collections.emptyMap();
+		}
+		Map<Integer, List<Object>> copy = new TreeMap<>();
+		month.forEach((day, entries) -> copy.put(day, new ArrayList<>(entries)));
+		return copy;
+	}
+
+	/**
+	 * @param entry a {@link Therapy} or {@link Visit} in the index
+	 * @param yearMonth the month
+	 * @return the days of the month the entry is in
+	 */
+	synchronized List<Integer> getDays(Object entry, YearMonth yearMonth) {
+		List<LocalDateTime> dates = datesByEntry.get(entry);
+		if (dates == null) {
+			return Collections.emptyList();
+		}
+		List<Integer> days = new ArrayList<>();
+		for (LocalDateTime date : dates) {
+			if (YearMonth.from(date).equals(yearMonth) && !days.contains(date.getDayOfMonth())) {
+				days.add(date.getDayOfMonth());
+			}
+		}
+		return days;
+	}
+
+	private void put(Object entry, List<LocalDateTime> dates) {
+		datesByEntry.put(entry, dates);
+		for (LocalDateTime date : dates) {
+			List<Object> day = months.computeIfAbsent(YearMonth.from(date), yearMonth -> new HashMap<>())
+							.computeIfAbsent(date.getDayOfMonth(), dayOfMonth -> new ArrayList<>());
+			// a therapy given more times in a day is shown once
+			if (day.stream().noneMatch(element -> element == entry)) {
+				day.add(entry);
+			}
+		}
+	}
+}
@@ -21,6 +21,8 @@
  */
 package org.isf.therapy.gui;
 
+import static org.isf.utils.Constants.DATE_FORMAT_DD_MM_YYYY;
+
 import java.awt.AWTEvent;
 import java.awt.BorderLayout;
 import java.awt.Color;
@@ -36,11 +38,18 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
@@ -58,6 +67,7 @@ import javax.swing.JTable;
 import javax.swing.JTextArea;
 import javax.swing.ListModel;
 import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
 import javax.swing.WindowConstants;
 import javax.swing.table.DefaultTableCellRenderer;
 
@@ -86,6 +96,8 @@ import org.isf.visits.gui.VisitView.VisitListener;
 import org.isf.visits.manager.VisitManager;
 import org.isf.visits.model.Visit;
 import org.isf.ward.model.Ward;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 public class TherapyEdit extends ModalJFrame implements VisitListener {
 
@@ -120,6 +132,7 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 	private JButton editTherapyButton;
 	private JButton checkTherapyButton;
 	private JLabel therapyCheckLabel;
+	private JLabel stockForecastLabel;
 	private JButton checkIconButton;
 	private JButton smsIconButton;
 	private JButton notifyIconButton;
@@ -144,13 +157,33 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 	private MedicalBrowsingManager medicalBrowsingManager = Context.getApplicationContext().getBean(MedicalBrowsingManager.class);
 	private TherapyManager therapyManager = Context.getApplicationContext().getBean(TherapyManager.class);
 	private VisitManager visitManager = Context.getApplicationContext().getBean(VisitManager.class);
+	private TransactionTemplate transactionTemplate = new TransactionTemplate(
+			Context.getApplicationContext().getBean(PlatformTransactionManager.class));
 	private PatientBrowserManager patientBrowserManager = Context.getApplicationContext().getBean(PatientBrowserManager.class);
+	private TherapyStockForecaster stockForecaster = new TherapyStockForecaster(medicalBrowsingManager);
 
 	private List<Medical> medArray;
 	private List<Therapy> therapies = new ArrayList<>();
 	private List<TherapyRow> thRows = new ArrayList<>();
 	private List<Visit> visits = new ArrayList<>();
 	private List<Visit> removedVisits = new ArrayList<>();
+	/*
+	 * Changes since the last load from DB: only these are persisted on save.
+	 * Identity sets because unsaved rows and visits all have ID 0.
+	 */
+	private Set<TherapyRow> changedThRows = Collections.newSetFromMap(new IdentityHashMap<>());
+	private List<TherapyRow> removedThRows = new ArrayList<>();
+	// the therapy rows with SMS when loaded, their SMS being scheduled in the DB
+	private Set<Integer> smsThRowIds = new HashSet<>();
+	private Set<Visit> changedVisits = Collections.newSetFromMap(new IdentityHashMap<>());
+	/*
+	 * The calendar index, null while it is built in background: the changes made in the meantime are queued and
+	 * applied, in order, once it is ready.
+	 */
+	private CompletableFuture<TherapyAgendaIndex> agendaIndexLoading;
+	private TherapyAgendaIndex agendaIndex;
+	private List<Consumer<TherapyAgendaIndex>> pendingAgendaChanges = new ArrayList<>();
+	private List<JList> highlightedLists = new ArrayList<>();
 	private Ward ward;
 
 	public TherapyEdit(JFrame owner, Patient patient, boolean admitted) {
@@ -220,6 +253,11 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 	}
 
 	private void loadFromDB() {
+		changedThRows.clear();
+		removedThRows.clear();
+		changedVisits.clear();
+		removedVisits.clear();
+
 		/*
 		 * Rows in the therapies table
 		 */
@@ -228,6 +266,12 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 		} catch (OHServiceException e) {
 			OHServiceExceptionUtil.showMessages(e);
 		}
+		smsThRowIds.clear();
+		for (TherapyRow thRow : thRows) {
+			if (thRow.isSms()) {
+				smsThRowIds.add(thRow.getTherapyID());
+			}
+		}
 
 		/*
 		 * HashTable of the rows
@@ -265,6 +309,35 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 				hashTableVisits.put(visit.getVisitID(), visit);
 			}
 		}
+
+		/*
+		 * Calendar index of therapies and visits, built in background
+		 */
+		List<Therapy> loadedTherapies = therapies != null ? new ArrayList<>(therapies) : null;
+		List<Visit> loadedVisits = visits != null ? new ArrayList<>(visits) : null;
+		CompletableFuture<TherapyAgendaIndex> loading = CompletableFuture.supplyAsync(() -> new TherapyAgendaIndex(loadedTherapies, loadedVisits));
+		agendaIndexLoading = loading;
+		agendaIndex = null;
+		pendingAgendaChanges.clear();
+		loading.thenAcceptAsync(index -> {
+			if (agendaIndexLoading != loading) {
+				return;
+			}
+			pendingAgendaChanges.forEach(change -> change.accept(index));
+			pendingAgendaChanges.clear();
+			agendaIndex = index;
+			showAll();
+		}, SwingUtilities::invokeLater);
+
+		forecastStock();
+	}
+
+	private void updateAgendaIndex(Consumer<TherapyAgendaIndex> change) {
+		if (agendaIndex != null) {
+			change.accept(agendaIndex);
+		} else {
+			pendingAgendaChanges.add(change);
+		}
 	}
 
 	class CenterTableCellRenderer extends DefaultTableCellRenderer {
@@ -282,48 +355,25 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 	
 	private void showAll() {
 		jAgenda.removeAll();
-		if (therapies != null) {
-			showTherapies();
-		}
-		if (visits != null) {
-			showVisits();
+		highlightedLists.clear();
+		// until the index is ready the agenda stays empty, it is shown again once built
+		if (agendaIndex != null) {
+			agendaIndex.getMonth(getShownMonth()).forEach((day, entries) -> {
+				for (Object entry : entries) {
+					jAgenda.addElement(entry, day);
+					if (entry instanceof Therapy th) {
+						notifyCheckBox.setSelected(th.isNotify());
+					}
+				}
+			});
 		}
 		noteTextArea.setText("");
 		smsCheckBox.setEnabled(false);
 		notifyCheckBox.setEnabled(false);
 	}
 
-	private void showTherapies() {
-		for (Therapy th : therapies) {
-			showTherapy(th);
-		}
-	}
-
-	private void showTherapy(Therapy th) {
-		for (LocalDateTime localDateTime : th.getDates()) {
-			if (localDateTime.getYear() == yearChooser.getYear()) {
-				if (localDateTime.getMonthValue() == monthChooser.getMonth() + 1) {
-					jAgenda.addElement(th, localDateTime.getDayOfMonth());
-					notifyCheckBox.setSelected(th.isNotify());
-				}
-			}
-		}
-	}
-
-	private void showVisits() {
-		hashTableVisits = new Hashtable<>();
-		for (Visit vs : visits) {
-			hashTableVisits.put(vs.getVisitID(), vs);
-			showVisit(vs);
-		}
-	}
-
-	private void showVisit(Visit vs) {
-		if (vs.getDate().getYear() == yearChooser.getYear()) {
-			if (vs.getDate().getMonthValue() == monthChooser.getMonth() + 1) {
-				jAgenda.addElement(vs, vs.getDate().getDayOfMonth());
-			}
-		}
+	private YearMonth getShownMonth() {
+		return YearMonth.of(yearChooser.getYear(), monthChooser.getMonth() + 1);
 	}
 
 	private JPanel getSouthPanel() {
@@ -348,15 +398,16 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 					if (selectedTherapy != null) {
 						String note = noteTextArea.getText();
 						selectedTherapy.setNote(note);
-						hashTableThRow.get(selectedTherapy.getTherapyID()).setNote(note);
-						therapyModified = true;
+						TherapyRow thRow = hashTableThRow.get(selectedTherapy.getTherapyID());
+						thRow.setNote(note);
+						markTherapyChanged(thRow);
 						saveButton.setEnabled(true);
 					}
 					if (selectedVisit != null) {
 						String note = noteTextArea.getText();
 						selectedVisit.setNote(note);
 						hashTableVisits.get(selectedVisit.getVisitID()).setNote(note);
-						visitModified = true;
+						markVisitChanged(selectedVisit);
 						saveButton.setEnabled(true);
 					}
 				}
@@ -409,7 +460,12 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 				if (selectedVisit == null) {
 					return;
 				}
-				removedVisits.add(selectedVisit);
+				changedVisits.remove(selectedVisit);
+				Visit removedVisit = selectedVisit;
+				updateAgendaIndex(index -> index.remove(removedVisit));
+				if (selectedVisit.getVisitID() != 0) {
+					removedVisits.add(selectedVisit);
+				}
 				visits.remove(selectedVisit);
 
 				visitModified = true;
@@ -478,8 +534,9 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 	private void addVisitForSave(Visit visit) {
 		visits.add(visit); // FOR GUI
 		hashTableVisits.put(visit.getVisitID(), visit);
+		updateAgendaIndex(index -> index.add(visit));
 		checked = false;
-		visitModified = true;
+		markVisitChanged(visit);
 		if (smsenable) {
 			smsCheckBox.setEnabled(true);
 		}
@@ -538,6 +595,11 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 			}
 			notifyCheckBox.addActionListener(actionEvent -> {
 				selectedTherapy.setNotify(!selectedTherapy.isNotify());
+				TherapyRow thRow = hashTableThRow.get(selectedTherapy.getTherapyID());
+				if (thRow != null) {
+					thRow.setNotify(selectedTherapy.isNotify());
+					changedThRows.add(thRow);
+				}
 				saveButton.setEnabled(true);
 			});
 		}
@@ -606,11 +668,12 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 				}
 				if (selectedTherapy != null) {
 					selectedTherapy.setSms(smsCheckBox.isSelected());
-					hashTableThRow.get(selectedTherapy.getTherapyID()).setSms(smsCheckBox.isSelected());
-					therapyModified = true;
+					TherapyRow thRow = hashTableThRow.get(selectedTherapy.getTherapyID());
+					thRow.setSms(smsCheckBox.isSelected());
+					markTherapyChanged(thRow);
 				} else if (selectedVisit != null) {
 					selectedVisit.setSms(smsCheckBox.isSelected());
-					visitModified = true;
+					markVisitChanged(selectedVisit);
 				}
 				saveButton.setEnabled(true);
 			});
@@ -717,7 +780,7 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 					} else {
 						boolean result;
 						try {
-							result = visitManager.newVisits(visits, removedVisits);
+							result = visitManager.newVisits(new ArrayList<>(changedVisits), removedVisits);
 
 						} catch (OHServiceException ex) {
 							OHServiceExceptionUtil.showMessages(ex, this);
@@ -746,14 +809,15 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 
 				if (saveTherapies) {
 					try {
-						therapyManager.deleteAllTherapies(patient.getCode());
-						therapyManager.newTherapies(thRows);
+						saveTherapies();
 					} catch (OHServiceException ex) {
 						MessageDialog.error(this, "angal.therapy.therapiesplancouldnotbesaved");
 						OHServiceExceptionUtil.showMessages(ex);
 					}
 					MessageDialog.info(this, "angal.therapy.therapiesplansaved");
 				}
+				// the saved or deleted therapies may have moved the stock: read it again
+				stockForecaster.invalidateStocks();
 				loadFromDB();
 				therapyModified = false;
 				visitModified = false;
@@ -797,6 +861,7 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 				if (visits != null) {
 					visits.clear();
 				}
+				stockForecaster.shutdown();
 				dispose();
 			});
 		}
@@ -816,6 +881,7 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 			therapyPanel.add(Box.createVerticalGlue());
 			therapyPanel.add(getCheckIconButton());
 			therapyPanel.add(getTherapyCheckLabel());
+			therapyPanel.add(getStockForecastLabel());
 			therapyPanel.add(Box.createVerticalGlue());
 		}
 		return therapyPanel;
@@ -832,6 +898,60 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 		return therapyCheckLabel;
 	}
 
+	private JLabel getStockForecastLabel() {
+		if (stockForecastLabel == null) {
+			stockForecastLabel = new JLabel(" ");
+			stockForecastLabel.setMaximumSize(new Dimension(Short.MAX_VALUE, 25));
+			stockForecastLabel.setHorizontalAlignment(SwingConstants.CENTER);
+		}
+		return stockForecastLabel;
+	}
+
+	/*
+	 * Stock coverage of the plan, recomputed in background after each change
+	 */
+	private void forecastStock() {
+		stockForecaster.forecast(therapies, this::showStockForecast);
+	}
+
+	private void showStockForecast(List<TherapyStockForecaster.StockCoverage> forecast) {
+		if (stockForecastLabel == null) {
+			return;
+		}
+		DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern(DATE_FORMAT_DD_MM_YYYY);
+		TherapyStockForecaster.StockCoverage first = null;
+		int outOfStock = 0;
+		boolean allCovered = true;
+		StringBuilder tooltip = new StringBuilder("<html>");
+		for (TherapyStockForecaster.StockCoverage coverage : forecast) {
+			allCovered &= coverage.isCovered();
+			if (coverage.getStockOutDate() != null) {
+				outOfStock++;
+				if (first == null || coverage.getStockOutDate().isBefore(first.getStockOutDate())) {
+					first = coverage;
+				}
+				tooltip.append(MessageBundle.formatMessage("angal.therapy.stockoutexpected.fmt.txt", coverage.getMedical().getDescription(),
+								dateFormat.format(coverage.getStockOutDate()))).append("<br>");
+			}
+		}
+		if (first != null) {
+			String medical = first.getMedical().getDescription();
+			String date = dateFormat.format(first.getStockOutDate());
+			stockForecastLabel.setText(outOfStock == 1
+							? MessageBundle.formatMessage("angal.therapy.stockoutexpected.fmt.txt", medical, date)
+							: MessageBundle.formatMessage("angal.therapy.stockoutexpectedmore.fmt.txt", medical, date, outOfStock - 1));
+			stockForecastLabel.setForeground(Color.RED);
+			stockForecastLabel.setToolTipText(tooltip.append("</html>").toString());
+		} else if (allCovered && !forecast.isEmpty()) {
+			stockForecastLabel.setText(MessageBundle.getMessage("angal.therapy.stockcoverstheplan.txt"));
+			stockForecastLabel.setForeground(new Color(0, 128, 0));
+			stockForecastLabel.setToolTipText(null);
+		} else {
+			stockForecastLabel.setText(" ");
+			stockForecastLabel.setToolTipText(null);
+		}
+	}
+
 	private JButton getCheckTherapyButton() {
 		if (checkTherapyButton == null) {
 			checkTherapyButton = new JButton(MessageBundle.getMessage("angal.therapy.checkavailability.btn"));
@@ -949,14 +1069,68 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 		}
 		therapies.add(thisTherapy); // FOR GUI
 		hashTableThRow.put(thRow.getTherapyID(), thRow);
+		Therapy addedTherapy = thisTherapy;
+		updateAgendaIndex(index -> index.add(addedTherapy));
 		checked = false;
-		therapyModified = true;
+		markTherapyChanged(thRow);
+		forecastStock();
 		checkTherapyButton.setEnabled(true);
 		saveButton.setEnabled(true);
 		updateCheckLabel();
 		showAll();
 	}
 	
+	/*
+	 * Saves the therapy rows changed, in one transaction. The core TherapyManager saves a row by its ID, but cannot
+	 * delete a single row and schedules the SMS only in newTherapies, for the whole plan: so after a removal, or when a
+	 * row with SMS (before or after the change) is touched, the whole plan is written again.
+	 */
+	private void saveTherapies() throws OHServiceException {
+		boolean rewrite = !removedThRows.isEmpty() || changedThRows.stream()
+				.anyMatch(thRow -> thRow.isSms() || smsThRowIds.contains(thRow.getTherapyID()));
+		OHServiceException[] failure = new OHServiceException[1];
+		transactionTemplate.executeWithoutResult(status -> {
+			try {
+				if (rewrite) {
+					therapyManager.deleteAllTherapies(patient.getCode());
+					therapyManager.newTherapies(thRows);
+				} else {
+					for (TherapyRow thRow : changedThRows) {
+						therapyManager.newTherapy(thRow);
+					}
+				}
+			} catch (OHServiceException e) {
+				status.setRollbackOnly();
+				failure[0] = e;
+			}
+		});
+		if (failure[0] != null) {
+			throw failure[0];
+		}
+	}
+
+	private void markTherapyChanged(TherapyRow thRow) {
+		if (thRow != null) {
+			changedThRows.add(thRow);
+		}
+		therapyModified = true;
+	}
+
+	private void markTherapyRemoved(TherapyRow thRow) {
+		if (thRow != null) {
+			changedThRows.remove(thRow);
+			if (thRow.getTherapyID() != 0) {
+				removedThRows.add(thRow);
+			}
+		}
+		therapyModified = true;
+	}
+
+	private void markVisitChanged(Visit visit) {
+		changedVisits.add(visit);
+		visitModified = true;
+	}
+
 	/*
 	 * RemoveTherapy action
 	 */
@@ -980,9 +1154,13 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 
 				if (thRow != null) {
 
-					// Removing original modified therapy from arrays
-					thRows.remove(hashTableThRow.get(selectedTherapy.getTherapyID()));
+					// Removing original modified therapy from arrays, the new row keeps its ID and updates it
+					TherapyRow originalThRow = hashTableThRow.get(selectedTherapy.getTherapyID());
+					thRows.remove(originalThRow);
+					changedThRows.remove(originalThRow);
 					therapies.remove(selectedTherapy);
+					Therapy removedTherapy = selectedTherapy;
+					updateAgendaIndex(index -> index.remove(removedTherapy));
 
 					// Re-adding modified therapy
 					addTherapyForSave(thRow);
@@ -1005,13 +1183,17 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 				if (selectedTherapy == null) {
 					return;
 				}
-				thRows.remove(hashTableThRow.get(selectedTherapy.getTherapyID()));
+				TherapyRow thRow = hashTableThRow.get(selectedTherapy.getTherapyID());
+				thRows.remove(thRow);
 				therapies.remove(selectedTherapy);
+				Therapy removedTherapy = selectedTherapy;
+				updateAgendaIndex(index -> index.remove(removedTherapy));
 				//thRows.remove(selectedTherapy.getNumTherapy() - 1);
 				if (thRows.isEmpty()) {
 					checkTherapyButton.setEnabled(false);
 				}
-				therapyModified = true;
+				markTherapyRemoved(thRow);
+				forecastStock();
 				selectedTherapy = null;
 				saveButton.setEnabled(true);
 				checked = false;
@@ -1077,18 +1259,11 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 			ListModel model = thisList.getModel();
 			Therapy th;
 			Visit vs;
-			int therapyID = 0;
-			int visitID =0;
 
 			int index = thisList.getSelectedIndex();
 			if (index == -1) {
-				for (Component comp : jAgenda.getDayPanel().getComponents()) {
-					AgendaDayObject day = (AgendaDayObject) comp;
-					JList list = day.getList();
-					if (list != null) {
-						list.clearSelection();
-					}
-				}
+				clearHighlight();
+				thisList.clearSelection();
 				selectedTherapy = null;
 				selectedVisit = null;
 				noteTextArea.setEnabled(false);
@@ -1102,7 +1277,6 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 				selectedTherapy = null;
 				selectedVisit = vs;
 				if (vs != null) {
-					visitID = vs.getVisitID();
 					noteTextArea.setText(vs.getNote());
 					noteTextArea.setEnabled(true);
 					smsCheckBox.setEnabled(true);
@@ -1114,7 +1288,6 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 				selectedTherapy = th;
 				selectedVisit = null;
 				if (th != null) {
-					therapyID = th.getTherapyID();
 					noteTextArea.setText(th.getNote());
 					noteTextArea.setEnabled(true);
 					smsCheckBox.setEnabled(true);
@@ -1125,38 +1298,45 @@ public class TherapyEdit extends ModalJFrame implements VisitListener {
 				return;
 			}
 			/* 
-			 * highlighting/de-highlighting therapies and visits
-			 * if saved (therapyID == 0)
+			 * highlighting the same therapy or visit in the other days of the month
+			 * (saved or not) and de-highlighting the previous one
 			 * 
 			 * TODO:
-			 * - better arrays management (to highlight also unsaved)
 			 * - improve events handling (to avoid selection flickering) 
 			 */
-			for (Component comp : jAgenda.getDayPanel().getComponents()) {
-				AgendaDayObject day = (AgendaDayObject) comp;
-				JList list = day.getList();
-				if (list != null) {
-					if (list != thisList) {
-						list.clearSelection();
-					}
-					model = list.getModel();
-					for (int i = 0; i < model.getSize(); i++) {
-						Object iteratedItem = model.getElementAt(i);
-						if (iteratedItem instanceof Therapy aTherapy) {
-							if (therapyID != 0 && aTherapy.getTherapyID() == therapyID) {
-								list.setSelectedIndex(i);
-							}
-						}
-						if (iteratedItem instanceof Visit aVisit) {
-							if (visitID != 0 && aVisit.getVisitID() == visitID) {
-								list.setSelectedIndex(i);
-							}
-						}
+			for (JList list : highlightedLists) {
+				if (list != thisList) {
+					list.clearSelection();
+				}
+			}
+			highlightedLists.clear();
+			highlightedLists.add(thisList);
+			if (agendaIndex == null) {
+				return;
+			}
+			for (int day : agendaIndex.getDays(selectedItem, getShownMonth())) {
+				JList list = jAgenda.getList(day);
+				if (list == thisList) {
+					continue;
+				}
+				model = list.getModel();
+				for (int i = 0; i < model.getSize(); i++) {
+					if (model.getElementAt(i) == selectedItem) {
+						list.setSelectedIndex(i);
+						highlightedLists.add(list);
+						break;
 					}
 				}
 			}
 		}
 
+		private void clearHighlight() {
+			for (JList list : highlightedLists) {
+				list.clearSelection();
+			}
+			highlightedLists.clear();
+		}
+
 		@Override
 		public void mouseEntered(MouseEvent e) {
 		}
@@ -0,0 +1,241 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.therapy.gui;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.swing.SwingUtilities;
+
+import org.isf.medicals.manager.MedicalBrowsingManager;
+import org.isf.medicals.model.Medical;
+import org.isf.therapy.model.Therapy;
+import org.isf.utils.exception.OHServiceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Forecasts, in background, whether the current stock of each prescribed medical covers a therapy plan.
+ * <p>
+ * For each medical the quantity the plan needs from today on is accumulated day by day and compared with the stock,
+ * giving the expected stock-out date. Only the latest request is computed: a request made while another is running
+ * supersedes it. Stock quantities are cached per medical for {@link #STOCK_TTL_MS} ms and the coverage is cached per
+ * medical until its daily needs change, so re-forecasting after an edit only recomputes the edited medicals.
+ */
+class TherapyStockForecaster {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TherapyStockForecaster.class);
+
+	private static final long STOCK_TTL_MS = 60_000;
+
+	private final MedicalBrowsingManager medicalBrowsingManager;
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "TherapyStockForecaster");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private final AtomicLong generation = new AtomicLong();
+
+	private final Map<Integer, CachedStock> stocks = new HashMap<>();
+	private final Map<Integer, StockCoverage> coverages = new HashMap<>();
+
+	TherapyStockForecaster(MedicalBrowsingManager medicalBrowsingManager) {
+		this.medicalBrowsingManager = medicalBrowsingManager;
+	}
+
+	/**
+	 * Forecasts the stock coverage of the plan in background
+	 *
+	 * @param therapies the therapy plan, copied before returning
+	 * @param onForecast called on the EDT with the coverage of each prescribed medical, unless a newer forecast was requested
+	 */
+	void forecast(List<Therapy> therapies, Consumer<List<StockCoverage>> onForecast) {
+		long requested = generation.incrementAndGet();
+		List<Therapy> plan = therapies != null ? new ArrayList<>(therapies) : new ArrayList<>();
+		executor.execute(() -> {
+			if (generation.get() != requested) {
+				return;
+			}
+			List<StockCoverage> forecast = compute(plan);
+			SwingUtilities.invokeLater(() -> {
+				if (generation.get() == requested) {
+					onForecast.accept(forecast);
+				}
+			});
+		});
+	}
+
+	/**
+	 * Drops the cached stock quantities, e.g. after a stock movement
+	 */
+	void invalidateStocks() {
+		executor.execute(stocks::clear);
+	}
+
+	void shutdown() {
+		generation.incrementAndGet();
+		executor.shutdownNow();
+	}
+
+	/*
+	 * The dates of a therapy are its days of treatment, at most one per day: a day needs qty x freqInDay, counted once
+	 * even if more doses of the same day were listed.
+	 */
+	List<StockCoverage> compute(List<Therapy> plan) {
+		LocalDate today = LocalDate.now();
+		Map<Integer, Medical> medicals = new LinkedHashMap<>();
+		Map<Integer, TreeMap<LocalDate, Double>> needs = new HashMap<>();
+		for (Therapy therapy : plan) {
+			if (therapy == null || therapy.getMedical() == null || therapy.getDates() == null) {
+				continue;
+			}
+			Medical medical = therapy.getMedical();
+			double dailyQty = therapy.getQty() * therapy.getFreqInDay();
+			medicals.putIfAbsent(medical.getCode(), medical);
+			TreeMap<LocalDate, Double> medicalNeeds = needs.computeIfAbsent(medical.getCode(), code -> new TreeMap<>());
+			Set<LocalDate> days = new TreeSet<>();
+			for (LocalDateTime date : therapy.getDates()) {
+				LocalDate day = date.toLocalDate();
+				if (!day.isBefore(today)) {
+					days.add(day);
+				}
+			}
+			for (LocalDate day : days) {
+				medicalNeeds.merge(day, dailyQty, Double::sum);
+			}
+		}
+
+		List<StockCoverage> forecast = new ArrayList<>();
+		for (Map.Entry<Integer, Medical> entry : medicals.entrySet()) {
+			Integer code = entry.getKey();
+			TreeMap<LocalDate, Double> medicalNeeds = needs.get(code);
+			Double stock = getStock(entry.getValue());
+			StockCoverage coverage = coverages.get(code);
+			if (coverage == null || !coverage.needs.equals(medicalNeeds) || !Objects.equals(coverage.stock, stock)) {
+				coverage = new StockCoverage(entry.getValue(), stock, medicalNeeds);
+				coverages.put(code, coverage);
+			}
+			forecast.add(coverage);
+		}
+		coverages.keySet().retainAll(medicals.keySet());
+		return forecast;
+	}
+
+	private Double getStock(Medical medical) {
+		long now = System.currentTimeMillis();
+		CachedStock cached = stocks.get(medical.getCode());
+		if (cached != null && now - cached.time < STOCK_TTL_MS) {
+			return cached.quantity;
+		}
+		Double quantity = null;
+		try {
+			Medical current = medicalBrowsingManager.getMedical(medical.getCode());
+			quantity = current != null ? current.getTotalQuantity() : null;
+		} catch (OHServiceException e) {
+			LOGGER.warn("Stock of {} not available: {}", medical.getDescription(), e.getMessage());
+		}
+		stocks.put(medical.getCode(), new CachedStock(quantity, now));
+		return quantity;
+	}
+
+	/**
+	 * Coverage of the plan needs of a medical by its current stock
+	 */
+	static final class StockCoverage {
+
+		private final Medical medical;
+		private final Double stock;
+		private final TreeMap<LocalDate, Double> needs;
+		private final double required;
+		private final LocalDate stockOutDate;
+
+		private StockCoverage(Medical medical, Double stock, TreeMap<LocalDate, Double> needs) {
+			this.medical = medical;
+			this.stock = stock;
+			this.needs = needs;
+			double cumulative = 0;
+			LocalDate outDate = null;
+			for (Map.Entry<LocalDate, Double> day : needs.entrySet()) {
+				cumulative += day.getValue();
+				if (outDate == null && stock != null && cumulative > stock) {
+					outDate = day.getKey();
+				}
+			}
+			this.required = cumulative;
+			this.stockOutDate = outDate;
+		}
+
+		Medical getMedical() {
+			return medical;
+		}
+
+		/**
+		 * @return the current stock or {@code null} if it could not be read
+		 */
+		Double getStock() {
+			return stock;
+		}
+
+		/**
+		 * @return the total quantity the plan needs from today on
+		 */
+		double getRequired() {
+			return required;
+		}
+
+		/**
+		 * @return the first day the stock is not enough for the plan, {@code null} if the plan is covered
+		 */
+		LocalDate getStockOutDate() {
+			return stockOutDate;
+		}
+
+		boolean isCovered() {
+			return stock != null && stockOutDate == null;
+		}
+	}
+
+	private static final class CachedStock {
+
+		private final Double quantity;
+		private final long time;
+
+		private CachedStock(Double quantity, long time) {
+			this.quantity = quantity;
+			this.time = time;
+		}
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.utils.event;
+
+import java.util.Objects;
+
+/**
+ * A change of an entity, published on the {@link GuiEventBus}.
+ *
+ * @param <T> the type of the entity
+ */
+public final class EntityEvent<T> {
+
+	public enum Kind {
+		INSERTED,
+		UPDATED,
+		DELETED
+	}
+
+	private final Class<T> type;
+	private final Object key;
+	private final Kind kind;
+	private final T entity;
+
+	private EntityEvent(Class<T> type, Object key, Kind kind, T entity) {
+		this.type = Objects.requireNonNull(type);
+		this.key = Objects.requireNonNull(key);
+		this.kind = kind;
+		this.entity = entity;
+	}
+
+	/**
+	 * @param type the type of the entity
+	 * @param key the identifier of the entity, e.g. the code of a patient
+	 * @param entity the entity just inserted
+	 */
+	public static <T> EntityEvent<T> inserted(Class<T> type, Object key, T entity) {
+		return new EntityEvent<>(type, key, Kind.INSERTED, entity);
+	}
+
+	/**
+	 * @param type the type of the entity
+	 * @param key the identifier of the entity, e.g. the code of a patient
+	 * @param entity the entity as just updated
+	 */
+	public static <T> EntityEvent<T> updated(Class<T> type, Object key, T entity) {
+		return new EntityEvent<>(type, key, Kind.UPDATED, entity);
+	}
+
+	/**
+	 * @param type the type of the entity
+	 * @param key the identifier of the entity, e.g. the code of a patient
+	 * @param entity the entity just deleted, as last known
+	 */
+	public static <T> EntityEvent<T> deleted(Class<T> type, Object key, T entity) {
+		return new EntityEvent<>(type, key, Kind.DELETED, entity);
+	}
+
+	public Class<T> getType() {
+		return type;
+	}
+
+	public Object getKey() {
+		return key;
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	public T getEntity() {
+		return entity;
+	}
+
+	/**
+	 * Merges this event with a later one of the same entity, so that subscribers see only the net change
+	 *
+	 * @param later the later event
+	 * @return the net change, {@code null} if nothing changed (an entity inserted and deleted)
+	 */
+	EntityEvent<T> merge(EntityEvent<T> later) {
+		if (kind == Kind.INSERTED && later.kind == Kind.DELETED) {
+			return null;
+		}
+		if (kind == Kind.INSERTED) {
+			return new EntityEvent<>(type, key, Kind.INSERTED, later.entity);
+		}
+		if (kind == Kind.DELETED && later.kind == Kind.INSERTED) {
+			return new EntityEvent<>(type, key, Kind.UPDATED, later.entity);
+		}
+		return later;
+	}
+
+	@Override
+	public String toString() {
+		return type.getSimpleName() + ' ' + key + ' ' + kind;
+	}
+}
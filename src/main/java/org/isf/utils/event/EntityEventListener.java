@@ -0,0 +1,40 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.utils.event;
+
+import java.util.EventListener;
+import java.util.List;
+
+/**
+ * Receives the changes of a type of entity from the {@link GuiEventBus}, on the EDT.
+ *
+ * @param <T> the type of the entity
+ */
+@FunctionalInterface
+public interface EntityEventListener<T> extends EventListener {
+
+	/**
+	 * @param events the changes published since the last call, at most one per entity, in the order they were first
+	 * published
+	 */
+	void entitiesChanged(List<EntityEvent<T>> events);
+}
@@ -0,0 +1,159 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.utils.event;
+
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.swing.SwingUtilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Notifies the frames of the changes of the entities made by other frames, e.g. a patient inserted or an admission
+ * updated, without the frames knowing each other.
+ * <p>
+ * Events can be published from any thread and are delivered on the EDT, after the event being dispatched: all the
+ * events published meanwhile, e.g. by a bulk operation, are delivered together and the events of the same entity are
+ * merged into its net change. Each subscriber thus receives one list per type of entity and can update just the rows
+ * of the entities changed instead of reloading its whole model.
+ */
+public final class GuiEventBus {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(GuiEventBus.class);
+
+	private static final GuiEventBus INSTANCE = new GuiEventBus();
+
+	/**
+	 * A subscription to the bus
+	 */
+	public interface Subscription {
+
+		/**
+		 * Stops the delivery of the events; the events already queued are not delivered
+		 */
+		void cancel();
+	}
+
+	private final Map<Class<?>, List<EntityEventListener<?>>> listeners = new ConcurrentHashMap<>();
+
+	// the events of each entity, by type and key, in order of publication
+	private Map<List<Object>, EntityEvent<?>> pending = new LinkedHashMap<>();
+	private boolean flushScheduled;
+
+	private GuiEventBus() {
+	}
+
+	public static GuiEventBus getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @param type the type of the entities
+	 * @param listener called on the EDT with the changes of the entities of that type
+	 * @return the subscription, to be cancelled when the subscriber goes away
+	 */
+	public <T> Subscription subscribe(Class<T> type, EntityEventListener<T> listener) {
+		listeners.computeIfAbsent(type, t -> new CopyOnWriteArrayList<>()).add(listener);
+		return () -> listeners.get(type).remove(listener);
+	}
+
+	/**
+	 * Subscribes as long as the window is not closed
+	 *
+	 * @param owner the window of the subscriber
+	 * @param type the type of the entities
+	 * @param listener called on the EDT with the changes of the entities of that type
+	 */
+	public <T> void subscribe(Window owner, Class<T> type, EntityEventListener<T> listener) {
+		Subscription subscription = subscribe(type, listener);
+		owner.addWindowListener(new WindowAdapter() {
+
+			@Override
+			public void windowClosed(WindowEvent e) {
+				subscription.cancel();
+				owner.removeWindowListener(this);
+			}
+		});
+	}
+
+	/**
+	 * Publishes a change, to be delivered on the EDT; can be called from any thread
+	 *
+	 * @param event the change
+	 */
+	public <T> void publish(EntityEvent<T> event) {
+		List<Object> id = List.of(event.getType(), event.getKey());
+		synchronized (this) {
+			@SuppressWarnings("unchecked")
+			EntityEvent<T> previous = (EntityEvent<T>) pending.get(id);
+			EntityEvent<T> merged = previous == null ? event : previous.merge(event);
+			if (merged == null) {
+				pending.remove(id);
+			} else {
+				// an entity already pending keeps its position
+				pending.put(id, merged);
+			}
+			if (!flushScheduled) {
+				flushScheduled = true;
+				SwingUtilities.invokeLater(this::flush);
+			}
+		}
+	}
+
+	private void flush() {
+		Map<List<Object>, EntityEvent<?>> events;
+		synchronized (this) {
+			events = pending;
+			pending = new LinkedHashMap<>();
+			flushScheduled = false;
+		}
+		Map<Class<?>, List<EntityEvent<?>>> byType = new LinkedHashMap<>();
+		for (EntityEvent<?> event : events.values()) {
+			byType.computeIfAbsent(event.getType(), type -> new ArrayList<>()).add(event);
+		}
+		for (Map.Entry<Class<?>, List<EntityEvent<?>>> entry : byType.entrySet()) {
+			for (EntityEventListener<?> listener : listeners.getOrDefault(entry.getKey(), List.of())) {
+				deliver(listener, entry.getValue());
+			}
+		}
+		LOGGER.debug("{} entity events delivered", events.size());
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static void deliver(EntityEventListener listener, List<EntityEvent<?>> events) {
+		try {
+			listener.entitiesChanged(List.copyOf(events));
+		} catch (RuntimeException e) {
+			// the other subscribers are notified anyway
+			LOGGER.error("Entity events not delivered to {}", listener, e);
+		}
+	}
+}
@@ -19,47 +19,32 @@
  * You should have received a copy of the GNU General Public License
  * along with this program. If not, see <https://www.gnu.org/licenses/>.
  */
-package org.isf.session;
+package org.isf.utils.image;
 
-import java.awt.MouseInfo;
-import java.awt.Point;
+import java.awt.image.BufferedImage;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-public class SessionRefreshTimerRunnable implements Runnable {
-
-	private static final Logger LOGGER = LoggerFactory.getLogger(SessionRefreshTimerRunnable.class);
-	private static final long THREAD_SLEEP_TIME = 5000;
-
-	private double x;
-	private double y;
-
-	@Override
-	public void run() {
-		try {
-			while (true) {
-
-				Thread.sleep(THREAD_SLEEP_TIME);
+/**
+ * An image together with its encoded bytes, as produced by {@link ImageUtil#fitImageFileSize(BufferedImage, int, String)}
+ */
+public final class EncodedImage {
 
-				Point point = MouseInfo.getPointerInfo().getLocation();
+	private final BufferedImage image;
+	private final byte[] bytes;
 
-				double x = point.getX();
-				double y = point.getY();
+	public EncodedImage(BufferedImage image, byte[] bytes) {
+		this.image = image;
+		this.bytes = bytes;
+	}
 
-				if (x != this.x || y != this.y) {
-					if (RestartUserSession.getTimer() != null) {
-						RestartUserSession.getTimer().startTimer();
-						LOGGER.trace("Mouse moved. Session refreshed.");
-					}
-					this.x = x;
-					this.y = y;
-				}
-			}
-		} catch (InterruptedException e) {
-			LOGGER.error(e.getMessage(), e);
-		}
+	public BufferedImage getImage() {
+		return image;
+	}
 
+	public byte[] getBytes() {
+		return bytes;
 	}
 
+	public int getSize() {
+		return bytes.length;
+	}
 }
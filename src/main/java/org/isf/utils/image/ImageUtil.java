@@ -24,7 +24,6 @@ package org.isf.utils.image;
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
@@ -36,6 +35,14 @@ import org.imgscalr.Scalr.Mode;
 
 public final class ImageUtil {
 
+	/**
+	 * Maximum number of encodes (original included) spent by {@link #fitImageFileSize(BufferedImage, int, String)}
+	 * looking for the best scale.
+	 */
+	static final int MAX_FIT_ENCODES = 5;
+	private static final double FIT_SAFETY_MARGIN = 0.95;
+	private static final double FIT_ACCEPTED_RATIO = 0.85;
+
 	private ImageUtil() {
 	}
 
@@ -75,31 +82,73 @@ public final class ImageUtil {
 
 	public static BufferedImage fixImageFileSize(BufferedImage bufferedImage, int maximumFileSize, String fileType)
 			throws IOException {
-		long arrSize = getArraySize(bufferedImage, fileType);
-		while (arrSize > maximumFileSize) {
-			long lastSize = arrSize;
-			int newTargetSize = (bufferedImage.getTileWidth() - ((bufferedImage.getTileWidth() / 100) * 10));
-			bufferedImage = Scalr.resize(bufferedImage, newTargetSize);
-			arrSize = getArraySize(bufferedImage, fileType);
-			if (arrSize == lastSize) {
+		return fitImageFileSize(bufferedImage, maximumFileSize, fileType).getImage();
+	}
+
+	/**
+	 * Scales the image down until its encoded form fits into {@code maximumFileSize} bytes.
+	 * <p>
+	 * The first encode of the original image gives the size ratio; since the encoded size grows roughly with the
+	 * number of pixels, the first candidate scale is the square root of that ratio. The scale is then refined by
+	 * bisection, always resizing from the original image, for at most {@link #MAX_FIT_ENCODES} encodes once a fitting scale is known. The encoding
+	 * buffer is reused across attempts and the returned bytes are the encoded form of the returned image, so callers
+	 * do not need to encode it again.
+	 *
+	 * @param bufferedImage the image to fit
+	 * @param maximumFileSize the maximum encoded size in bytes
+	 * @param fileType the ImageIO format name
+	 * @return the fitted image together with its encoded bytes
+	 * @throws IOException
+	 */
+	public static EncodedImage fitImageFileSize(BufferedImage bufferedImage, int maximumFileSize, String fileType) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(maximumFileSize + maximumFileSize / 4);
+		int originalSize = encode(bufferedImage, fileType, buffer);
+		if (originalSize <= maximumFileSize) {
+			return new EncodedImage(bufferedImage, buffer.toByteArray());
+		}
+
+		// Scalr.resize(image, size) fits the longest side into size
+		int originalDimension = Math.max(bufferedImage.getWidth(), bufferedImage.getHeight());
+		double low = 0;
+		double high = 1;
+		double scale = estimateScale(1, originalSize, maximumFileSize);
+		BufferedImage best = null;
+		byte[] bestBytes = null;
+		int encodes = 1;
+		while (encodes < MAX_FIT_ENCODES || best == null) {
+			int targetDimension = Math.max(1, (int) Math.round(originalDimension * scale));
+			BufferedImage candidate = Scalr.resize(bufferedImage, targetDimension);
+			int size = encode(candidate, fileType, buffer);
+			encodes++;
+			if (size <= maximumFileSize || targetDimension == 1) {
+				best = candidate;
+				bestBytes = buffer.toByteArray();
+				low = scale;
+				if (size >= maximumFileSize * FIT_ACCEPTED_RATIO) {
+					break;
+				}
+			} else {
+				high = scale;
+			}
+			if ((high - low) * originalDimension < 1) {
 				break;
-			} 
+			}
+			// until something fits, extrapolate from the last size; afterwards bisect between the fitting and failing scales
+			scale = best == null ? Math.min(estimateScale(scale, size, maximumFileSize), high * FIT_SAFETY_MARGIN) : (low + high) / 2;
 		}
-		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		ImageIO.write(bufferedImage, fileType, baos);
-		return ImageIO.read(new ByteArrayInputStream(baos.toByteArray()));
-	}	
-
-	private static long getArraySize(BufferedImage bufferedImage, String fileType) throws IOException {
-		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		ImageIO.write(bufferedImage, fileType, baos);
-		baos.flush();
-		byte[] byteImage = baos.toByteArray();
-		long size = byteImage.length;
-		baos.close();
-		return size;	
+		return new EncodedImage(best, bestBytes);
+	}
+
+	private static double estimateScale(double scale, int size, int maximumFileSize) {
+		return scale * Math.sqrt((double) maximumFileSize / size) * FIT_SAFETY_MARGIN;
 	}
-	
+
+	private static int encode(BufferedImage bufferedImage, String fileType, ByteArrayOutputStream buffer) throws IOException {
+		buffer.reset();
+		ImageIO.write(bufferedImage, fileType, buffer);
+		return buffer.size();
+	}
+
 	/**
 	 * Converts a given Image into a BufferedImage
 	 *
@@ -0,0 +1,197 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.utils.jobjects;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * A table model of entities that is changed in place, one row at a time.
+ * <p>
+ * Each row is an entity, found by its id: {@link #insert(int, Object)}, {@link #update(Object)} and {@link #remove(Object)}
+ * fire the events of the changed rows only, so that the table keeps its columns, renderers, selection, sort and scroll
+ * position, and lays out only the rows changed. A new result set is shown with {@link #setEntities(Collection, JTable)}
+ * on the same model, which keeps the sort and selects again the entities still there. As in the other models of the
+ * application, {@code getValueAt(row, -1)} returns the entity of the row. To be used on the EDT only.
+ *
+ * @param <T> the type of the entities
+ */
+public abstract class EntityTableModel<T> extends AbstractTableModel {
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<T> entities = new ArrayList<>();
+	private final transient Map<Object, Integer> rows = new HashMap<>();
+	private boolean indexed;
+
+	/**
+	 * @param entity an entity of the table
+	 * @return the id of the entity, unique in the table
+	 */
+	protected abstract Object getId(T entity);
+
+	/**
+	 * @param entity the entity of the row
+	 * @param column the column, {@code -1} excluded
+	 * @return the value of the cell
+	 */
+	protected abstract Object getValueAt(T entity, int column);
+
+	@Override
+	public int getRowCount() {
+		return entities.size();
+	}
+
+	@Override
+	public Object getValueAt(int row, int column) {
+		T entity = entities.get(row);
+		if (column == -1) {
+			return entity;
+		}
+		return getValueAt(entity, column);
+	}
+
+	@Override
+	public boolean isCellEditable(int rowIndex, int columnIndex) {
+		return false;
+	}
+
+	/**
+	 * @param row the row, in the model
+	 * @return the entity of the row
+	 */
+	public T getEntity(int row) {
+		return entities.get(row);
+	}
+
+	/**
+	 * @return the entities, in the order of the model
+	 */
+	public List<T> getEntities() {
+		return Collections.unmodifiableList(entities);
+	}
+
+	/**
+	 * @param id the id of an entity
+	 * @return the row of the entity in the model, {@code -1} if not in the table
+	 */
+	public int indexOf(Object id) {
+		if (!indexed) {
+			rows.clear();
+			for (int i = 0; i < entities.size(); i++) {
+				rows.put(getId(entities.get(i)), i);
+			}
+			indexed = true;
+		}
+		return rows.getOrDefault(id, -1);
+	}
+
+	/**
+	 * Replaces all the rows; the selection of the tables is cleared, but the sort is kept
+	 *
+	 * @param newEntities the entities to show
+	 */
+	public void setEntities(Collection<? extends T> newEntities) {
+		entities.clear();
+		if (newEntities != null) {
+			entities.addAll(newEntities);
+		}
+		indexed = false;
+		fireTableDataChanged();
+	}
+
+	/**
+	 * Replaces all the rows, selecting again in the table the entities that were selected and are still shown
+	 *
+	 * @param newEntities the entities to show
+	 * @param table the table of this model
+	 */
+	public void setEntities(Collection<? extends T> newEntities, JTable table) {
+		List<Object> selected = new ArrayList<>();
+		for (int viewRow : table.getSelectedRows()) {
+			selected.add(getId(entities.get(table.convertRowIndexToModel(viewRow))));
+		}
+		setEntities(newEntities);
+		for (Object id : selected) {
+			int row = indexOf(id);
+			if (row >= 0) {
+				int viewRow = table.convertRowIndexToView(row);
+				if (viewRow >= 0) {
+					table.addRowSelectionInterval(viewRow, viewRow);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param row the row of the new entity, in the model
+	 * @param entity the entity to add
+	 */
+	public void insert(int row, T entity) {
+		entities.add(row, entity);
+		indexed = false;
+		fireTableRowsInserted(row, row);
+	}
+
+	/**
+	 * @param entity the entity to add as last row
+	 */
+	public void add(T entity) {
+		insert(entities.size(), entity);
+	}
+
+	/**
+	 * Replaces the entity with the same id
+	 *
+	 * @param entity the entity changed
+	 * @return the row updated, {@code -1} if the entity is not in the table
+	 */
+	public int update(T entity) {
+		int row = indexOf(getId(entity));
+		if (row >= 0) {
+			entities.set(row, entity);
+			fireTableRowsUpdated(row, row);
+		}
+		return row;
+	}
+
+	/**
+	 * @param id the id of the entity to remove
+	 * @return the row removed, {@code -1} if the entity is not in the table
+	 */
+	public int remove(Object id) {
+		int row = indexOf(id);
+		if (row >= 0) {
+			entities.remove(row);
+			indexed = false;
+			fireTableRowsDeleted(row, row);
+		}
+		return row;
+	}
+}
@@ -1246,6 +1246,17 @@ public class JAgenda extends JPanel implements ActionListener, KeyListener, Focu
 	}
 
 	public void addElement(Object obj, int day) {
+		DefaultListModel model = (DefaultListModel) getList(day).getModel();
+		model.addElement(obj);
+	}
+
+	/**
+	 * Returns the list of the elements of a day of the current month
+	 *
+	 * @param day the day of the month
+	 * @return the list of the day
+	 */
+	public JList getList(int day) {
 
 		Calendar tmpCalendar = (Calendar) calendar.clone();
 		tmpCalendar.set(Calendar.HOUR_OF_DAY, 0);
@@ -1263,8 +1274,7 @@ public class JAgenda extends JPanel implements ActionListener, KeyListener, Focu
 
 		int realIndex = 6 + firstDay + day;
 
-		DefaultListModel model = (DefaultListModel) days[realIndex].getList().getModel();
-		model.addElement(obj);
+		return days[realIndex].getList();
 	}
 
 	public void removeElement(int index, int day) {
@@ -152,7 +152,7 @@ public class VisitView extends ModalJFrame {
 	private VisitManager visitManager = Context.getApplicationContext().getBean(VisitManager.class);
 	private WardBrowserManager wardBrowserManager = Context.getApplicationContext().getBean(WardBrowserManager.class);
 
-	private List<Visit> visits = new ArrayList<>();
+	private WardVisitIndex wardVisits = new WardVisitIndex(null);
 	private List<Visit> visitfirst = new ArrayList<>();
 	private List<Visit> visitSecond = new ArrayList<>();
 	private Ward ward;
@@ -167,7 +167,7 @@ public class VisitView extends ModalJFrame {
 	private void loadDataForWard(Ward ward) {
 		try {
 			if (!ward.getDescription().equals(SELECT_A_WARD)) {
-				visits = visitManager.getVisitsWard(ward.getCode());
+				wardVisits = new WardVisitIndex(visitManager.getVisitsWard(ward.getCode()));
 			}
 		} catch (OHServiceException e1) {
 			OHServiceExceptionUtil.showMessages(e1);
@@ -344,7 +344,7 @@ public class VisitView extends ModalJFrame {
 				if (ok == JOptionPane.YES_OPTION) {
 					try {
 						visitManager.deleteVisit(visit);
-						loadDataForWard(ward);
+						wardVisits.remove(visit);
 						updatePanels();
 					} catch (OHServiceException e) {
 						OHServiceExceptionUtil.showMessages(e);
@@ -393,7 +393,7 @@ public class VisitView extends ModalJFrame {
 				if (ok == JOptionPane.YES_OPTION) {
 					try {
 						visitManager.deleteVisit(visit);
-						loadDataForWard(ward);
+						wardVisits.remove(visit);
 						updatePanels();
 					} catch (OHServiceException e) {
 						OHServiceExceptionUtil.showMessages(e);
@@ -407,7 +407,7 @@ public class VisitView extends ModalJFrame {
 	private void addVisit(Visit vsRow) {
 		if (vsRow != null && vsRow.getVisitID() != 0) {
 
-			loadDataForWard(ward);
+			wardVisits.add(vsRow);
 
 			if (!TimeTools.isSameDay(dateFirst, vsRow.getDate()) && !TimeTools.isSameDay(dateSecond, vsRow.getDate())) {
 				// if new visit date is not already shown, change view
@@ -556,13 +556,7 @@ public class VisitView extends ModalJFrame {
 	}
 
 	private List<Visit> getVisitForDate(LocalDateTime date) {
-		List<Visit> vis = new ArrayList<>();
-		for (Visit visit : visits) {
-			if (TimeTools.isSameDay(visit.getDate(), date)) {
-				vis.add(visit);
-			}
-		}
-		return vis;
+		return wardVisits.getVisits(date.toLocalDate());
 	}
 
 	private final class FreeMemoryAdapter extends WindowAdapter {
@@ -578,9 +572,7 @@ public class VisitView extends ModalJFrame {
 	}
 
 	private void freeMemory() {
-		if (visits != null) {
-			visits.clear();
-		}
+		wardVisits = new WardVisitIndex(null);
 	}
 
 	class CenterTableCellRenderer extends DefaultTableCellRenderer {
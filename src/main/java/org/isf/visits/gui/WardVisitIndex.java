@@ -0,0 +1,90 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.visits.gui;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.isf.visits.model.Visit;
+
+/**
+ * Visits of a ward indexed by day, so that showing a day in {@link VisitView} is a lookup instead of a scan of the
+ * whole ward history. The index is kept up to date when visits are added or deleted, without reloading the ward.
+ */
+class WardVisitIndex {
+
+	private static final Comparator<Visit> BY_TIME = Comparator.comparing(Visit::getDate);
+
+	private final Map<LocalDate, List<Visit>> visitsByDay = new HashMap<>();
+
+	WardVisitIndex(List<Visit> visits) {
+		if (visits != null) {
+			for (Visit visit : visits) {
+				put(visit);
+			}
+			visitsByDay.values().forEach(day -> day.sort(BY_TIME));
+		}
+	}
+
+	/**
+	 * @param day the day
+	 * @return the visits of the day ordered by time
+	 */
+	List<Visit> getVisits(LocalDate day) {
+		List<Visit> visits = visitsByDay.get(day);
+		return visits == null ? new ArrayList<>() : new ArrayList<>(visits);
+	}
+
+	void add(Visit visit) {
+		List<Visit> day = put(visit);
+		if (day != null) {
+			day.sort(BY_TIME);
+		}
+	}
+
+	void remove(Visit visit) {
+		if (visit == null || visit.getDate() == null) {
+			return;
+		}
+		LocalDate date = visit.getDate().toLocalDate();
+		List<Visit> day = visitsByDay.get(date);
+		if (day != null) {
+			day.removeIf(element -> element == visit || (visit.getVisitID() != 0 && element.getVisitID() == visit.getVisitID()));
+			if (day.isEmpty()) {
+				visitsByDay.remove(date);
+			}
+		}
+	}
+
+	private List<Visit> put(Visit visit) {
+		if (visit == null || visit.getDate() == null) {
+			return null;
+		}
+		List<Visit> day = visitsByDay.computeIfAbsent(visit.getDate().toLocalDate(), date -> new ArrayList<>());
+		day.add(visit);
+		return day;
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.xmpp.gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The lines trimmed from a chat transcript, kept in a temporary file deleted by {@link #close()} or at exit.
+ * <p>
+ * Lines are appended in chronological order and read back by index, the offset of each line being kept in memory, so
+ * that a page of old lines is read without scanning the file. Not thread safe: to be used on the EDT only.
+ */
+class ChatHistory {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ChatHistory.class);
+
+	private File temp;
+	private RandomAccessFile file;
+	private final List<Long> offsets = new ArrayList<>();
+	private long length;
+
+	/**
+	 * @return the number of lines in the history
+	 */
+	int size() {
+		return offsets.size();
+	}
+
+	/**
+	 * @param lines the lines to append, without line separators
+	 */
+	void append(List<String> lines) {
+		try {
+			if (file == null) {
+				// owner-only on POSIX, the transcript being private
+				temp = Files.createTempFile("oh-chat-", ".log").toFile();
+				temp.deleteOnExit();
+				file = new RandomAccessFile(temp, "rw");
+			}
+			StringBuilder text = new StringBuilder();
+			long offset = length;
+			List<Long> appended = new ArrayList<>(lines.size());
+			for (String line : lines) {
+				appended.add(offset);
+				String escaped = line.replace('\n', ' ') + '\n';
+				text.append(escaped);
+				offset += escaped.getBytes(StandardCharsets.UTF_8).length;
+			}
+			file.seek(length);
+			file.write(text.toString().getBytes(StandardCharsets.UTF_8));
+			offsets.addAll(appended);
+			length = offset;
+		} catch (IOException e) {
+			LOGGER.warn("Chat history not saved, {} lines lost: {}", lines.size(), e.getMessage());
+		}
+	}
+
+	/**
+	 * @param from the first line, included
+	 * @param to the last line, excluded
+	 * @return the lines, empty if the history cannot be read
+	 */
+	List<String> read(int from, int to) {
+		List<String> lines = new ArrayList<>(to - from);
+		if (file == null || from >= to) {
+			return lines;
+		}
+		try {
+			long start = offsets.get(from);
+			long end = to < offsets.size() ? offsets.get(to) : length;
+			byte[] bytes = new byte[(int) (end - start)];
+			file.seek(start);
+			file.readFully(bytes);
+			String text = new String(bytes, StandardCharsets.UTF_8);
+			for (String line : text.split("\n", -1)) {
+				if (lines.size() < to - from) {
+					lines.add(line);
+				}
+			}
+		} catch (IOException e) {
+			LOGGER.warn("Chat history not readable: {}", e.getMessage());
+		}
+		return lines;
+	}
+
+	/**
+	 * Closes and deletes the temporary file, the history being empty afterwards
+	 */
+	void close() {
+		offsets.clear();
+		length = 0;
+		if (file == null) {
+			return;
+		}
+		try {
+			file.close();
+		} catch (IOException e) {
+			LOGGER.debug("Chat history not closed: {}", e.getMessage());
+		}
+		file = null;
+		if (!temp.delete()) {
+			LOGGER.debug("Unable to delete {}", temp);
+		}
+		temp = null;
+	}
+}
@@ -25,79 +25,129 @@ import static org.isf.utils.Constants.TIME_FORMAT_HH_MM_SS;
 
 import java.awt.Color;
 import java.awt.Insets;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Queue;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JTextPane;
+import javax.swing.SwingUtilities;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.Document;
+import javax.swing.text.Element;
 import javax.swing.text.SimpleAttributeSet;
 import javax.swing.text.StyleConstants;
 
+import org.isf.generaldata.ConfigurationProperties;
 import org.isf.generaldata.MessageBundle;
 import org.isf.stat.gui.report.GenericReportFromDateToDate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * The transcript of a chat.
+ * <p>
+ * Messages and notifications can be printed from any thread, e.g. the Smack listeners: they are queued and applied to
+ * the document together on the EDT. The transcript keeps at most {@code TRANSCRIPT_LINES} lines (from
+ * {@code xmpp.properties}, {@value #DEFAULT_TRANSCRIPT_LINES} by default): the oldest lines are moved to a
+ * {@link ChatHistory} on disk and loaded back, {@value #HISTORY_PAGE} at a time, with {@link #loadHistory()} when the
+ * user scrolls to the top. The lines loaded back are not counted in the limit, so they stay until the chat is closed
+ * with {@link #close()}.
+ */
 public class ChatMessages extends JTextPane {
 
 	private static final long serialVersionUID = 1L;
-	private Document sDoc;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ChatMessages.class);
+
+	private static final String FILE_PROPERTIES = "xmpp.properties";
+	private static final String PROPERTY_TRANSCRIPT_LINES = "TRANSCRIPT_LINES";
+	static final int DEFAULT_TRANSCRIPT_LINES = 500;
+	static final int HISTORY_PAGE = 100;
+	private static final int TRANSCRIPT_LINES = readTranscriptLines();
+
+	private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern(TIME_FORMAT_HH_MM_SS);
+
 	private Color greenColor = new Color(0, 100, 0);
 	private Color blueColor = new Color(176, 23, 31);
 	private Color redColor = new Color(25, 25, 112);
-	private SimpleAttributeSet keyWord;
-	private SimpleDateFormat simpleDateFormat = new SimpleDateFormat(TIME_FORMAT_HH_MM_SS);
+	private final SimpleAttributeSet notificationStyle = new SimpleAttributeSet();
+	private final SimpleAttributeSet incomingStyle = new SimpleAttributeSet();
+	private final SimpleAttributeSet outgoingStyle = new SimpleAttributeSet();
+	private final SimpleAttributeSet textStyle = new SimpleAttributeSet();
+	private final SimpleAttributeSet historyStyle = new SimpleAttributeSet();
 
-	private static final Logger LOGGER = LoggerFactory.getLogger(ChatMessages.class);
+	/**
+	 * A change of the document, applied on the EDT
+	 */
+	@FunctionalInterface
+	private interface Append {
+
+		void append(Document doc) throws BadLocationException;
+	}
+
+	private final transient Queue<Append> pending = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean flushScheduled = new AtomicBoolean();
+	private final transient ChatHistory history = new ChatHistory();
+	// the history lines shown at the top of the transcript, from the line historyFrom of the history
+	private int historyFrom;
+	private int historyShown;
 
 	public ChatMessages() {
 		setEditable(false);
 		setMinimumSize(getSize());
-		keyWord = new SimpleAttributeSet();
+		StyleConstants.setForeground(notificationStyle, greenColor);
+		StyleConstants.setBold(incomingStyle, true);
+		StyleConstants.setForeground(incomingStyle, blueColor);
+		StyleConstants.setBold(outgoingStyle, true);
+		StyleConstants.setForeground(outgoingStyle, redColor);
+		StyleConstants.setForeground(textStyle, Color.black);
+		StyleConstants.setForeground(historyStyle, Color.GRAY);
 	}
 
 	//print general notification
 	public void printNotification(String notification) throws BadLocationException {
-		StyleConstants.setForeground(keyWord, greenColor);
-		sDoc = getDocument();
-		sDoc.insertString(sDoc.getEndPosition().getOffset(), "*** " + notification + '\n', keyWord);
+		enqueue(doc -> doc.insertString(doc.getLength(), "*** " + notification + '\n', notificationStyle));
 	}
 
 	//print notification of file transfer
 	public void printNotification(String name, String fileTransfer, JButton accept, JButton reject) {
+		enqueue(doc -> {
+			doc.insertString(doc.getLength(), "\n*** " + fileTransfer + '\n', notificationStyle);
+			int position = doc.getLength();
+			select(position, position);
 
-		Document doc = getDocument();
-		int position = doc.getEndPosition().getOffset();
-		StyleConstants.setForeground(keyWord, greenColor);
-		try {
-			doc.insertString(position, "\n*** " + fileTransfer + '\n', keyWord);
-		} catch (BadLocationException badLocationException) {
-			LOGGER.error(badLocationException.getMessage(), badLocationException);
-		}
-		position = doc.getEndPosition().getOffset();
-		select(position, position);
+			insertComponent(accept);
+			insertComponent(reject);
+		});
+	}
 
-		insertComponent(accept);
-		insertComponent(reject);
+	//print the progress of a file transfer
+	void printTransfer(FileTransferPanel transfer) {
+		enqueue(doc -> {
+			int position = doc.getLength();
+			select(position, position);
+
+			insertComponent(transfer);
+			doc.insertString(doc.getLength(), "\n", notificationStyle);
+		});
 	}
 
 	//print send and received messages
 	public void printMessage(String user, String message, boolean incomingType) throws BadLocationException {
-		StyleConstants.setBold(keyWord, true);
-		if (incomingType) {
-			StyleConstants.setForeground(keyWord, blueColor);
-		} else {
-			StyleConstants.setForeground(keyWord, redColor);
-		}
-		sDoc = getDocument();
-		sDoc.insertString(sDoc.getEndPosition().getOffset(), '(' + simpleDateFormat.format(new Date()) + ") " + user + " : ", keyWord);
-		StyleConstants.setBold(keyWord, false);
-		StyleConstants.setForeground(keyWord, Color.black);
-		sDoc.insertString(sDoc.getEndPosition().getOffset(), message + '\n', keyWord);
+		String time = LocalTime.now().format(TIME_FORMATTER);
+		SimpleAttributeSet nameStyle = incomingType ? incomingStyle : outgoingStyle;
+		enqueue(doc -> {
+			doc.insertString(doc.getLength(), '(' + time + ") " + user + " : ", nameStyle);
+			doc.insertString(doc.getLength(), message + '\n', textStyle);
+		});
 	}
 
 	public void printReport(String name, String report) {
@@ -105,7 +155,6 @@ public class ChatMessages extends JTextPane {
 		final String toDate;
 		final String typeReport;
 
-		Document doc = getDocument();
 		ImageIcon open = new ImageIcon("rsc/icons/open.png");
 		final JButton view = new JButton(open);
 		view.setMargin(new Insets(1, 1, 1, 1));
@@ -126,22 +175,133 @@ public class ChatMessages extends JTextPane {
 		LOGGER.debug("toDate: {}", reports[2]);
 		typeReport = reports[3];
 		LOGGER.debug("typeReport: {}", reports[3]);
-		int position = doc.getEndPosition().getOffset();
-		StyleConstants.setForeground(keyWord, greenColor);
 
+		view.addActionListener(actionEvent -> {
+			new GenericReportFromDateToDate(fromDate, toDate, "rpt_base", typeReport, typeReport, false);
+			view.setEnabled(false);
+		});
+		enqueue(doc -> {
+			doc.insertString(doc.getLength(), MessageBundle.formatMessage("angal.xmpp.wantstosharewithyouthisreport.fmt.msg", name, typeReport),
+					notificationStyle);
+			int position = doc.getLength();
+			select(position, position);
+
+			insertComponent(view);
+		});
+	}
+
+	/**
+	 * @return {@code true} if older lines can be loaded with {@link #loadHistory()}
+	 */
+	public boolean hasHistory() {
+		return historyEnd() > 0;
+	}
+
+	/**
+	 * Loads, at the top of the transcript, the lines preceding the first shown; to be called on the EDT
+	 *
+	 * @return the number of lines loaded
+	 */
+	public int loadHistory() {
+		int end = historyEnd();
+		int count = Math.min(HISTORY_PAGE, end);
+		if (count <= 0) {
+			return 0;
+		}
+		List<String> lines = history.read(end - count, end);
+		StringBuilder text = new StringBuilder();
+		for (String line : lines) {
+			text.append(line).append('\n');
+		}
 		try {
-			doc.insertString(position, MessageBundle.formatMessage("angal.xmpp.wantstosharewithyouthisreport.fmt.msg", name, typeReport), keyWord);
+			getDocument().insertString(0, text.toString(), historyStyle);
+			historyFrom = end - lines.size();
+			historyShown += lines.size();
 		} catch (BadLocationException badLocationException) {
 			LOGGER.error(badLocationException.getMessage(), badLocationException);
 		}
-		position = doc.getEndPosition().getOffset();
-		select(position, position);
+		return lines.size();
+	}
 
-		insertComponent(view);
-		view.addActionListener(actionEvent -> {
-			new GenericReportFromDateToDate(fromDate, toDate, "rpt_base", typeReport, typeReport, false);
-			view.setEnabled(false);
-		});
+	/**
+	 * Deletes the history of the transcript; to be called on the EDT when the chat is closed
+	 */
+	public void close() {
+		pending.clear();
+		history.close();
+		historyFrom = 0;
+		historyShown = 0;
+	}
+
+	/**
+	 * @return the history line following the last not shown
+	 */
+	private int historyEnd() {
+		return historyShown > 0 ? historyFrom : history.size();
+	}
+
+	private void enqueue(Append append) {
+		pending.add(append);
+		if (flushScheduled.compareAndSet(false, true)) {
+			SwingUtilities.invokeLater(this::flush);
+		}
+	}
+
+	private void flush() {
+		flushScheduled.set(false);
+		Document doc = getDocument();
+		Append append;
+		int applied = 0;
+		while ((append = pending.poll()) != null) {
+			try {
+				append.append(doc);
+			} catch (BadLocationException badLocationException) {
+				LOGGER.error(badLocationException.getMessage(), badLocationException);
+			}
+			applied++;
+		}
+		trim(doc);
+		LOGGER.debug("{} chat lines applied", applied);
+	}
+
+	/**
+	 * Moves to the history the oldest lines beyond {@link #TRANSCRIPT_LINES}, the history lines shown being kept
+	 */
+	private void trim(Document doc) {
+		Element root = doc.getDefaultRootElement();
+		// the last paragraph is the empty one after the last line
+		int excess = root.getElementCount() - 1 - historyShown - TRANSCRIPT_LINES;
+		if (excess <= 0) {
+			return;
+		}
+		List<String> lines = new ArrayList<>(excess);
+		try {
+			for (int i = historyShown; i < historyShown + excess; i++) {
+				Element paragraph = root.getElement(i);
+				String line = doc.getText(paragraph.getStartOffset(), paragraph.getEndOffset() - paragraph.getStartOffset());
+				lines.add(line.endsWith("\n") ? line.substring(0, line.length() - 1) : line);
+			}
+			history.append(lines);
+			int start = root.getElement(historyShown).getStartOffset();
+			doc.remove(start, root.getElement(historyShown + excess - 1).getEndOffset() - start);
+		} catch (BadLocationException badLocationException) {
+			LOGGER.error(badLocationException.getMessage(), badLocationException);
+		}
+	}
+
+	private static int readTranscriptLines() {
+		Properties props = ConfigurationProperties.loadPropertiesFile(FILE_PROPERTIES, LOGGER);
+		String value = props != null ? props.getProperty(PROPERTY_TRANSCRIPT_LINES) : null;
+		if (value == null) {
+			return DEFAULT_TRANSCRIPT_LINES;
+		}
+		try {
+			int lines = Integer.parseInt(value.trim());
+			return lines > 0 ? lines : DEFAULT_TRANSCRIPT_LINES;
+		} catch (NumberFormatException e) {
+			LOGGER.warn("Invalid value for {} in {}, using {}", PROPERTY_TRANSCRIPT_LINES, FILE_PROPERTIES, DEFAULT_TRANSCRIPT_LINES);
+			return DEFAULT_TRANSCRIPT_LINES;
+		}
 	}
 
 }
@@ -34,6 +34,7 @@ import javax.swing.JScrollPane;
 import javax.swing.JSplitPane;
 import javax.swing.JTextField;
 import javax.swing.ScrollPaneConstants;
+import javax.swing.SwingUtilities;
 
 public class ChatPanel extends JPanel {
 
@@ -82,6 +83,7 @@ public class ChatPanel extends JPanel {
 
 			BoundedRangeModel brm = received.getVerticalScrollBar().getModel();
 			boolean wasAtBottom = true;
+			boolean loadingHistory;
 
 			@Override
 			public void adjustmentValueChanged(AdjustmentEvent e) {
@@ -92,6 +94,20 @@ public class ChatPanel extends JPanel {
 				} else {
 					wasAtBottom = ((brm.getValue() + brm.getExtent()) == brm.getMaximum());
 				}
+				if (!wasAtBottom && brm.getValue() == brm.getMinimum() && !loadingHistory && chatMessages.hasHistory()) {
+					loadingHistory = true;
+					SwingUtilities.invokeLater(this::loadHistory);
+				}
+			}
+
+			private void loadHistory() {
+				int maximum = brm.getMaximum();
+				chatMessages.loadHistory();
+				// once laid out, keeps in view the line that was at the top
+				SwingUtilities.invokeLater(() -> {
+					brm.setValue(brm.getValue() + brm.getMaximum() - maximum);
+					loadingHistory = false;
+				});
 			}
 		});
 
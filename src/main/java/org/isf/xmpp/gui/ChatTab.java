@@ -55,6 +55,18 @@ public class ChatTab extends JTabbedPane {
 
 	}
 
+	/**
+	 * Removes the tab, deleting the history of its chat
+	 */
+	@Override
+	public void removeTabAt(int index) {
+		Component component = getComponentAt(index);
+		super.removeTabAt(index);
+		if (component instanceof ChatPanel chatPanel) {
+			chatPanel.getChatMessages().close();
+		}
+	}
+
 	public Color getTabColor() {
 		return tab.getColor();
 	}
@@ -31,9 +31,7 @@ import java.awt.event.MouseListener;
 import java.awt.event.WindowEvent;
 import java.awt.event.WindowListener;
 import java.io.File;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 import javax.swing.BorderFactory;
 import javax.swing.BoxLayout;
@@ -60,6 +58,7 @@ import org.isf.menu.manager.Context;
 import org.isf.menu.manager.UserBrowsingManager;
 import org.isf.utils.exception.OHServiceException;
 import org.isf.utils.exception.gui.OHServiceExceptionUtil;
+import org.isf.utils.jobjects.MessageDialog;
 import org.isf.xmpp.gui.ChatTab.TabButton;
 import org.isf.xmpp.manager.Interaction;
 import org.jivesoftware.smack.Chat;
@@ -69,13 +68,12 @@ import org.jivesoftware.smack.MessageListener;
 import org.jivesoftware.smack.Roster;
 import org.jivesoftware.smack.RosterEntry;
 import org.jivesoftware.smack.RosterListener;
-import org.jivesoftware.smack.XMPPException;
 import org.jivesoftware.smack.packet.Message;
 import org.jivesoftware.smack.packet.Presence;
 import org.jivesoftware.smackx.filetransfer.FileTransferListener;
+import org.jivesoftware.smackx.filetransfer.FileTransferManager;
 import org.jivesoftware.smackx.filetransfer.FileTransferNegotiator;
 import org.jivesoftware.smackx.filetransfer.FileTransferRequest;
-import org.jivesoftware.smackx.filetransfer.IncomingFileTransfer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -88,7 +86,8 @@ public class CommunicationFrame extends JFrame implements MessageListener, FileT
 
 	private JPanel leftpanel;
 	private JSeparator separator = new JSeparator(SwingConstants.VERTICAL);
-	private JList buddyList;
+	private JList<RosterEntry> buddyList;
+	private RosterListModel rosterModel;
 	private ChatTab tabs;
 	public Object user;
 	private ChatPanel newChat;
@@ -97,6 +96,7 @@ public class CommunicationFrame extends JFrame implements MessageListener, FileT
 	private Roster roster;
 	private JTextPane userInfo;
 	private ChatMessages area;
+	private FileTransferManager fileTransferManager;
 
 	private UserBrowsingManager userBrowsingManager = Context.getApplicationContext().getBean(UserBrowsingManager.class);
 
@@ -156,6 +156,8 @@ public class CommunicationFrame extends JFrame implements MessageListener, FileT
 
 			@Override
 			public void windowClosed(WindowEvent e) {
+				// deletes the history of the chats
+				tabs.removeAll();
 			}
 
 			@Override
@@ -177,6 +179,7 @@ public class CommunicationFrame extends JFrame implements MessageListener, FileT
 
 	public void senseRoster() {
 		roster = interaction.getRoster();
+		rosterModel = new RosterListModel(roster);
 
 		roster.addRosterListener(new RosterListener() {
 
@@ -190,38 +193,43 @@ public class CommunicationFrame extends JFrame implements MessageListener, FileT
 				} else if (presence.isAvailable()) {
 					sb.append(userName).append(' ').append(MessageBundle.getMessage("angal.xmpp.isnowonline.txt"));
 				}
-				int index = tabs.indexOfTab(userName);
-				if (index != -1) {
-					area = getArea(userName, true);
-					try {
-						area.printNotification(sb.toString());
-					} catch (BadLocationException badLocationException) {
-						LOGGER.error(badLocationException.getMessage(), badLocationException);
+				// called on the Smack thread
+				SwingUtilities.invokeLater(() -> {
+					int index = tabs.indexOfTab(userName);
+					if (index != -1) {
+						area = getArea(userName, true);
+						try {
+							area.printNotification(sb.toString());
+						} catch (BadLocationException badLocationException) {
+							LOGGER.error(badLocationException.getMessage(), badLocationException);
+						}
 					}
-				}
-				refreshBuddyList();
+				});
+				rosterModel.presenceChanged(presence.getFrom());
 			}
 
 			@Override
 			public void entriesUpdated(Collection<String> arg0) {
+				rosterModel.entriesChanged();
 			}
 
 			@Override
 			public void entriesDeleted(Collection<String> arg0) {
+				rosterModel.entriesChanged();
 			}
 
 			@Override
 			public void entriesAdded(Collection<String> arg0) {
+				rosterModel.entriesChanged();
 			}
 		});
 	}
 
+	/**
+	 * Reads again the contacts and their presence; the list is otherwise kept up to date by the roster listener
+	 */
 	public void refreshBuddyList() {
-		getContentPane().remove(leftpanel);
-		leftpanel = createLeftPanel();
-		getContentPane().add(leftpanel, BorderLayout.WEST);
-		validate();
-		repaint();
+		rosterModel.reload();
 	}
 
 	private void incomingChat() {
@@ -267,13 +275,23 @@ public class CommunicationFrame extends JFrame implements MessageListener, FileT
 			if (returnVal == JFileChooser.APPROVE_OPTION) {
 				File file = fileChooser.getSelectedFile();
 				LOGGER.debug("Selected file: {}", file);
-				String receiver = ((RosterEntry) buddyList.getSelectedValue()).getName();
+				RosterEntry entry = buddyList.getSelectedValue();
+				String receiver = entry.getName();
 				LOGGER.debug("Receiver: {}", receiver);
-				interaction.sendFile(receiver, file, null);
+				// the full address of the receiver, the file is sent to a resource: an offline contact has none
+				Presence presence = roster.getPresence(entry.getUser());
+				if (!presence.isAvailable()) {
+					MessageDialog.error(this, "angal.xmpp.isofflinefilenotsent.fmt.msg", receiver);
+					return;
+				}
+				FileTransferPanel transfer = new FileTransferPanel(MessageBundle.formatMessage("angal.xmpp.sendingfile.fmt.txt", file.getName()),
+						file.length());
+				getArea(receiver, false).printTransfer(transfer);
+				FileTransferService.getInstance().send(getFileTransferManager(), presence.getFrom(), file, transfer);
 			}
 		});
 		getInfo.addActionListener(actionEvent -> {
-			String userName = ((RosterEntry) buddyList.getSelectedValue()).getName();
+			String userName = buddyList.getSelectedValue().getName();
 			String info = null;
 			try {
 				info = userBrowsingManager.getUsrInfo(userName);
@@ -297,7 +315,7 @@ public class CommunicationFrame extends JFrame implements MessageListener, FileT
 				if (e.getClickCount() == 1) {
 					int index = buddyList.locationToIndex(e.getPoint());
 					if (index >= 0) {
-						user = ((RosterEntry) buddyList.getModel().getElementAt(index)).getName();
+						user = buddyList.getModel().getElementAt(index).getName();
 					}
 				}
 			}
@@ -321,12 +339,11 @@ public class CommunicationFrame extends JFrame implements MessageListener, FileT
 					int index = buddyList.locationToIndex(e.getPoint());
 					LOGGER.debug("Index : {}", index);
 					if (index >= 0) {
-						user = ((RosterEntry) buddyList.getModel().getElementAt(index)).getName();
+						RosterEntry entry = buddyList.getModel().getElementAt(index);
+						user = entry.getName();
 						LOGGER.debug("User selected: {}", user); //$NON-NLS-1$
 						newChat = new ChatPanel();
-						roster = interaction.getRoster();
-						Presence presence = roster.getPresence(((RosterEntry) buddyList.getModel().getElementAt(index)).getUser());
-						if (presence.isAvailable()) {
+						if (rosterModel.isAvailable(entry)) {
 							if (tabs.indexOfTab((String) user) == -1) {
 								tabs.addTab((String) user, newChat);
 								tabs.setSelectedIndex(tabs.indexOfTab((String) user));
@@ -362,6 +379,7 @@ public class CommunicationFrame extends JFrame implements MessageListener, FileT
 	private JPanel createLeftPanel() {  // contact list panel
 		Dimension size = new Dimension(150, 200);
 
+		leftpanel = new JPanel();
 		leftpanel.setLayout(new BoxLayout(leftpanel, BoxLayout.Y_AXIS));
 		JScrollPane buddy = createBuddyList();
 		buddy.setBorder(BorderFactory.createTitledBorder(MessageBundle.getMessage("angal.xmpp.contacts.border")));
@@ -436,29 +454,19 @@ public class CommunicationFrame extends JFrame implements MessageListener, FileT
 		}
 	}
 
-	public JList getBuddyList() {
-
-		LOGGER.debug("==> roster : {}", roster);
-		List<RosterEntry> entries = new ArrayList<>(roster.getEntries());
-		entries.sort((r1, r2) -> {
-			Presence presence1 = roster.getPresence(r1.getUser());
-			Presence presence2 = roster.getPresence(r2.getUser());
-			String r1Name = r1.getName();
-			String r2Name = r2.getName();
-			if (presence1.isAvailable() == presence2.isAvailable()) {
-				return r1Name.toLowerCase().compareTo(r2Name.toLowerCase());
-			}
+	private FileTransferManager getFileTransferManager() {
+		if (fileTransferManager == null) {
+			fileTransferManager = new FileTransferManager(interaction.getConnection());
+		}
+		return fileTransferManager;
+	}
 
-			if (presence1.isAvailable() && (!presence2.isAvailable())) {
-				return -1;
-			} else {
-				return 1;
-			}
+	public JList<RosterEntry> getBuddyList() {
 
-		});
-		JList buddy = new JList(entries.toArray());
+		LOGGER.debug("==> roster : {}", roster);
+		JList<RosterEntry> buddy = new JList<>(rosterModel);
 
-		ListCellRenderer render = new ComplexCellRender(interaction.getServer());
+		ListCellRenderer<RosterEntry> render = new ComplexCellRender(interaction.getServer());
 
 		buddy.setCellRenderer(render);
 
@@ -530,23 +538,23 @@ public class CommunicationFrame extends JFrame implements MessageListener, FileT
 
 			chooser.setAcceptAllFileFilterUsed(false);
 
-			if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
-				LOGGER.debug("getCurrentDirectory(): {}", chooser.getCurrentDirectory());
-				LOGGER.debug("getSelectedFile() : {}", chooser.getSelectedFile());
-			} else {
+			if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
 				LOGGER.debug("No Selection.");
+				accept.setEnabled(true);
+				reject.setEnabled(true);
+				return;
 			}
-			IncomingFileTransfer transfer = request.accept();
-			String path = chooser.getSelectedFile() + "/" + request.getFileName();
-			File file = new File(path);
-			try {
-				transfer.recieveFile(file);
-			} catch (XMPPException xmppException) {
-				LOGGER.error(xmppException.getMessage(), xmppException);
-			}
+			LOGGER.debug("getSelectedFile() : {}", chooser.getSelectedFile());
+			// only the name, the sender cannot choose the folder
+			String fileName = new File(request.getFileName()).getName();
+			File file = new File(chooser.getSelectedFile(), fileName);
+			FileTransferPanel transfer = new FileTransferPanel(MessageBundle.formatMessage("angal.xmpp.receivingfile.fmt.txt", fileName),
+					request.getFileSize());
+			getArea(user, true).printTransfer(transfer);
+			FileTransferService.getInstance().receive(request, file, transfer,
+					() -> printNotification((getArea(user, true)), MessageBundle.formatMessage(
+							"angal.xmpp.thefiletransferofbetweenyouandendedsuccesfully.fmt.msg", request.getFileName(), user)));
 
-			printNotification((getArea(user, true)), MessageBundle.formatMessage("angal.xmpp.thefiletransferofbetweenyouandendedsuccesfully.fmt.msg",
-					request.getFileName(), user));
 			sendMessage(MessageBundle.formatMessage("angal.xmpp.filetransferofhasbeenaccepted.fmt.msg", request.getFileName()),
 					request.getRequestor(), false);
 		});
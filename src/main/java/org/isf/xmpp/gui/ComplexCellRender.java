@@ -30,47 +30,50 @@ import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JList;
 import javax.swing.ListCellRenderer;
+import javax.swing.ListModel;
 
 import org.isf.xmpp.service.Server;
-import org.jivesoftware.smack.Roster;
 import org.jivesoftware.smack.RosterEntry;
-import org.jivesoftware.smack.packet.Presence;
 
-public class ComplexCellRender extends JLabel implements ListCellRenderer {
+/**
+ * Renders a contact of the roster with its presence. The fonts and the icons are created once and the presence is read
+ * from {@link RosterListModel}, which keeps it up to date; the roster is queried only for a list with another model.
+ */
+public class ComplexCellRender implements ListCellRenderer<RosterEntry> {
+
+	private static final Font ONLINE_FONT = new Font("Arial", Font.BOLD, 14);
+	private static final Font OFFLINE_FONT = new Font("Arial", Font.ITALIC, 14);
 
-	private static final long serialVersionUID = 1L;
 	protected DefaultListCellRenderer defaultRenderer = new DefaultListCellRenderer();
 	Server server;
-	ImageIcon online= new ImageIcon("rsc/icons/greenlight_label.png");
-	ImageIcon offline= new ImageIcon("rsc/icons/greylight_label.png");
+	ImageIcon online = new ImageIcon("rsc/icons/greenlight_label.png");
+	ImageIcon offline = new ImageIcon("rsc/icons/greylight_label.png");
 
 	public ComplexCellRender(Server server2) {
 		server = server2;
 	}
 
 	@Override
-	public Component getListCellRendererComponent(JList list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
-
-		Color theForeground = null;
+	public Component getListCellRendererComponent(JList<? extends RosterEntry> list, RosterEntry value, int index, boolean isSelected,
+			boolean cellHasFocus) {
 
 		JLabel renderer = (JLabel) defaultRenderer.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
-		Roster roster = server.getRoster();
-		Presence presence;
-		presence = roster.getPresence(((RosterEntry) value).getUser());
-		if (presence.isAvailable()) {
+		ListModel<? extends RosterEntry> model = list.getModel();
+		boolean available = model instanceof RosterListModel
+				? ((RosterListModel) model).isAvailable(value)
+				: server.getRoster().getPresence(value.getUser()).isAvailable();
+		if (available) {
 			renderer.setIcon(online);
-			renderer.setFont(new Font("Arial", Font.BOLD, 14));
+			renderer.setFont(ONLINE_FONT);
 		} else {
 			renderer.setIcon(offline);
-			renderer.setFont(new Font("Arial", Font.ITALIC, 14));
-			renderer.setForeground(Color.GRAY);
-
-		}
-		if (!isSelected) {
-			renderer.setForeground(theForeground);
+			renderer.setFont(OFFLINE_FONT);
+			if (!isSelected) {
+				renderer.setForeground(Color.GRAY);
+			}
 		}
 
-		renderer.setText(((RosterEntry) value).getName());
+		renderer.setText(value.getName());
 		return renderer;
 	}
 
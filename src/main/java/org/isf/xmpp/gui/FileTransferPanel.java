@@ -0,0 +1,117 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.xmpp.gui;
+
+import java.awt.FlowLayout;
+import java.awt.Insets;
+
+import javax.swing.ImageIcon;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+
+import org.isf.generaldata.MessageBundle;
+
+/**
+ * The progress of a file transfer, shown in the chat: file name, progress bar, throughput and a button to cancel the
+ * transfer. To be changed on the EDT only.
+ */
+class FileTransferPanel extends JPanel {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long size;
+	private final JProgressBar progressBar = new JProgressBar(0, 100);
+	private final JLabel statusLabel = new JLabel(MessageBundle.getMessage("angal.xmpp.filetransferwaiting.txt"));
+	private final JButton cancelButton = new JButton(new ImageIcon("rsc/icons/delete_button.png"));
+	private transient Runnable cancelAction;
+
+	/**
+	 * @param title the description of the transfer
+	 * @param size the size of the file, in bytes
+	 */
+	FileTransferPanel(String title, long size) {
+		super(new FlowLayout(FlowLayout.LEFT, 4, 0));
+		this.size = size;
+		setOpaque(false);
+		progressBar.setStringPainted(true);
+		cancelButton.setMargin(new Insets(1, 1, 1, 1));
+		cancelButton.setOpaque(false);
+		cancelButton.setBorderPainted(false);
+		cancelButton.setContentAreaFilled(false);
+		cancelButton.setToolTipText(MessageBundle.getMessage("angal.xmpp.canceltransfer.tooltip"));
+		cancelButton.addActionListener(actionEvent -> {
+			cancelButton.setEnabled(false);
+			if (cancelAction != null) {
+				cancelAction.run();
+			}
+		});
+		add(new JLabel(title));
+		add(progressBar);
+		add(statusLabel);
+		add(cancelButton);
+		setMaximumSize(getPreferredSize());
+	}
+
+	/**
+	 * @param cancelAction run on the EDT when the user cancels the transfer
+	 */
+	void setCancelAction(Runnable cancelAction) {
+		this.cancelAction = cancelAction;
+	}
+
+	/**
+	 * @param transferred the bytes transferred so far
+	 * @param bytesPerSecond the average throughput
+	 */
+	void setProgress(long transferred, long bytesPerSecond) {
+		progressBar.setValue(size > 0 ? (int) Math.min(100, transferred * 100 / size) : 0);
+		statusLabel.setText(MessageBundle.formatMessage("angal.xmpp.filetransferprogress.fmt.txt", formatSize(transferred), formatSize(size),
+				formatSize(bytesPerSecond)));
+	}
+
+	/**
+	 * Shows the outcome of the transfer, which cannot be cancelled anymore
+	 *
+	 * @param message the outcome
+	 * @param completed {@code true} if the file was transferred
+	 */
+	void setFinished(String message, boolean completed) {
+		if (completed) {
+			progressBar.setValue(100);
+		}
+		statusLabel.setText(message);
+		cancelButton.setEnabled(false);
+		cancelButton.setVisible(false);
+	}
+
+	private static String formatSize(long bytes) {
+		if (bytes < 1024) {
+			return bytes + " B";
+		}
+		if (bytes < 1024 * 1024) {
+			return String.format("%.1f KB", bytes / 1024.0);
+		}
+		return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+	}
+}
@@ -0,0 +1,294 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.xmpp.gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.SwingUtilities;
+
+import org.isf.generaldata.MessageBundle;
+import org.jivesoftware.smackx.filetransfer.FileTransferManager;
+import org.jivesoftware.smackx.filetransfer.FileTransferRequest;
+import org.jivesoftware.smackx.filetransfer.IncomingFileTransfer;
+import org.jivesoftware.smackx.filetransfer.OutgoingFileTransfer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends and receives the files of the chat in background.
+ * <p>
+ * At most {@value #MAX_TRANSFERS} transfers run at the same time, on low priority threads, the others wait in the queue:
+ * a large scanned document neither blocks the conversation nor takes all the bandwidth of the chat. The data is
+ * streamed through NIO channels with a fixed buffer of {@value #BUFFER_SIZE} bytes and the progress is shown in a
+ * {@link FileTransferPanel} at most every {@value #PROGRESS_INTERVAL_MS} ms. The sender puts the SHA-256 checksum of the
+ * file in the description of the transfer; the receiver writes the file in a {@code .part} file, renamed only once its
+ * size and checksum are verified.
+ */
+final class FileTransferService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(FileTransferService.class);
+
+	static final int MAX_TRANSFERS = 2;
+	static final int BUFFER_SIZE = 64 * 1024;
+	static final long PROGRESS_INTERVAL_MS = 250;
+	private static final String CHECKSUM_PREFIX = "sha-256:";
+	private static final String PART = ".part";
+
+	private static final FileTransferService INSTANCE = new FileTransferService();
+
+	/**
+	 * The transfer of the data, run in background
+	 */
+	@FunctionalInterface
+	private interface Work {
+
+		void run() throws Exception;
+	}
+
+	private final ExecutorService executor;
+
+	private FileTransferService() {
+		AtomicInteger counter = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(MAX_TRANSFERS, runnable -> {
+			Thread thread = new Thread(runnable, "FileTransfer-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+	}
+
+	static FileTransferService getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Sends a file, to be called on the EDT
+	 *
+	 * @param manager the file transfer manager of the connection
+	 * @param receiver the full address of the receiver
+	 * @param file the file to send
+	 * @param panel the progress of the transfer, already shown in the chat
+	 */
+	void send(FileTransferManager manager, String receiver, File file, FileTransferPanel panel) {
+		OutgoingFileTransfer transfer;
+		try {
+			transfer = manager.createOutgoingFileTransfer(receiver);
+		} catch (IllegalArgumentException e) {
+			// e.g. the receiver went offline
+			LOGGER.error("File transfer of {} to {} not started.", file.getName(), receiver, e);
+			panel.setFinished(MessageBundle.formatMessage("angal.xmpp.filetransferfailed.fmt.txt", e.getMessage()), false);
+			return;
+		}
+		start(file.getName(), transfer::cancel, panel, null, () -> {
+			String checksum = HexFormat.of().formatHex(checksum(file.toPath()));
+			// waits for the receiver to accept the file
+			try (OutputStream out = transfer.sendFile(file.getName(), file.length(), CHECKSUM_PREFIX + checksum);
+							FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				copy(in, Channels.newChannel(out), panel);
+			}
+		});
+	}
+
+	/**
+	 * Accepts and receives a file, to be called on the EDT; the request is accepted only when a transfer thread is free,
+	 * so that the sender does not wait for the data while the other transfers run
+	 *
+	 * @param request the request of the sender
+	 * @param file where to save the file
+	 * @param panel the progress of the transfer, already shown in the chat
+	 * @param onCompleted run on the EDT once the file is received and verified
+	 */
+	void receive(FileTransferRequest request, File file, FileTransferPanel panel, Runnable onCompleted) {
+		AtomicReference<IncomingFileTransfer> accepted = new AtomicReference<>();
+		Runnable cancel = () -> {
+			IncomingFileTransfer transfer = accepted.get();
+			if (transfer != null) {
+				transfer.cancel();
+			} else {
+				request.reject();
+			}
+		};
+		start(request.getFileName(), cancel, panel, onCompleted, () -> {
+			IncomingFileTransfer transfer = request.accept();
+			accepted.set(transfer);
+			Path part = Paths.get(file.getPath() + PART);
+			byte[] checksum;
+			long size;
+			try (InputStream in = transfer.recieveFile();
+							FileChannel out = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+											StandardOpenOption.WRITE)) {
+				checksum = copy(Channels.newChannel(in), out, panel);
+				size = out.size();
+			} catch (Exception e) {
+				Files.deleteIfExists(part);
+				throw e;
+			}
+			if (!isValid(request, size, checksum)) {
+				Files.deleteIfExists(part);
+				throw new IOException(MessageBundle.getMessage("angal.xmpp.checksummismatch.txt"));
+			}
+			Files.move(part, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		});
+	}
+
+	private void start(String fileName, Runnable cancel, FileTransferPanel panel, Runnable onCompleted, Work work) {
+		// set by the transfer or by the user, whoever ends first
+		AtomicBoolean ended = new AtomicBoolean();
+		long start = System.currentTimeMillis();
+		Future<?> future = executor.submit(() -> {
+			String error = null;
+			try {
+				work.run();
+			} catch (ClosedByInterruptException | InterruptedIOException e) {
+				error = MessageBundle.getMessage("angal.xmpp.filetransfercancelled.txt");
+			} catch (Exception e) {
+				LOGGER.error("File transfer of {} failed.", fileName, e);
+				error = MessageBundle.formatMessage("angal.xmpp.filetransferfailed.fmt.txt", e.getMessage());
+			}
+			if (!ended.compareAndSet(false, true)) {
+				return;
+			}
+			String outcome = error;
+			LOGGER.info("File transfer of {} {} in {} ms.", fileName, outcome == null ? "completed" : "ended", System.currentTimeMillis() - start);
+			SwingUtilities.invokeLater(() -> {
+				if (outcome != null) {
+					panel.setFinished(outcome, false);
+					return;
+				}
+				panel.setFinished(MessageBundle.getMessage("angal.xmpp.filetransfercompleted.txt"), true);
+				if (onCompleted != null) {
+					onCompleted.run();
+				}
+			});
+		});
+		panel.setCancelAction(() -> {
+			if (ended.compareAndSet(false, true)) {
+				future.cancel(true);
+				cancel.run();
+				panel.setFinished(MessageBundle.getMessage("angal.xmpp.filetransfercancelled.txt"), false);
+				LOGGER.info("File transfer of {} cancelled.", fileName);
+			}
+		});
+	}
+
+	/**
+	 * Copies the data, showing the progress
+	 *
+	 * @return the SHA-256 checksum of the data
+	 */
+	private static byte[] copy(ReadableByteChannel in, WritableByteChannel out, FileTransferPanel panel) throws IOException {
+		MessageDigest digest = newDigest();
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		long start = System.nanoTime();
+		long lastProgress = start;
+		long transferred = 0;
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			if (Thread.currentThread().isInterrupted()) {
+				throw new InterruptedIOException();
+			}
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				out.write(buffer);
+			}
+			digest.update(buffer.array(), 0, read);
+			buffer.clear();
+			transferred += read;
+			long now = System.nanoTime();
+			if (now - lastProgress >= TimeUnit.MILLISECONDS.toNanos(PROGRESS_INTERVAL_MS)) {
+				lastProgress = now;
+				showProgress(panel, transferred, now - start);
+			}
+		}
+		showProgress(panel, transferred, System.nanoTime() - start);
+		return digest.digest();
+	}
+
+	private static void showProgress(FileTransferPanel panel, long transferred, long elapsedNanos) {
+		long bytesPerSecond = elapsedNanos > 0 ? transferred * TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0;
+		SwingUtilities.invokeLater(() -> panel.setProgress(transferred, bytesPerSecond));
+	}
+
+	private static byte[] checksum(Path file) throws IOException {
+		MessageDigest digest = newDigest();
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				digest.update(buffer.array(), 0, read);
+				buffer.clear();
+			}
+		}
+		return digest.digest();
+	}
+
+	/**
+	 * @return {@code true} if the size and the checksum announced by the sender match; the checksum is not verified if
+	 *         the sender did not send it, e.g. an older version
+	 */
+	private static boolean isValid(FileTransferRequest request, long size, byte[] checksum) {
+		if (request.getFileSize() > 0 && request.getFileSize() != size) {
+			LOGGER.warn("File {} received with {} bytes instead of {}.", request.getFileName(), size, request.getFileSize());
+			return false;
+		}
+		String description = request.getDescription();
+		if (description == null || !description.startsWith(CHECKSUM_PREFIX)) {
+			LOGGER.debug("File {} received without checksum.", request.getFileName());
+			return true;
+		}
+		return description.substring(CHECKSUM_PREFIX.length()).trim().equalsIgnoreCase(HexFormat.of().formatHex(checksum));
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform supports SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.xmpp.gui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.AbstractListModel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import org.jivesoftware.smack.Roster;
+import org.jivesoftware.smack.RosterEntry;
+import org.jivesoftware.smack.util.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The contacts of the XMPP roster, online contacts first and then by name.
+ * <p>
+ * The model is changed on the EDT only, but {@link #presenceChanged(String)} and {@link #entriesChanged()} can be called
+ * from the Smack threads: the changes are collected and applied together {@link #COALESCE_MS} ms after the first one, so
+ * that a storm of presences (e.g. everybody logging in at the start of the shift) becomes a single update. A contact
+ * whose presence changed is moved to its sorted position; the list is read again from the roster only when contacts are
+ * added or removed. The availability of each contact is kept here, so that painting the list does not query the roster.
+ */
+class RosterListModel extends AbstractListModel<RosterEntry> {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RosterListModel.class);
+
+	static final int COALESCE_MS = 250;
+
+	private final transient Roster roster;
+	private final List<RosterEntry> entries = new ArrayList<>();
+	private final Map<String, Boolean> available = new HashMap<>();
+	private final transient Comparator<RosterEntry> order = Comparator
+			.comparing((RosterEntry entry) -> !isAvailable(entry))
+			.thenComparing(RosterListModel::getName, String.CASE_INSENSITIVE_ORDER);
+
+	private final Set<String> changedUsers = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean reloadRequested = new AtomicBoolean();
+	private final AtomicBoolean flushScheduled = new AtomicBoolean();
+	private final Timer flushTimer;
+
+	/**
+	 * @param roster the roster, read at once: to be created on the EDT
+	 */
+	RosterListModel(Roster roster) {
+		this.roster = roster;
+		flushTimer = new Timer(COALESCE_MS, actionEvent -> flush());
+		flushTimer.setRepeats(false);
+		reload();
+	}
+
+	@Override
+	public int getSize() {
+		return entries.size();
+	}
+
+	@Override
+	public RosterEntry getElementAt(int index) {
+		return entries.get(index);
+	}
+
+	/**
+	 * @param entry a contact of the list
+	 * @return {@code true} if the contact is online
+	 */
+	boolean isAvailable(RosterEntry entry) {
+		return available.getOrDefault(entry.getUser(), Boolean.FALSE);
+	}
+
+	/**
+	 * Notes that the presence of a contact changed; can be called from any thread
+	 *
+	 * @param from the address of the contact, with or without resource
+	 */
+	void presenceChanged(String from) {
+		changedUsers.add(StringUtils.parseBareAddress(from));
+		scheduleFlush();
+	}
+
+	/**
+	 * Notes that contacts were added, changed or removed; can be called from any thread
+	 */
+	void entriesChanged() {
+		reloadRequested.set(true);
+		scheduleFlush();
+	}
+
+	/**
+	 * Reads again all the contacts and their presence, on the EDT
+	 */
+	void reload() {
+		List<RosterEntry> current = new ArrayList<>(roster.getEntries());
+		available.clear();
+		for (RosterEntry entry : current) {
+			available.put(entry.getUser(), roster.getPresence(entry.getUser()).isAvailable());
+		}
+		current.sort(order);
+		int removed = entries.size();
+		entries.clear();
+		if (removed > 0) {
+			fireIntervalRemoved(this, 0, removed - 1);
+		}
+		entries.addAll(current);
+		if (!entries.isEmpty()) {
+			fireIntervalAdded(this, 0, entries.size() - 1);
+		}
+	}
+
+	private void scheduleFlush() {
+		if (flushScheduled.compareAndSet(false, true)) {
+			SwingUtilities.invokeLater(flushTimer::restart);
+		}
+	}
+
+	private void flush() {
+		flushScheduled.set(false);
+		List<String> users = new ArrayList<>(changedUsers);
+		changedUsers.removeAll(users);
+		if (reloadRequested.getAndSet(false)) {
+			reload();
+			LOGGER.debug("Roster reloaded: {} contacts", entries.size());
+			return;
+		}
+		int moved = 0;
+		for (String user : users) {
+			int index = indexOf(user);
+			if (index < 0) {
+				continue;
+			}
+			boolean online = roster.getPresence(user).isAvailable();
+			if (online == available.getOrDefault(user, Boolean.FALSE)) {
+				fireContentsChanged(this, index, index);
+				continue;
+			}
+			RosterEntry entry = entries.remove(index);
+			fireIntervalRemoved(this, index, index);
+			available.put(user, online);
+			int position = Collections.binarySearch(entries, entry, order);
+			int insertion = position < 0 ? -position - 1 : position;
+			entries.add(insertion, entry);
+			fireIntervalAdded(this, insertion, insertion);
+			moved++;
+		}
+		LOGGER.debug("{} presence changes applied, {} contacts moved", users.size(), moved);
+	}
+
+	private int indexOf(String user) {
+		for (int i = 0; i < entries.size(); i++) {
+			if (entries.get(i).getUser().equals(user)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static String getName(RosterEntry entry) {
+		return entry.getName() != null ? entry.getName() : entry.getUser();
+	}
+}
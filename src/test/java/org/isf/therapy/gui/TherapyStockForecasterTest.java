@@ -0,0 +1,108 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.therapy.gui;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.isf.medicals.manager.MedicalBrowsingManager;
+import org.isf.medicals.model.Medical;
+import org.isf.therapy.model.Therapy;
+import org.isf.utils.exception.OHServiceException;
+import org.junit.jupiter.api.Test;
+
+class TherapyStockForecasterTest {
+
+	private static final LocalDateTime TODAY = LocalDate.now().atTime(8, 0);
+
+	@Test
+	void shouldNeedQuantityTimesFrequencyForEachDayOfTreatment() throws OHServiceException {
+		// given:
+		Medical medical = medical(100.0);
+		Therapy therapy = therapy(medical, 2.0, 3, TODAY, TODAY.plusDays(2), TODAY.plusDays(4));
+
+		// when:
+		List<TherapyStockForecaster.StockCoverage> forecast = forecaster(medical).compute(List.of(therapy));
+
+		// then:
+		assertThat(forecast).singleElement().satisfies(coverage -> {
+			assertThat(coverage.getRequired()).isEqualTo(18.0);
+			assertThat(coverage.isCovered()).isTrue();
+		});
+	}
+
+	@Test
+	void shouldCountADayOnceWhenItsDosesAreListed() throws OHServiceException {
+		// given:
+		Medical medical = medical(100.0);
+		Therapy therapy = therapy(medical, 2.0, 3, TODAY, TODAY.plusHours(4), TODAY.plusHours(8), TODAY.plusDays(1));
+
+		// when:
+		List<TherapyStockForecaster.StockCoverage> forecast = forecaster(medical).compute(List.of(therapy));
+
+		// then:
+		assertThat(forecast).singleElement().satisfies(coverage -> assertThat(coverage.getRequired()).isEqualTo(12.0));
+	}
+
+	@Test
+	void shouldSkipPastDaysAndFindTheStockOutDate() throws OHServiceException {
+		// given:
+		Medical medical = medical(10.0);
+		Therapy therapy = therapy(medical, 2.0, 3, TODAY.minusDays(1), TODAY, TODAY.plusDays(1));
+
+		// when:
+		List<TherapyStockForecaster.StockCoverage> forecast = forecaster(medical).compute(List.of(therapy));
+
+		// then:
+		assertThat(forecast).singleElement().satisfies(coverage -> {
+			assertThat(coverage.getRequired()).isEqualTo(12.0);
+			assertThat(coverage.getStockOutDate()).isEqualTo(TODAY.toLocalDate().plusDays(1));
+		});
+	}
+
+	private static TherapyStockForecaster forecaster(Medical medical) throws OHServiceException {
+		MedicalBrowsingManager medicalBrowsingManager = mock(MedicalBrowsingManager.class);
+		when(medicalBrowsingManager.getMedical(medical.getCode())).thenReturn(medical);
+		return new TherapyStockForecaster(medicalBrowsingManager);
+	}
+
+	private static Medical medical(double stock) {
+		Medical medical = mock(Medical.class);
+		when(medical.getCode()).thenReturn(1);
+		when(medical.getTotalQuantity()).thenReturn(stock);
+		return medical;
+	}
+
+	private static Therapy therapy(Medical medical, double qty, int freqInDay, LocalDateTime... dates) {
+		Therapy therapy = mock(Therapy.class);
+		when(therapy.getMedical()).thenReturn(medical);
+		when(therapy.getQty()).thenReturn(qty);
+		when(therapy.getFreqInDay()).thenReturn(freqInDay);
+		when(therapy.getDates()).thenReturn(dates);
+		return therapy;
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.utils.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class EntityEventTest {
+
+	@Test
+	void shouldKeepInsertedWithLatestEntityWhenUpdatedAfterInsert() {
+		// given:
+		EntityEvent<String> inserted = EntityEvent.inserted(String.class, 1, "first");
+		EntityEvent<String> updated = EntityEvent.updated(String.class, 1, "second");
+
+		// when:
+		EntityEvent<String> merged = inserted.merge(updated);
+
+		// then:
+		assertThat(merged.getKind()).isEqualTo(EntityEvent.Kind.INSERTED);
+		assertThat(merged.getEntity()).isEqualTo("second");
+	}
+
+	@Test
+	void shouldCancelWhenDeletedAfterInsert() {
+		// given:
+		EntityEvent<String> inserted = EntityEvent.inserted(String.class, 1, "first");
+		EntityEvent<String> deleted = EntityEvent.deleted(String.class, 1, "first");
+
+		// when:
+		EntityEvent<String> merged = inserted.merge(deleted);
+
+		// then:
+		assertThat(merged).isNull();
+	}
+
+	@Test
+	void shouldBecomeUpdatedWhenInsertedAfterDelete() {
+		// given:
+		EntityEvent<String> deleted = EntityEvent.deleted(String.class, 1, "first");
+		EntityEvent<String> inserted = EntityEvent.inserted(String.class, 1, "second");
+
+		// when:
+		EntityEvent<String> merged = deleted.merge(inserted);
+
+		// then:
+		assertThat(merged.getKind()).isEqualTo(EntityEvent.Kind.UPDATED);
+		assertThat(merged.getEntity()).isEqualTo("second");
+	}
+
+	@Test
+	void shouldKeepLatestWhenDeletedAfterUpdate() {
+		// given:
+		EntityEvent<String> updated = EntityEvent.updated(String.class, 1, "first");
+		EntityEvent<String> deleted = EntityEvent.deleted(String.class, 1, "second");
+
+		// when:
+		EntityEvent<String> merged = updated.merge(deleted);
+
+		// then:
+		assertThat(merged).isSameAs(deleted);
+	}
+}
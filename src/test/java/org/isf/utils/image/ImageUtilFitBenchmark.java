@@ -0,0 +1,127 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.utils.image;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.imgscalr.Scalr;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Benchmark of {@link ImageUtil#fitImageFileSize(BufferedImage, int, String)} against the previous
+ * shrink-by-10%-per-iteration loop, on the test patient photo and the default profile photo limit. Not run by the
+ * build: enable it, or run the {@code benchmark} tag, to measure it again; the timings are printed.
+ */
+@Disabled("Manual benchmark, the timings depend on the machine")
+@Tag("benchmark")
+class ImageUtilFitBenchmark {
+
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int MEASURED_ROUNDS = 10;
+	private static final int MAXIMUM_FILE_SIZE = 32768;
+
+	@Test
+	void benchmarkFitImageFileSize() throws Exception {
+		// given:
+		File file = new File(getClass().getResource("patient.jpg").getFile());
+		BufferedImage image = ImageIO.read(file);
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			legacyFixImageFileSize(image, MAXIMUM_FILE_SIZE, "png");
+			ImageUtil.fitImageFileSize(image, MAXIMUM_FILE_SIZE, "png");
+		}
+
+		// when:
+		long legacyNanos = 0;
+		long fitNanos = 0;
+		LegacyResult legacy = null;
+		EncodedImage fitted = null;
+		for (int i = 0; i < MEASURED_ROUNDS; i++) {
+			long start = System.nanoTime();
+			legacy = legacyFixImageFileSize(image, MAXIMUM_FILE_SIZE, "png");
+			legacyNanos += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			fitted = ImageUtil.fitImageFileSize(image, MAXIMUM_FILE_SIZE, "png");
+			fitNanos += System.nanoTime() - start;
+		}
+
+		// then:
+		System.out.printf("image %dx%d, limit %d bytes%n", image.getWidth(), image.getHeight(), MAXIMUM_FILE_SIZE);
+		System.out.printf("legacy : %6.1f ms, %2d encodes, result %dx%d, %d bytes%n", legacyNanos / 1e6 / MEASURED_ROUNDS,
+						legacy.encodes, legacy.image.getWidth(), legacy.image.getHeight(), legacy.size);
+		System.out.printf("bounded: %6.1f ms, <=%d encodes, result %dx%d, %d bytes%n", fitNanos / 1e6 / MEASURED_ROUNDS,
+						ImageUtil.MAX_FIT_ENCODES, fitted.getImage().getWidth(), fitted.getImage().getHeight(), fitted.getSize());
+		assertThat(fitted.getSize()).isLessThanOrEqualTo(MAXIMUM_FILE_SIZE);
+	}
+
+	/**
+	 * The algorithm used before bounded fitting, kept here as the benchmark baseline.
+	 */
+	private static LegacyResult legacyFixImageFileSize(BufferedImage bufferedImage, int maximumFileSize, String fileType) throws IOException {
+		int encodes = 1;
+		long arrSize = encode(bufferedImage, fileType).length;
+		while (arrSize > maximumFileSize) {
+			long lastSize = arrSize;
+			int newTargetSize = bufferedImage.getTileWidth() - ((bufferedImage.getTileWidth() / 100) * 10);
+			bufferedImage = Scalr.resize(bufferedImage, newTargetSize);
+			arrSize = encode(bufferedImage, fileType).length;
+			encodes++;
+			if (arrSize == lastSize) {
+				break;
+			}
+		}
+		byte[] bytes = encode(bufferedImage, fileType);
+		encodes++;
+		// the legacy code also decoded the final bytes back into an image
+		BufferedImage result = ImageIO.read(new ByteArrayInputStream(bytes));
+		return new LegacyResult(result, bytes.length, encodes);
+	}
+
+	private static byte[] encode(BufferedImage bufferedImage, String fileType) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ImageIO.write(bufferedImage, fileType, baos);
+		return baos.toByteArray();
+	}
+
+	private static final class LegacyResult {
+
+		private final BufferedImage image;
+		private final int size;
+		private final int encodes;
+
+		private LegacyResult(BufferedImage image, int size, int encodes) {
+			this.image = image;
+			this.size = size;
+			this.encodes = encodes;
+		}
+	}
+}
@@ -24,6 +24,7 @@ package org.isf.utils.image;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 
 import javax.imageio.ImageIO;
@@ -55,4 +56,31 @@ class ImageUtilTest {
 		assertThat(newImage.getHeight()).isEqualTo(newHeight);
 	}
 
+	@Test
+	void testFitImageFileSize() throws Exception {
+		File file = new File(getClass().getResource("patient.jpg").getFile());
+		BufferedImage image = ImageIO.read(file);
+		int maximumFileSize = ImageUtil.imageToByte(image).length / 5;
+
+		EncodedImage fitted = ImageUtil.fitImageFileSize(image, maximumFileSize, "png");
+
+		assertThat(fitted.getSize()).isLessThanOrEqualTo(maximumFileSize);
+		assertThat(fitted.getImage().getWidth()).isLessThan(image.getWidth());
+		BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(fitted.getBytes()));
+		assertThat(decoded.getWidth()).isEqualTo(fitted.getImage().getWidth());
+		assertThat(decoded.getHeight()).isEqualTo(fitted.getImage().getHeight());
+	}
+
+	@Test
+	void testFitImageFileSizeAlreadySmallEnough() throws Exception {
+		File file = new File(getClass().getResource("patient.jpg").getFile());
+		BufferedImage image = ImageIO.read(file);
+		int maximumFileSize = ImageUtil.imageToByte(image).length;
+
+		EncodedImage fitted = ImageUtil.fitImageFileSize(image, maximumFileSize, "png");
+
+		assertThat(fitted.getImage()).isSameAs(image);
+		assertThat(fitted.getSize()).isEqualTo(maximumFileSize);
+	}
+
 }
@@ -0,0 +1,114 @@
+/*
+ * Open Hospital (www.open-hospital.org)
+ * Copyright © 2006-2023 Informatici Senza Frontiere (info@informaticisenzafrontiere.org)
+ *
+ * Open Hospital is a free and open source software for healthcare data management.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * https://www.gnu.org/licenses/gpl-3.0-standalone.html
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+package org.isf.utils.jobjects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.JTable;
+import javax.swing.event.TableModelEvent;
+
+import org.junit.jupiter.api.Test;
+
+class EntityTableModelTest {
+
+	@Test
+	void shouldFireOnlyTheUpdatedRow() {
+		// given:
+		TestModel model = new TestModel(List.of("a1", "b1", "c1"));
+		List<TableModelEvent> events = new ArrayList<>();
+		model.addTableModelListener(events::add);
+
+		// when:
+		int row = model.update("b2");
+
+		// then:
+		assertThat(row).isEqualTo(1);
+		assertThat(model.getValueAt(1, 0)).isEqualTo("b2");
+		assertThat(events).singleElement().satisfies(event -> {
+			assertThat(event.getType()).isEqualTo(TableModelEvent.UPDATE);
+			assertThat(event.getFirstRow()).isEqualTo(1);
+			assertThat(event.getLastRow()).isEqualTo(1);
+		});
+	}
+
+	@Test
+	void shouldFindRowsByIdAfterInsertAndRemove() {
+		// given:
+		TestModel model = new TestModel(List.of("a1", "b1", "c1"));
+
+		// when:
+		model.insert(0, "d1");
+		int removed = model.remove('b');
+
+		// then:
+		assertThat(removed).isEqualTo(2);
+		assertThat(model.indexOf('d')).isZero();
+		assertThat(model.indexOf('c')).isEqualTo(2);
+		assertThat(model.indexOf('b')).isEqualTo(-1);
+		assertThat(model.update("b2")).isEqualTo(-1);
+	}
+
+	@Test
+	void shouldKeepSelectionWhenEntitiesAreReplaced() {
+		// given:
+		TestModel model = new TestModel(List.of("a1", "b1", "c1"));
+		JTable table = new JTable(model);
+		table.setRowSelectionInterval(2, 2);
+
+		// when:
+		model.setEntities(List.of("c2", "a2"), table);
+
+		// then:
+		assertThat(table.getSelectedRows()).containsExactly(0);
+		assertThat(model.getValueAt(0, -1)).isEqualTo("c2");
+	}
+
+	/*
+	 * the id of an entity is its first character
+	 */
+	private static class TestModel extends EntityTableModel<String> {
+
+		private static final long serialVersionUID = 1L;
+
+		TestModel(List<String> entities) {
+			setEntities(entities);
+		}
+
+		@Override
+		protected Object getId(String entity) {
+			return entity.charAt(0);
+		}
+
+		@Override
+		protected Object getValueAt(String entity, int column) {
+			return entity;
+		}
+
+		@Override
+		public int getColumnCount() {
+			return 1;
+		}
+	}
+}